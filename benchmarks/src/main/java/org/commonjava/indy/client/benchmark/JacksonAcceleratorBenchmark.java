@@ -0,0 +1,208 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.commonjava.indy.client.core.helper.JacksonAccelerator;
+import org.commonjava.indy.content.browse.model.ContentBrowseResult;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.folo.dto.TrackedContentEntryDTO;
+import org.commonjava.indy.folo.model.TrackingKey;
+import org.commonjava.indy.model.core.AccessChannel;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+import org.commonjava.indy.promote.model.ValidationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes the large DTOs that report-processing workers read (a Folo tracking record, a browse listing and a
+ * paths promotion result) with and without {@link JacksonAccelerator} registered on the mapper. The benchmark jar
+ * carries jackson-module-blackbird, so the accelerated runs use Blackbird:
+ * {@code java -jar benchmarks/target/benchmarks.jar JacksonAcceleratorBenchmark}
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class JacksonAcceleratorBenchmark
+{
+    private static final int ENTRIES = 5000;
+
+    private static final String REPO_URL = "http://indy.example.com/api/content/maven/hosted/build-1/";
+
+    @Param( { "false", "true" } )
+    public boolean accelerated;
+
+    private ObjectReader trackedContentReader;
+
+    private ObjectReader browseReader;
+
+    private ObjectReader promoteReader;
+
+    private byte[] trackedContent;
+
+    private byte[] browse;
+
+    private byte[] promote;
+
+    @Setup
+    public void setup()
+            throws Exception
+    {
+        final ObjectMapper mapper = new IndyObjectMapper( Collections.emptySet() );
+        if ( accelerated && !JacksonAccelerator.register( mapper ) )
+        {
+            throw new IllegalStateException( "No Jackson accelerator on the benchmark classpath" );
+        }
+
+        trackedContentReader = mapper.readerFor( TrackedContentDTO.class );
+        browseReader = mapper.readerFor( ContentBrowseResult.class );
+        promoteReader = mapper.readerFor( PathsPromoteResult.class );
+
+        final ObjectMapper writer = new IndyObjectMapper( Collections.emptySet() );
+        trackedContent = writer.writeValueAsBytes( newTrackedContent() );
+        browse = writer.writeValueAsBytes( newBrowseResult() );
+        promote = writer.writeValueAsBytes( newPromoteResult() );
+    }
+
+    @Benchmark
+    public TrackedContentDTO trackedContent()
+            throws Exception
+    {
+        return trackedContentReader.readValue( trackedContent );
+    }
+
+    @Benchmark
+    public ContentBrowseResult contentBrowse()
+            throws Exception
+    {
+        return browseReader.readValue( browse );
+    }
+
+    @Benchmark
+    public PathsPromoteResult pathsPromote()
+            throws Exception
+    {
+        return promoteReader.readValue( promote );
+    }
+
+    private static TrackedContentDTO newTrackedContent()
+    {
+        final StoreKey hosted = new StoreKey( "maven", StoreType.hosted, "build-1" );
+        final StoreKey remote = new StoreKey( "maven", StoreType.remote, "central" );
+        final Set<TrackedContentEntryDTO> uploads = new TreeSet<>();
+        final Set<TrackedContentEntryDTO> downloads = new TreeSet<>();
+        for ( int i = 0; i < ENTRIES; i++ )
+        {
+            final String path = path( i );
+            downloads.add( entry( remote, path, "https://repo.maven.apache.org/maven2" + path, i ) );
+            if ( i % 10 == 0 )
+            {
+                uploads.add( entry( hosted, path, null, i ) );
+            }
+        }
+
+        return new TrackedContentDTO( new TrackingKey( "build-1" ), uploads, downloads );
+    }
+
+    private static TrackedContentEntryDTO entry( final StoreKey store, final String path, final String originUrl,
+                                                 final int i )
+    {
+        final TrackedContentEntryDTO entry = new TrackedContentEntryDTO( store, AccessChannel.NATIVE, path );
+        entry.setOriginUrl( originUrl );
+        entry.setLocalUrl( REPO_URL + path );
+        entry.setMd5( String.format( "%032x", i ) );
+        entry.setSha1( String.format( "%040x", i ) );
+        entry.setSha256( String.format( "%064x", i ) );
+        entry.setSize( 1024L + i );
+        entry.setTimestamps( Collections.singleton( 1_700_000_000_000L + i ) );
+        return entry;
+    }
+
+    private static ContentBrowseResult newBrowseResult()
+    {
+        final ContentBrowseResult result = new ContentBrowseResult();
+        result.setStoreKey( new StoreKey( "maven", StoreType.group, "builds" ) );
+        result.setPath( "org/commonjava/" );
+        result.setParentPath( "org/" );
+        result.setStoreBrowseUrl( "http://indy.example.com/api/browse/maven/group/builds" );
+        result.setStoreContentUrl( "http://indy.example.com/api/content/maven/group/builds" );
+        result.setSources( new ArrayList<>( sources() ) );
+
+        final List<ContentBrowseResult.ListingURLResult> listing = new ArrayList<>( ENTRIES );
+        for ( int i = 0; i < ENTRIES; i++ )
+        {
+            final String path = "org/commonjava/artifact-" + i + "/";
+            listing.add( new ContentBrowseResult.ListingURLResult( path, REPO_URL + path, sources() ) );
+        }
+        result.setListingUrls( listing );
+        return result;
+    }
+
+    private static Set<String> sources()
+    {
+        final Set<String> sources = new HashSet<>();
+        sources.add( "http://indy.example.com/api/content/maven/hosted/build-1" );
+        sources.add( "http://indy.example.com/api/content/maven/remote/central" );
+        return sources;
+    }
+
+    private static PathsPromoteResult newPromoteResult()
+    {
+        final Set<String> paths = new HashSet<>();
+        for ( int i = 0; i < ENTRIES; i++ )
+        {
+            paths.add( path( i ) );
+        }
+
+        final PathsPromoteRequest request =
+                new PathsPromoteRequest( new StoreKey( "maven", StoreType.hosted, "build-1" ),
+                                         new StoreKey( "maven", StoreType.hosted, "pnc-builds" ), paths );
+        final ValidationResult validations = new ValidationResult();
+        validations.setValid( true );
+        validations.setRuleSet( "maven-pnc-builds.json" );
+        return new PathsPromoteResult( request, Collections.emptySet(), paths, Collections.emptySet(), validations );
+    }
+
+    private static String path( final int i )
+    {
+        return "/org/commonjava/artifact-" + i + "/1.0/artifact-" + i + "-1.0.jar";
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.commonjava.indy.client.core.helper.JsonCodecCache;
+import org.commonjava.indy.model.core.RemoteRepository;
+import org.commonjava.indy.model.core.dto.SimpleBooleanResultDTO;
+import org.commonjava.indy.model.core.dto.StoreListingDTO;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.indy.stats.IndyVersioning;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the small responses most calls get back, once through {@link ObjectMapper#readValue} with a class or a fresh
+ * {@link TypeReference} per call (as the client did before) and once through the readers {@link JsonCodecCache}
+ * keeps. Run with {@code -prof gc} to compare allocation per call as well:
+ * {@code java -jar benchmarks/target/benchmarks.jar JsonCodecCacheBenchmark -prof gc}
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class JsonCodecCacheBenchmark
+{
+    private ObjectMapper mapper;
+
+    private JsonCodecCache codecs;
+
+    private ObjectReader listingReader;
+
+    private byte[] booleanResult;
+
+    private byte[] versioning;
+
+    private byte[] listing;
+
+    @Setup
+    public void setup()
+            throws Exception
+    {
+        mapper = new IndyObjectMapper( Collections.emptySet() );
+        codecs = new JsonCodecCache( mapper );
+        listingReader = codecs.reader( new TypeReference<StoreListingDTO<RemoteRepository>>()
+        {
+        }.getType() );
+
+        final SimpleBooleanResultDTO result = new SimpleBooleanResultDTO();
+        result.setResult( true );
+        result.setDescription( "maven:remote:central exists" );
+        booleanResult = mapper.writeValueAsBytes( result );
+
+        versioning = LocalIndyServer.VERSION_INFO_JSON.getBytes( StandardCharsets.UTF_8 );
+
+        final List<RemoteRepository> remotes =
+                Arrays.asList( new RemoteRepository( "central", "https://repo.maven.apache.org/maven2/" ),
+                               new RemoteRepository( "jboss", "https://repository.jboss.org/nexus/content/" ) );
+        listing = mapper.writeValueAsBytes( new StoreListingDTO<>( remotes ) );
+    }
+
+    @Benchmark
+    public SimpleBooleanResultDTO booleanResultPerCall()
+            throws Exception
+    {
+        return mapper.readValue( booleanResult, SimpleBooleanResultDTO.class );
+    }
+
+    @Benchmark
+    public SimpleBooleanResultDTO booleanResultCached()
+            throws Exception
+    {
+        return codecs.reader( SimpleBooleanResultDTO.class ).readValue( booleanResult );
+    }
+
+    @Benchmark
+    public IndyVersioning versioningPerCall()
+            throws Exception
+    {
+        return mapper.readValue( versioning, IndyVersioning.class );
+    }
+
+    @Benchmark
+    public IndyVersioning versioningCached()
+            throws Exception
+    {
+        return codecs.reader( IndyVersioning.class ).readValue( versioning );
+    }
+
+    @Benchmark
+    public StoreListingDTO<RemoteRepository> listingPerCall()
+            throws Exception
+    {
+        return mapper.readValue( listing, new TypeReference<StoreListingDTO<RemoteRepository>>()
+        {
+        } );
+    }
+
+    @Benchmark
+    public StoreListingDTO<RemoteRepository> listingCached()
+            throws Exception
+    {
+        return listingReader.readValue( listing );
+    }
+}
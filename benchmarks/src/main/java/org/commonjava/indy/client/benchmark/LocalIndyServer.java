@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A loopback HTTP server that answers every request below {@code /api} with the same JSON body, after an optional
+ * delay standing in for Indy's own processing time.
+ */
+public final class LocalIndyServer
+        implements Closeable
+{
+    public static final String VERSION_INFO_JSON =
+            "{\"version\":\"1.0\",\"builder\":\"bench\",\"commit-id\":\"0000000\",\"timestamp\":\"now\","
+                    + "\"api-version\":\"1\"}";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    public LocalIndyServer( final String json, final long delayMillis )
+            throws IOException
+    {
+        final byte[] body = json.getBytes( StandardCharsets.UTF_8 );
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 1024 );
+        server.setExecutor( executor );
+        server.createContext( "/api", exchange -> {
+            if ( delayMillis > 0 )
+            {
+                try
+                {
+                    TimeUnit.MILLISECONDS.sleep( delayMillis );
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.getResponseHeaders().set( "Content-Type", "application/json" );
+            exchange.sendResponseHeaders( 200, body.length );
+            try ( OutputStream out = exchange.getResponseBody() )
+            {
+                out.write( body );
+            }
+        } );
+        server.start();
+    }
+
+    public String getBaseUrl()
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop( 0 );
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.benchmark;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.commonjava.indy.client.core.IndyClientHttp;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.util.jhttpc.HttpFactory;
+import org.commonjava.util.jhttpc.auth.MemoryPasswordManager;
+import org.commonjava.util.jhttpc.model.SiteConfig;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second against a local server, with the shared pooled client that {@link IndyClientHttp#newClient()}
+ * returns, and with a client built and closed for every call (what each call did before the client was shared).
+ * <br/>
+ * {@code java -jar benchmarks/target/benchmarks.jar SharedClientBenchmark}
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+@Threads( 8 )
+public class SharedClientBenchmark
+{
+    private LocalIndyServer server;
+
+    private SiteConfig site;
+
+    private HttpFactory factory;
+
+    private IndyClientHttp http;
+
+    private String url;
+
+    @Setup
+    public void start()
+            throws Exception
+    {
+        server = new LocalIndyServer( LocalIndyServer.VERSION_INFO_JSON, 0 );
+        site = new SiteConfigBuilder( "bench", server.getBaseUrl() ).withMaxConnections( 16 ).build();
+        factory = new HttpFactory( new MemoryPasswordManager() );
+        http = IndyClientHttp.builder()
+                             .setLocation( site )
+                             .setObjectMapper( new IndyObjectMapper( Collections.emptySet() ) )
+                             .setPasswordManager( new MemoryPasswordManager() )
+                             .setApiVersion( "1" )
+                             .build();
+        url = http.toIndyUrl( "stats/version-info" );
+    }
+
+    @TearDown
+    public void stop()
+    {
+        http.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int sharedClient()
+            throws Exception
+    {
+        return get( http.newClient() );
+    }
+
+    @Benchmark
+    public int clientPerCall()
+            throws Exception
+    {
+        try ( CloseableHttpClient client = factory.createClient( site ) )
+        {
+            return get( client );
+        }
+    }
+
+    private int get( final CloseableHttpClient client )
+            throws IOException
+    {
+        try ( CloseableHttpResponse response = client.execute( new HttpGet( url ) ) )
+        {
+            EntityUtils.consume( response.getEntity() );
+            return response.getStatusLine().getStatusCode();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.benchmark;
+
+import org.commonjava.indy.client.core.IndyClientHttp;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.indy.stats.IndyVersioning;
+import org.commonjava.util.jhttpc.auth.MemoryPasswordManager;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to complete a burst of concurrent blocking calls, each made through {@link IndyClientHttp#submit}, on virtual
+ * threads and on a fixed pool of platform threads. The local server takes a few milliseconds per request, so most of
+ * each call is spent waiting, as it is against a real Indy.
+ * <br/>
+ * Virtual threads need a Java 21 runtime (on older ones the client falls back to platform threads). Add
+ * {@code -prof gc} for the allocation and memory side:
+ * {@code java -jar benchmarks/target/benchmarks.jar VirtualThreadBenchmark -prof gc}
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 10 )
+@Measurement( iterations = 5, time = 10 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx2g" )
+public class VirtualThreadBenchmark
+{
+    private static final int PLATFORM_THREADS = 200;
+
+    private static final int CONNECTIONS = 200;
+
+    private static final long SERVER_DELAY_MILLIS = 5;
+
+    @Param( { "1000", "10000" } )
+    public int concurrency;
+
+    @Param( { "platform", "virtual" } )
+    public String threads;
+
+    private LocalIndyServer server;
+
+    private ExecutorService platformPool;
+
+    private IndyClientHttp http;
+
+    @Setup
+    public void start()
+            throws Exception
+    {
+        server = new LocalIndyServer( LocalIndyServer.VERSION_INFO_JSON, SERVER_DELAY_MILLIS );
+        final IndyClientHttp.Builder builder =
+                IndyClientHttp.builder()
+                              .setLocation( new SiteConfigBuilder( "bench", server.getBaseUrl() ).withMaxConnections(
+                                      CONNECTIONS ).build() )
+                              .setObjectMapper( new IndyObjectMapper( Collections.emptySet() ) )
+                              .setPasswordManager( new MemoryPasswordManager() )
+                              .setApiVersion( "1" );
+        if ( "virtual".equals( threads ) )
+        {
+            builder.setVirtualThreads( true );
+        }
+        else
+        {
+            platformPool = Executors.newFixedThreadPool( PLATFORM_THREADS );
+            builder.setBlockingExecutor( platformPool );
+        }
+        http = builder.build();
+    }
+
+    @TearDown
+    public void stop()
+    {
+        http.close();
+        if ( platformPool != null )
+        {
+            platformPool.shutdownNow();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public int burst()
+    {
+        final List<CompletableFuture<IndyVersioning>> calls = new ArrayList<>( concurrency );
+        for ( int i = 0; i < concurrency; i++ )
+        {
+            calls.add( http.submit( () -> http.get( "stats/version-info", IndyVersioning.class ) ) );
+        }
+        CompletableFuture.allOf( calls.toArray( new CompletableFuture[0] ) ).join();
+        return calls.size();
+    }
+}
@@ -17,9 +17,19 @@ package org.commonjava.indy.client.core;
 
 import com.fasterxml.jackson.databind.Module;
 import org.commonjava.indy.client.core.auth.IndyClientAuthenticator;
+import org.commonjava.indy.client.core.balance.LoadBalancingStrategy;
+import org.commonjava.indy.client.core.balance.NodeHealthChecker;
+import org.commonjava.indy.client.core.breaker.CircuitBreakerConfig;
+import org.commonjava.indy.client.core.bulkhead.BulkheadPolicy;
+import org.commonjava.indy.client.core.compress.CompressionPolicy;
+import org.commonjava.indy.client.core.hedge.HedgePolicy;
+import org.commonjava.indy.client.core.helper.BinaryJsonFormat;
+import org.commonjava.indy.client.core.helper.JacksonAccelerator;
 import org.commonjava.indy.client.core.module.IndyContentClientModule;
 import org.commonjava.indy.client.core.module.IndyStoresClientModule;
 import org.commonjava.indy.client.core.o11y.trace.ClientTracerConfiguration;
+import org.commonjava.indy.client.core.retry.RetryPolicy;
+import org.commonjava.indy.client.core.schedule.SchedulingPolicy;
 import org.commonjava.indy.inject.IndyVersioningProvider;
 import org.commonjava.indy.model.core.io.IndyObjectMapper;
 import org.commonjava.indy.stats.IndyVersioning;
@@ -31,8 +41,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import static org.commonjava.indy.IndyRequestConstants.HEADER_COMPONENT_ID;
 
@@ -41,10 +53,14 @@ public class Indy
         implements Closeable
 {
 
+    private static final String VERSION_INFO_PATH = "/stats/version-info";
+
     private String apiVersion;
 
     private IndyClientHttp http;
 
+    private long warmUpMillis;
+
     private final Set<IndyClientModule> moduleRegistry;
 
     @Deprecated
@@ -149,6 +165,7 @@ public class Indy
         {
             module.setup( this, http );
             moduleRegistry.add( module );
+            http.warmJsonTypes( module.getJsonTypes() );
         }
 
     }
@@ -183,6 +200,7 @@ public class Indy
         {
             module.setup( this, http );
             moduleRegistry.add( module );
+            http.warmJsonTypes( module.getJsonTypes() );
         }
     }
 
@@ -214,6 +232,54 @@ public class Indy
 
         private ClientTracerConfiguration traceConfig;
 
+        private ExecutorService blockingExecutor;
+
+        private boolean virtualThreads;
+
+        private boolean http2Transport;
+
+        private int minConnections;
+
+        private int maxConnections;
+
+        private long evictIdleMillis;
+
+        private long evictTtlMillis;
+
+        private List<SiteConfig> nodes;
+
+        private LoadBalancingStrategy balancingStrategy;
+
+        private long healthCheckMillis = NodeHealthChecker.DEFAULT_INTERVAL_MILLIS;
+
+        private RetryPolicy retryPolicy;
+
+        private CircuitBreakerConfig circuitBreakerConfig;
+
+        private HedgePolicy hedgePolicy;
+
+        private BulkheadPolicy bulkheadPolicy;
+
+        private int loggedBodyLimit;
+
+        private boolean jsonAcceleration;
+
+        private BinaryJsonFormat binaryFormat;
+
+        private CompressionPolicy compressionPolicy;
+
+        private int minConcurrency;
+
+        private int maxConcurrency;
+
+        private int maxQueuedCalls;
+
+        private SchedulingPolicy schedulingPolicy;
+
+        private int warmUpConnections;
+
+        private boolean warmUpWithVersionInfo;
+
         private Builder()
         {
         }
@@ -267,6 +333,183 @@ public class Indy
             return this;
         }
 
+        /**
+         * Caller-owned executor for the client's blocking work, see {@link IndyClientHttp#submit}.
+         */
+        public Builder setBlockingExecutor( ExecutorService blockingExecutor )
+        {
+            this.blockingExecutor = blockingExecutor;
+            return this;
+        }
+
+        /**
+         * Run the client's blocking work (see {@link IndyClientHttp#submit}) on virtual threads when the JVM
+         * supports them. Off by default.
+         */
+        public Builder setVirtualThreads( boolean virtualThreads )
+        {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Use the multiplexed HTTP/2 transport for blocking calls, see {@link IndyClientHttp.Builder#setHttp2Transport}.
+         */
+        public Builder setHttp2Transport( boolean http2Transport )
+        {
+            this.http2Transport = http2Transport;
+            return this;
+        }
+
+        /**
+         * Size the connections in use adaptively, see {@link IndyClientHttp.Builder#setAdaptiveConnections}.
+         */
+        public Builder setAdaptiveConnections( int minConnections, int maxConnections )
+        {
+            this.minConnections = minConnections;
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Evict idle and long-lived pooled connections in the background, see
+         * {@link IndyClientHttp.Builder#setConnectionEviction}.
+         */
+        public Builder setConnectionEviction( long idleMillis, long ttlMillis )
+        {
+            this.evictIdleMillis = idleMillis;
+            this.evictTtlMillis = ttlMillis;
+            return this;
+        }
+
+        /**
+         * Balance requests over several Indy nodes, see {@link IndyClientHttp.Builder#setNodes(List)}.
+         */
+        public Builder setNodes( List<SiteConfig> nodes )
+        {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder setLoadBalancingStrategy( LoadBalancingStrategy balancingStrategy )
+        {
+            this.balancingStrategy = balancingStrategy;
+            return this;
+        }
+
+        /**
+         * See {@link IndyClientHttp.Builder#setHealthCheckInterval(long)}.
+         */
+        public Builder setHealthCheckInterval( long healthCheckMillis )
+        {
+            this.healthCheckMillis = healthCheckMillis;
+            return this;
+        }
+
+        public Builder setRetryPolicy( RetryPolicy retryPolicy )
+        {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        public Builder setCircuitBreakers( CircuitBreakerConfig circuitBreakerConfig )
+        {
+            this.circuitBreakerConfig = circuitBreakerConfig;
+            return this;
+        }
+
+        /**
+         * Log the start of JSON response bodies at debug level, see
+         * {@link IndyClientHttp.Builder#setLoggedBodyLimit(int)}.
+         */
+        public Builder setLoggedBodyLimit( int loggedBodyLimit )
+        {
+            this.loggedBodyLimit = loggedBodyLimit;
+            return this;
+        }
+
+        /**
+         * Register Blackbird (or, failing that, Afterburner) on the client's object mapper so model DTOs are read and
+         * written through generated accessors instead of reflection. The module jar must be on the classpath; without
+         * it a warning is logged and plain Jackson is used. See {@link JacksonAccelerator}.
+         */
+        public Builder setJsonAcceleration( boolean jsonAcceleration )
+        {
+            this.jsonAcceleration = jsonAcceleration;
+            return this;
+        }
+
+        /**
+         * Negotiate a binary encoding of JSON responses, see {@link IndyClientHttp.Builder#setBinaryFormat}.
+         */
+        public Builder setBinaryFormat( BinaryJsonFormat binaryFormat )
+        {
+            this.binaryFormat = binaryFormat;
+            return this;
+        }
+
+        /**
+         * Give some calls connection pools of their own, see
+         * {@link IndyClientHttp.Builder#setBulkheads(BulkheadPolicy)}.
+         */
+        public Builder setBulkheads( BulkheadPolicy bulkheadPolicy )
+        {
+            this.bulkheadPolicy = bulkheadPolicy;
+            return this;
+        }
+
+        /**
+         * Hedge slow content reads, see {@link IndyClientHttp.Builder#setHedgePolicy(HedgePolicy)}.
+         */
+        public Builder setHedgePolicy( HedgePolicy hedgePolicy )
+        {
+            this.hedgePolicy = hedgePolicy;
+            return this;
+        }
+
+        /**
+         * Negotiate compressed JSON responses and request bodies, see
+         * {@link IndyClientHttp.Builder#setCompressionPolicy(CompressionPolicy)}.
+         */
+        public Builder setCompressionPolicy( CompressionPolicy compressionPolicy )
+        {
+            this.compressionPolicy = compressionPolicy;
+            return this;
+        }
+
+        /**
+         * Adapt the number of calls in flight to Indy's load, see {@link IndyClientHttp.Builder#setConcurrencyLimit}.
+         */
+        public Builder setConcurrencyLimit( int minConcurrency, int maxConcurrency, int maxQueued )
+        {
+            this.minConcurrency = minConcurrency;
+            this.maxConcurrency = maxConcurrency;
+            this.maxQueuedCalls = maxQueued;
+            return this;
+        }
+
+        /**
+         * Give content downloads precedence over bulk admin calls for connection slots, see
+         * {@link SchedulingPolicy}.
+         */
+        public Builder setSchedulingPolicy( SchedulingPolicy schedulingPolicy )
+        {
+            this.schedulingPolicy = schedulingPolicy;
+            return this;
+        }
+
+        /**
+         * Open this many pooled connections in parallel when the client is built, see {@link IndyClientHttp#warmUp}.
+         * With {@code withVersionInfo}, each connection is opened by a call to {@code /stats/version-info} instead of a
+         * HEAD of the base URL.
+         */
+        public Builder setWarmUp( int connections, boolean withVersionInfo )
+        {
+            this.warmUpConnections = connections;
+            this.warmUpWithVersionInfo = withVersionInfo;
+            return this;
+        }
+
         public Indy build()
                 throws IndyClientException
         {
@@ -285,11 +528,41 @@ public class Indy
                                       .setPasswordManager( this.passwordManager )
                                       .setMdcCopyMappings( this.mdcCopyMappings )
                                       .setObjectMapper( this.objectMapper )
+                                      .setBlockingExecutor( this.blockingExecutor )
+                                      .setVirtualThreads( this.virtualThreads )
+                                      .setHttp2Transport( this.http2Transport )
+                                      .setAdaptiveConnections( this.minConnections, this.maxConnections )
+                                      .setConnectionEviction( this.evictIdleMillis, this.evictTtlMillis )
+                                      .setNodes( this.nodes )
+                                      .setLoadBalancingStrategy( this.balancingStrategy )
+                                      .setHealthCheckInterval( this.healthCheckMillis )
+                                      .setBulkheads( this.bulkheadPolicy )
+                                      .setLoggedBodyLimit( this.loggedBodyLimit )
+                                      .setBinaryFormat( this.binaryFormat )
+                                      .setRetryPolicy( this.retryPolicy )
+                                      .setCircuitBreakers( this.circuitBreakerConfig )
+                                      .setHedgePolicy( this.hedgePolicy )
+                                      .setCompressionPolicy( this.compressionPolicy )
+                                      .setConcurrencyLimit( this.minConcurrency, this.maxConcurrency,
+                                                            this.maxQueuedCalls )
+                                      .setSchedulingPolicy( this.schedulingPolicy )
                                       .build();
+            if ( this.jsonAcceleration )
+            {
+                JacksonAccelerator.register( indy.http.getObjectMapper() );
+            }
+
             indy.setupStandardModules();
             for ( final IndyClientModule module : this.moduleRegistry )
             {
                 module.setup( indy, indy.http );
+                indy.http.warmJsonTypes( module.getJsonTypes() );
+            }
+
+            if ( this.warmUpConnections > 0 )
+            {
+                indy.warmUpMillis = indy.http.warmUp( this.warmUpConnections,
+                                                      this.warmUpWithVersionInfo ? VERSION_INFO_PATH : null );
             }
 
             return indy;
@@ -319,7 +592,7 @@ public class Indy
     public IndyVersioning getVersionInfo()
             throws IndyClientException
     {
-        return http.get( "/stats/version-info", IndyVersioning.class );
+        return http.get( VERSION_INFO_PATH, IndyVersioning.class );
     }
 
     public IndyStoresClientModule stores()
@@ -388,6 +661,8 @@ public class Indy
         {
             http.getObjectMapper().registerModules( serMods );
         }
+
+        http.warmJsonTypes( module.getJsonTypes() );
     }
 
     // DA, Builder, Orchestrator, etc. If available, this will be sent as a request header.
@@ -402,6 +677,14 @@ public class Indy
         http.addDefaultHeader( key, value );
     }
 
+    /**
+     * Milliseconds spent warming up connections at build time, or 0 when warm-up was not configured.
+     */
+    public long getWarmUpMillis()
+    {
+        return warmUpMillis;
+    }
+
     public String getApiVersion()
     {
         return apiVersion;
@@ -15,14 +15,22 @@
  */
 package org.commonjava.indy.client.core;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpRequest;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
@@ -32,18 +40,64 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.util.VersionInfo;
 import org.commonjava.indy.client.core.auth.IndyClientAuthenticator;
+import org.commonjava.indy.client.core.balance.IndyNode;
+import org.commonjava.indy.client.core.balance.LoadBalancingHttpClient;
+import org.commonjava.indy.client.core.balance.LoadBalancingStrategy;
+import org.commonjava.indy.client.core.balance.NodeHealthChecker;
+import org.commonjava.indy.client.core.balance.RoundRobinStrategy;
+import org.commonjava.indy.client.core.breaker.CircuitBreaker;
+import org.commonjava.indy.client.core.breaker.CircuitBreakerConfig;
+import org.commonjava.indy.client.core.breaker.CircuitBreakingHttpClient;
+import org.commonjava.indy.client.core.bulkhead.BulkheadHttpClient;
+import org.commonjava.indy.client.core.bulkhead.BulkheadPolicy;
+import org.commonjava.indy.client.core.compress.CompressionHttpClient;
+import org.commonjava.indy.client.core.compress.CompressionPolicy;
+import org.commonjava.indy.client.core.compress.CompressionStats;
+import org.commonjava.indy.client.core.deadline.DeadlineHttpClient;
+import org.commonjava.indy.client.core.hedge.HedgePolicy;
+import org.commonjava.indy.client.core.hedge.HedgingHttpClient;
+import org.commonjava.indy.client.core.hedge.RequestHedger;
+import org.commonjava.indy.client.core.helper.AdaptiveConnectionLimit;
+import org.commonjava.indy.client.core.helper.AdaptiveLimitHttpClient;
+import org.commonjava.indy.client.core.helper.BinaryJsonFormat;
+import org.commonjava.indy.client.core.helper.BodySample;
+import org.commonjava.indy.client.core.helper.CloseBlockingHttpClient;
+import org.commonjava.indy.client.core.helper.ConnectionEvictor;
+import org.commonjava.indy.client.core.helper.DefaultHeadersHttpClient;
+import org.commonjava.indy.client.core.helper.EvictingHttpClient;
 import org.commonjava.indy.client.core.helper.HttpResources;
+import org.commonjava.indy.client.core.helper.JsonCodecCache;
+import org.commonjava.indy.client.core.helper.JsonEntity;
+import org.commonjava.indy.client.core.helper.JsonItemIterator;
+import org.commonjava.indy.client.core.http2.Http2HttpFactory;
+import org.commonjava.indy.client.core.limit.AimdConcurrencyLimit;
+import org.commonjava.indy.client.core.limit.ConcurrencyLimitingHttpClient;
 import org.commonjava.indy.client.core.o11y.metric.ClientMetricManager;
 import org.commonjava.indy.client.core.o11y.metric.ClientMetrics;
 import org.commonjava.indy.client.core.o11y.trace.ClientTracerConfiguration;
+import org.commonjava.indy.client.core.o11y.trace.SpanWrapper;
 import org.commonjava.indy.client.core.o11y.trace.SpanningHttpFactory;
+import org.commonjava.indy.client.core.retry.RetryBudget;
+import org.commonjava.indy.client.core.retry.RetryPolicy;
+import org.commonjava.indy.client.core.retry.RetryingHttpClient;
+import org.commonjava.indy.client.core.schedule.PrioritySchedulingHttpClient;
+import org.commonjava.indy.client.core.schedule.RequestScheduler;
+import org.commonjava.indy.client.core.schedule.SchedulingPolicy;
+import org.commonjava.indy.client.core.tls.HandshakeTimingStrategy;
+import org.commonjava.indy.client.core.tls.TlsSessionHttpClient;
+import org.commonjava.indy.client.core.tls.TlsSessionStats;
+import org.commonjava.indy.client.core.util.BlockingExecutors;
+import org.commonjava.indy.client.core.util.SiteSslContexts;
 import org.commonjava.indy.inject.IndyVersioningProvider;
 import org.commonjava.indy.model.core.ArtifactStore;
 import org.commonjava.indy.model.core.io.IndyObjectMapper;
@@ -57,22 +111,45 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import javax.net.ssl.SSLContext;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.MalformedURLException;
+import java.lang.reflect.Type;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static org.apache.commons.io.IOUtils.closeQuietly;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.commonjava.indy.IndyContentConstants.CHECK_CACHE_ONLY;
 import static org.commonjava.indy.client.core.helper.HttpResources.cleanupResources;
-import static org.commonjava.indy.client.core.helper.HttpResources.entityToString;
+import static org.commonjava.indy.client.core.helper.HttpResources.responseCharset;
 import static org.commonjava.indy.client.core.util.UrlUtils.buildUrl;
 import static org.commonjava.indy.stats.IndyVersioning.HEADER_INDY_API_VERSION;
 
@@ -82,22 +159,78 @@ public class IndyClientHttp
 {
     public static final int GLOBAL_MAX_CONNECTIONS = 20;
 
+    private static final String HEALTH_CHECK_PATH = "/stats/version-info";
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     private final IndyObjectMapper objectMapper;
 
+    private final JsonCodecCache jsonCodecs;
+
     private final SiteConfig location;
 
     private HttpFactoryIfc factory;
 
     private final String baseUrl;
 
-    private List<Header> defaultHeaders;
+    private final List<Header> defaultHeaders = new CopyOnWriteArrayList<>();
 
     private Map<String, String> mdcCopyMappings = new HashMap<>();
 
     private ClientMetricManager metricManager;
 
+    private CloseBlockingHttpClient client;
+
+    private CloseableHttpClient transportClient;
+
+    private IndyClientAuthenticator authenticator;
+
+    private PasswordManager passwordManager;
+
+    private CloseableHttpAsyncClient asyncClient;
+
+    private ExecutorService blockingExecutor;
+
+    private boolean ownsBlockingExecutor;
+
+    private AdaptiveConnectionLimit connectionLimit;
+
+    private ConnectionEvictor connectionEvictor;
+
+    private List<IndyNode> nodes;
+
+    private BulkheadPolicy bulkheadPolicy;
+
+    private LoadBalancingStrategy balancingStrategy;
+
+    private int loggedBodyLimit;
+
+    private BinaryJsonFormat binaryFormat;
+
+    private JsonFactory binaryFactory;
+
+    private NodeHealthChecker healthChecker;
+
+    private RetryPolicy retryPolicy;
+
+    private RetryBudget retryBudget;
+
+    private Map<String, CircuitBreaker> circuitBreakers;
+
+    private RequestHedger requestHedger;
+
+    private CompressionPolicy compressionPolicy;
+
+    private CompressionStats compressionStats;
+
+    private final TlsSessionStats tlsSessionStats = new TlsSessionStats();
+
+    private AimdConcurrencyLimit concurrencyLimit;
+
+    private SchedulingPolicy schedulingPolicy;
+
+    private RequestScheduler requestScheduler;
+
     /**
      *
      * @param authenticator -
@@ -115,6 +248,7 @@ public class IndyClientHttp
     {
         this( mapper, location, apiVersion );
         this.mdcCopyMappings = mdcCopyMappings;
+        this.authenticator = authenticator;
         metricManager = new ClientMetricManager( location );
         factory = new SpanningHttpFactory( new HttpFactory( authenticator ),
                                            metricManager.getTraceManager().orElse( null ) );
@@ -130,6 +264,7 @@ public class IndyClientHttp
     {
         this( mapper, location, apiVersion );
 
+        this.passwordManager = passwordManager;
         metricManager = new ClientMetricManager( location );
         factory = new SpanningHttpFactory( new HttpFactory( passwordManager ),
                                            metricManager.getTraceManager().orElse( null ) );
@@ -139,6 +274,7 @@ public class IndyClientHttp
             throws IndyClientException
     {
         this.objectMapper = mapper;
+        this.jsonCodecs = new JsonCodecCache( mapper );
         this.location = location;
         baseUrl = location.getUri();
         checkBaseUrl( baseUrl );
@@ -151,6 +287,12 @@ public class IndyClientHttp
         return new Builder();
     }
 
+    /**
+     * Builds a client. The resilience and routing settings (retries, circuit breakers, deadlines, concurrency and
+     * connection limits, scheduling, hedging, bulkheads, load-balanced nodes, compression and connection eviction)
+     * apply to the blocking calls only: the *Async calls go through a separate non-blocking client that sends each
+     * request once, to the primary site, see {@link IndyClientHttp#newAsyncClient()}.
+     */
     public static final class Builder
     {
         private PasswordManager passwordManager;
@@ -167,6 +309,48 @@ public class IndyClientHttp
 
         private Map<String, String> mdcCopyMappings;
 
+        private ExecutorService blockingExecutor;
+
+        private boolean virtualThreads;
+
+        private boolean http2Transport;
+
+        private int minConnections;
+
+        private int maxConnections;
+
+        private long evictIdleMillis;
+
+        private long evictTtlMillis;
+
+        private List<SiteConfig> nodes;
+
+        private BulkheadPolicy bulkheadPolicy;
+
+        private LoadBalancingStrategy balancingStrategy;
+
+        private long healthCheckMillis = NodeHealthChecker.DEFAULT_INTERVAL_MILLIS;
+
+        private RetryPolicy retryPolicy;
+
+        private CircuitBreakerConfig circuitBreakerConfig;
+
+        private HedgePolicy hedgePolicy;
+
+        private CompressionPolicy compressionPolicy;
+
+        private int minConcurrency;
+
+        private int maxConcurrency;
+
+        private int maxQueuedCalls;
+
+        private SchedulingPolicy schedulingPolicy;
+
+        private int loggedBodyLimit;
+
+        private BinaryJsonFormat binaryFormat;
+
         private Builder()
         {
         }
@@ -189,6 +373,27 @@ public class IndyClientHttp
             return this;
         }
 
+        /**
+         * Log up to this many bytes of each JSON response body at debug level. Off by default, since bodies are
+         * parsed as they stream in and logging them means copying them.
+         */
+        public Builder setLoggedBodyLimit( int loggedBodyLimit )
+        {
+            this.loggedBodyLimit = loggedBodyLimit;
+            return this;
+        }
+
+        /**
+         * Ask for JSON responses in this binary format first, falling back to JSON text when the server answers with
+         * that instead. Bodies are read with the same object mapper configuration either way; request bodies stay
+         * JSON. Ignored, with a warning, when the format's Jackson dataformat module is not on the classpath.
+         */
+        public Builder setBinaryFormat( BinaryJsonFormat binaryFormat )
+        {
+            this.binaryFormat = binaryFormat;
+            return this;
+        }
+
         public Builder setLocation( SiteConfig location )
         {
             this.location = location;
@@ -212,6 +417,161 @@ public class IndyClientHttp
             return this;
         }
 
+        /**
+         * Executor for blocking work handed to {@link IndyClientHttp#submit(Callable)}. It is owned by the caller and
+         * is not shut down when the client closes. Takes precedence over {@link #setVirtualThreads(boolean)}.
+         */
+        public Builder setBlockingExecutor( ExecutorService blockingExecutor )
+        {
+            this.blockingExecutor = blockingExecutor;
+            return this;
+        }
+
+        /**
+         * Run blocking work handed to {@link IndyClientHttp#submit(Callable)} on one virtual thread per task,
+         * when the JVM supports them.
+         */
+        public Builder setVirtualThreads( boolean virtualThreads )
+        {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Send requests through {@link Http2HttpFactory}, multiplexing concurrent calls over HTTP/2 where the server
+         * supports it. The async variants still use HTTP/1.1. Sites behind an authenticating proxy can't use it, and
+         * {@link #build()} fails for them.
+         */
+        public Builder setHttp2Transport( boolean http2Transport )
+        {
+            this.http2Transport = http2Transport;
+            return this;
+        }
+
+        /**
+         * Let the number of connections in use float between the given bounds, see {@link AdaptiveConnectionLimit}.
+         * The {@link SiteConfig#getMaxConnections()} pool size stays the hard ceiling.
+         */
+        public Builder setAdaptiveConnections( int minConnections, int maxConnections )
+        {
+            this.minConnections = minConnections;
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Run a {@link ConnectionEvictor} for the client's pool, closing connections idle for {@code idleMillis} or
+         * open for longer than {@code ttlMillis} (0 for no limit) once they are back in the pool, and checking a
+         * pooled connection before reusing it after a quiet spell. Eviction and stale connection counts are added to
+         * each call's span.
+         */
+        public Builder setConnectionEviction( long idleMillis, long ttlMillis )
+        {
+            this.evictIdleMillis = idleMillis;
+            this.evictTtlMillis = ttlMillis;
+            return this;
+        }
+
+        /**
+         * Spread requests over several Indy nodes, each with its own {@link SiteConfig} and connection pool; see
+         * {@link LoadBalancingHttpClient}. The SiteConfigs need distinct ids. The first node doubles as location when
+         * none is set.
+         */
+        public Builder setNodes( List<SiteConfig> nodes )
+        {
+            this.nodes = nodes;
+            return this;
+        }
+
+        /**
+         * How requests are spread over the {@link #setNodes(List) nodes}; round-robin by default.
+         */
+        public Builder setLoadBalancingStrategy( LoadBalancingStrategy balancingStrategy )
+        {
+            this.balancingStrategy = balancingStrategy;
+            return this;
+        }
+
+        /**
+         * Give some calls connection pools of their own, see {@link BulkheadHttpClient}. Not applied together with
+         * {@link #setNodes(List) nodes}, which have a pool each already.
+         */
+        public Builder setBulkheads( BulkheadPolicy bulkheadPolicy )
+        {
+            this.bulkheadPolicy = bulkheadPolicy;
+            return this;
+        }
+
+        /**
+         * How often the {@link #setNodes(List) nodes} are probed, see {@link NodeHealthChecker}. Zero or less turns
+         * the probes off; an ejected node is then tried again after {@link IndyNode#READMIT_AFTER_MILLIS}.
+         */
+        public Builder setHealthCheckInterval( long healthCheckMillis )
+        {
+            this.healthCheckMillis = healthCheckMillis;
+            return this;
+        }
+
+        /**
+         * Retry idempotent calls on transient failures, see {@link RetryingHttpClient}. Off when not set.
+         */
+        public Builder setRetryPolicy( RetryPolicy retryPolicy )
+        {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Give each traffic class (content, folo, promote, repository management) its own circuit breaker, see
+         * {@link CircuitBreakingHttpClient}. Off when not set.
+         */
+        public Builder setCircuitBreakers( CircuitBreakerConfig circuitBreakerConfig )
+        {
+            this.circuitBreakerConfig = circuitBreakerConfig;
+            return this;
+        }
+
+        /**
+         * Hedge slow content reads, see {@link HedgingHttpClient}. Off when not set.
+         */
+        public Builder setHedgePolicy( HedgePolicy hedgePolicy )
+        {
+            this.hedgePolicy = hedgePolicy;
+            return this;
+        }
+
+        /**
+         * Negotiate compressed responses on JSON calls, and optionally compress large JSON request bodies, see
+         * {@link CompressionHttpClient}. Off when not set.
+         */
+        public Builder setCompressionPolicy( CompressionPolicy compressionPolicy )
+        {
+            this.compressionPolicy = compressionPolicy;
+            return this;
+        }
+
+        /**
+         * Limit the calls in flight with an {@link AimdConcurrencyLimit} that moves between the given bounds as
+         * Indy's round-trip time and error rate change. Up to {@code maxQueued} calls over the limit wait, for at most
+         * the site's request timeout; others are rejected right away.
+         */
+        public Builder setConcurrencyLimit( int minConcurrency, int maxConcurrency, int maxQueued )
+        {
+            this.minConcurrency = minConcurrency;
+            this.maxConcurrency = maxConcurrency;
+            this.maxQueuedCalls = maxQueued;
+            return this;
+        }
+
+        /**
+         * Hand out connection slots by priority, see {@link PrioritySchedulingHttpClient}. Off when not set.
+         */
+        public Builder setSchedulingPolicy( SchedulingPolicy schedulingPolicy )
+        {
+            this.schedulingPolicy = schedulingPolicy;
+            return this;
+        }
+
         public IndyClientHttp build()
                 throws IndyClientException
         {
@@ -223,6 +583,10 @@ public class IndyClientHttp
             {
                 throw new IllegalArgumentException( "Missing ObjectMapper!" );
             }
+            if ( this.location == null && this.nodes != null && !this.nodes.isEmpty() )
+            {
+                this.location = this.nodes.get( 0 );
+            }
             if ( this.location == null )
             {
                 throw new IllegalArgumentException( "Missing SiteConfig for setting configurations!" );
@@ -235,8 +599,95 @@ public class IndyClientHttp
                 client.mdcCopyMappings = this.mdcCopyMappings;
             }
 
-            HttpFactory factory;
-            if ( this.authenticator != null )
+            client.authenticator = this.authenticator;
+            client.passwordManager = this.passwordManager;
+
+            if ( this.blockingExecutor != null )
+            {
+                client.blockingExecutor = this.blockingExecutor;
+            }
+            else if ( this.virtualThreads )
+            {
+                client.blockingExecutor = BlockingExecutors.newVirtualThreadExecutor();
+                client.ownsBlockingExecutor = true;
+            }
+
+            if ( this.maxConnections > 0 )
+            {
+                int max = this.maxConnections;
+                if ( max > location.getMaxConnections() )
+                {
+                    client.logger.warn( "Adaptive connection limit {} exceeds the pool size of site: {}; using {}", max,
+                                        location.getId(), location.getMaxConnections() );
+                    max = location.getMaxConnections();
+                }
+                final int min = Math.max( 1, Math.min( this.minConnections, max ) );
+                client.connectionLimit = new AdaptiveConnectionLimit( min, max );
+                client.connectionLimit.setShrinkListener( client::closeIdleConnections );
+            }
+
+            if ( this.evictIdleMillis > 0 )
+            {
+                client.connectionEvictor =
+                        new ConnectionEvictor( this.evictIdleMillis, this.evictTtlMillis, client::connectionManager );
+            }
+
+            if ( this.retryPolicy != null && this.retryPolicy.getMaxRetries() > 0 )
+            {
+                client.retryPolicy = this.retryPolicy;
+                client.retryBudget = new RetryBudget( this.retryPolicy.getBudgetRatio(),
+                                                      this.retryPolicy.getMinRetriesPerSecond() );
+            }
+
+            if ( this.circuitBreakerConfig != null )
+            {
+                client.circuitBreakers = CircuitBreakingHttpClient.newBreakers( this.circuitBreakerConfig );
+            }
+
+            if ( this.maxConcurrency > 0 )
+            {
+                client.concurrencyLimit =
+                        new AimdConcurrencyLimit( Math.max( 1, Math.min( this.minConcurrency, this.maxConcurrency ) ),
+                                                  this.maxConcurrency, Math.max( 0, this.maxQueuedCalls ) );
+            }
+
+            if ( this.schedulingPolicy != null )
+            {
+                final AdaptiveConnectionLimit limit = client.connectionLimit;
+                client.schedulingPolicy = this.schedulingPolicy;
+                client.requestScheduler = new RequestScheduler(
+                        limit != null ? limit::getLimit : location::getMaxConnections,
+                        this.schedulingPolicy.getMaxWaitMillis() );
+            }
+
+            if ( this.hedgePolicy != null )
+            {
+                client.requestHedger = new RequestHedger( this.hedgePolicy );
+            }
+
+            if ( this.compressionPolicy != null )
+            {
+                client.compressionPolicy = this.compressionPolicy;
+                client.compressionStats = new CompressionStats();
+            }
+
+            HttpFactoryIfc factory;
+            if ( this.http2Transport )
+            {
+                factory = this.authenticator != null ?
+                        new Http2HttpFactory( this.authenticator ) :
+                        new Http2HttpFactory( this.passwordManager );
+                try
+                {
+                    // the site's TLS and proxy settings are checked here rather than on the first call
+                    factory.createClient( this.location );
+                }
+                catch ( final JHttpCException e )
+                {
+                    throw new IndyClientException( "Cannot use the HTTP/2 transport: %s", e, e.getMessage() );
+                }
+            }
+            else if ( this.authenticator != null )
             {
                 factory = new HttpFactory( this.authenticator );
             }
@@ -254,6 +705,38 @@ public class IndyClientHttp
                 client.metricManager = new ClientMetricManager( location );
             }
             client.factory = new SpanningHttpFactory( factory, client.metricManager.getTraceManager().orElse( null ) );
+
+            client.bulkheadPolicy = this.bulkheadPolicy;
+            client.loggedBodyLimit = this.loggedBodyLimit;
+            if ( this.binaryFormat != null )
+            {
+                client.binaryFactory = this.binaryFormat.createFactory().orElse( null );
+                if ( client.binaryFactory != null )
+                {
+                    client.binaryFormat = this.binaryFormat;
+                }
+                else
+                {
+                    client.logger.warn( "{} responses requested, but its Jackson dataformat module is not on "
+                                                + "the classpath; using JSON", this.binaryFormat );
+                }
+            }
+            if ( this.nodes != null && !this.nodes.isEmpty() )
+            {
+                client.nodes = this.nodes.stream().map( IndyNode::new ).collect( Collectors.toList() );
+                client.balancingStrategy =
+                        this.balancingStrategy == null ? new RoundRobinStrategy() : this.balancingStrategy;
+                if ( this.healthCheckMillis > 0 )
+                {
+                    client.healthChecker =
+                            new NodeHealthChecker( client.nodes, client::transportClient, HEALTH_CHECK_PATH,
+                                                   this.healthCheckMillis );
+                }
+                else
+                {
+                    client.nodes.forEach( node -> node.setReadmitAfterMillis( IndyNode.READMIT_AFTER_MILLIS ) );
+                }
+            }
             return client;
         }
     }
@@ -308,7 +791,7 @@ public class IndyClientHttp
         {
             addLoggingMDCToHeaders( request );
             client = newClient();
-            response = client.execute( request, newContext() );
+            response = client.execute( request, newContext( metrics ) );
 
             final StatusLine sl = response.getStatusLine();
             if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
@@ -323,18 +806,7 @@ public class IndyClientHttp
                                                sl.getProtocolVersion() );
             }
 
-            final Map<String, String> headers = new HashMap<>();
-            for ( final Header header : response.getAllHeaders() )
-            {
-                final String name = header.getName().toLowerCase();
-
-                if ( !headers.containsKey( name ) )
-                {
-                    headers.put( name, header.getValue() );
-                }
-            }
-
-            return headers;
+            return toHeaderMap( response );
         }
         catch ( final IOException e )
         {
@@ -348,6 +820,22 @@ public class IndyClientHttp
         }
     }
 
+    private Map<String, String> toHeaderMap( final HttpResponse response )
+    {
+        final Map<String, String> headers = new HashMap<>();
+        for ( final Header header : response.getAllHeaders() )
+        {
+            final String name = header.getName().toLowerCase();
+
+            if ( !headers.containsKey( name ) )
+            {
+                headers.put( name, header.getValue() );
+            }
+        }
+
+        return headers;
+    }
+
     public <T> T get( final String path, final Class<T> type )
             throws IndyClientException
     {
@@ -360,7 +848,7 @@ public class IndyClientHttp
         {
             client = newClient();
             addLoggingMDCToHeaders( request );
-            response = client.execute( request, newContext() );
+            response = client.execute( request, newContext( metrics ) );
 
             final StatusLine sl = response.getStatusLine();
 
@@ -375,9 +863,7 @@ public class IndyClientHttp
                                                type.getSimpleName(), path, new IndyResponseErrorDetails( response ) );
             }
 
-            final String json = entityToString( response );
-            logger.debug( "Got JSON:\n\n{}\n\n", json );
-            final T value = objectMapper.readValue( json, type );
+            final T value = readJson( response, type );
 
             logger.debug( "Got result object: {}", value );
 
@@ -407,7 +893,7 @@ public class IndyClientHttp
         {
             client = newClient();
             addLoggingMDCToHeaders( request );
-            response = client.execute( request, newContext() );
+            response = client.execute( request, newContext( metrics ) );
             logger.trace( "Get request url path: {}, url host: {}", request.getURI().getPath(),
                           request.getURI().getHost() );
             final StatusLine sl = response.getStatusLine();
@@ -422,9 +908,7 @@ public class IndyClientHttp
                                                typeRef.getType(), path, new IndyResponseErrorDetails( response ) );
             }
 
-            final String json = entityToString( response );
-
-            return objectMapper.readValue( json, typeRef );
+            return readJson( response, typeRef );
         }
         catch ( final IOException e )
         {
@@ -438,6 +922,68 @@ public class IndyClientHttp
         }
     }
 
+    /**
+     * Streams the {@code items} of a listing such as {@link org.commonjava.indy.model.core.dto.StoreListingDTO},
+     * parsing each one as it arrives instead of building the whole listing in memory. The response stays open until
+     * the stream has been read to the end or closed, so use it in a try-with-resources block; closing it early aborts
+     * the transfer. A 404 gives an empty stream.
+     */
+    public <T> Stream<T> streamItems( final String path, final Class<T> itemType )
+            throws IndyClientException
+    {
+        final HttpGet request = newJsonGet( buildUrl( baseUrl, path ) );
+        final ClientMetrics metrics = metricManager.register( request );
+
+        CloseableHttpResponse response = null;
+        CloseableHttpClient client = null;
+        boolean streaming = false;
+        try
+        {
+            client = newClient();
+            addLoggingMDCToHeaders( request );
+            response = client.execute( request, newContext( metrics ) );
+
+            final StatusLine sl = response.getStatusLine();
+            if ( sl.getStatusCode() != 200 )
+            {
+                if ( sl.getStatusCode() == 404 )
+                {
+                    return Stream.empty();
+                }
+                metrics.registerErr( sl );
+                throw new IndyClientException( sl.getStatusCode(), "Error retrieving %s listing from: %s.\n%s",
+                                               itemType.getSimpleName(), path,
+                                               new IndyResponseErrorDetails( response ) );
+            }
+
+            final CloseableHttpResponse resp = response;
+            final CloseableHttpClient cl = client;
+            final JsonItemIterator<T> items =
+                    new JsonItemIterator<>( jsonParser( response, response.getEntity().getContent() ),
+                                            jsonCodecs.reader( itemType ), "items", request::abort, () -> {
+                        metrics.registerEnd( resp );
+                        cleanupResources( request, resp, cl, metrics );
+                    } );
+            streaming = true;
+            return StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize( items, Spliterator.ORDERED | Spliterator.NONNULL ), false )
+                                .onClose( items::close );
+        }
+        catch ( final IOException e )
+        {
+            metrics.registerErr( e );
+            throw new IndyClientException( "Indy request failed: %s", e, e.getMessage() );
+        }
+        finally
+        {
+            if ( !streaming )
+            {
+                metrics.registerEnd( response );
+                cleanupResources( request, response, client, metrics );
+            }
+        }
+    }
+
     public HttpResources getRaw( final HttpGet req )
             throws IndyClientException
     {
@@ -449,7 +995,7 @@ public class IndyClientHttp
         {
             final CloseableHttpClient client = newClient();
 
-            response = client.execute( req, newContext() );
+            response = client.execute( req, newContext( metrics ) );
             return new HttpResources( req, response, client, metrics );
         }
         catch ( final IOException e )
@@ -487,7 +1033,7 @@ public class IndyClientHttp
             }
             final CloseableHttpClient client = newClient();
 
-            response = client.execute( req, newContext() );
+            response = client.execute( req, newContext( metrics ) );
             return new HttpResources( req, response, client, metrics );
         }
         catch ( final IOException e )
@@ -523,7 +1069,7 @@ public class IndyClientHttp
         {
             put.setEntity( new InputStreamEntity( stream ) );
 
-            response = client.execute( put, newContext() );
+            response = client.execute( put, newContext( metrics ) );
             final StatusLine sl = response.getStatusLine();
             if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
             {
@@ -577,9 +1123,9 @@ public class IndyClientHttp
             client = newClient();
             addLoggingMDCToHeaders( put );
 
-            put.setEntity( new StringEntity( objectMapper.writeValueAsString( value ) ) );
+            put.setEntity( jsonEntity( value ) );
 
-            response = client.execute( put, newContext() );
+            response = client.execute( put, newContext( metrics ) );
             final StatusLine sl = response.getStatusLine();
             if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
             {
@@ -613,7 +1159,7 @@ public class IndyClientHttp
         {
             final CloseableHttpClient client = newClient();
 
-            response = client.execute( request, newContext() );
+            response = client.execute( request, newContext( metrics ) );
             return new HttpResources( request, response, client, metrics );
         }
         catch ( final IOException e )
@@ -656,11 +1202,11 @@ public class IndyClientHttp
                 }
             }
 
-            req.setEntity( new StringEntity( objectMapper.writeValueAsString( value ) ) );
+            req.setEntity( jsonEntity( value ) );
 
             final CloseableHttpClient client = newClient();
 
-            response = client.execute( req, newContext() );
+            response = client.execute( req, newContext( metrics ) );
             return new HttpResources( req, response, client, metrics );
         }
         catch ( final IOException e )
@@ -707,9 +1253,9 @@ public class IndyClientHttp
             client = newClient();
             addLoggingMDCToHeaders( post );
 
-            post.setEntity( new StringEntity( objectMapper.writeValueAsString( value ) ) );
+            post.setEntity( jsonEntity( value ) );
 
-            response = client.execute( post, newContext() );
+            response = client.execute( post, newContext( metrics ) );
 
             final StatusLine sl = response.getStatusLine();
             if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
@@ -719,8 +1265,7 @@ public class IndyClientHttp
                                                type.getSimpleName(), path, new IndyResponseErrorDetails( response ) );
             }
 
-            final String json = entityToString( response );
-            return objectMapper.readValue( json, type );
+            return readJson( response, type );
         }
         catch ( final IOException e )
         {
@@ -746,46 +1291,121 @@ public class IndyClientHttp
         return false;
     }
 
-    public <T> T postWithResponse( final String path, final Object value, final TypeReference<T> typeRef )
-            throws IndyClientException
+    private JsonEntity jsonEntity( final Object value )
+            throws IOException
     {
-        return postWithResponse( path, value, typeRef, HttpStatus.SC_CREATED );
+        return JsonEntity.of( jsonCodecs.writer( value.getClass() ), value, JsonEntity.DEFAULT_BUFFER_LIMIT_BYTES );
     }
 
-    public <T> T postWithResponse( final String path, final Object value, final TypeReference<T> typeRef,
-                                   final int... responseCodes )
-            throws IndyClientException
+    private JsonParser jsonParser( final HttpResponse response, final InputStream content )
+            throws IOException
     {
-        HttpPost post = newJsonPost( buildUrl( baseUrl, path ) );
-        ClientMetrics metrics = metricManager.register( post );
-
-        checkRequestValue( value );
-
-        CloseableHttpResponse response = null;
-        CloseableHttpClient client = null;
-        try
+        if ( isBinaryJson( response ) )
         {
-            client = newClient();
-            addLoggingMDCToHeaders( post );
+            return binaryFactory.createParser( content );
+        }
 
-            post.setEntity( new StringEntity( objectMapper.writeValueAsString( value ) ) );
+        final Charset charset = responseCharset( response, null );
+        return charset == null || charset.name().startsWith( "UTF-" ) ?
+                objectMapper.getFactory().createParser( content ) :
+                objectMapper.getFactory().createParser( new InputStreamReader( content, charset ) );
+    }
 
-            response = client.execute( post, newContext() );
+    private boolean isBinaryJson( final HttpResponse response )
+    {
+        final Header contentType = response.getEntity().getContentType();
+        return binaryFormat != null && contentType != null && binaryFormat.matches( contentType.getValue() );
+    }
 
-            final StatusLine sl = response.getStatusLine();
-            if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
-            {
-                metrics.registerErr( sl );
-                throw new IndyClientException( sl.getStatusCode(), "Error retrieving %s from: %s.\n%s",
-                                               typeRef.getType(), path, new IndyResponseErrorDetails( response ) );
-            }
+    private <T> T readJson( final HttpResponse response, final Class<T> type )
+            throws IOException
+    {
+        return readJson( response, jsonCodecs.reader( type ) );
+    }
 
-            final String json = entityToString( response );
-            return objectMapper.readValue( json, typeRef );
-        }
-        catch ( final IOException e )
-        {
-            metrics.registerErr( e );
+    private <T> T readJson( final HttpResponse response, final TypeReference<T> typeRef )
+            throws IOException
+    {
+        return readJson( response, jsonCodecs.reader( typeRef.getType() ) );
+    }
+
+    /**
+     * Parses the body as it is read rather than buffering it as a string first. Bodies without a declared charset
+     * are read as JSON's UTF-8 (or UTF-16/32, which the parser detects); bodies in the negotiated binary format are
+     * parsed as that.
+     */
+    private <T> T readJson( final HttpResponse response, final ObjectReader reader )
+            throws IOException
+    {
+        final HttpEntity entity = response.getEntity();
+        if ( entity == null )
+        {
+            throw new IOException( "Response has no body" );
+        }
+
+        final BodySample sample =
+                loggedBodyLimit > 0 && logger.isDebugEnabled() ? new BodySample( loggedBodyLimit ) : null;
+        try (InputStream content = sample == null ?
+                entity.getContent() :
+                new TeeInputStream( entity.getContent(), sample );
+             JsonParser parser = jsonParser( response, content ))
+        {
+            return reader.readValue( parser );
+        }
+        finally
+        {
+            if ( sample != null && isBinaryJson( response ) )
+            {
+                logger.debug( "Got {} body of {} bytes", binaryFormat, sample.getTotal() );
+            }
+            else if ( sample != null )
+            {
+                final Charset charset = responseCharset( response, null );
+                logger.debug( "Got JSON:\n\n{}\n\n",
+                              sample.toString( charset == null ? StandardCharsets.UTF_8 : charset ) );
+            }
+        }
+    }
+
+    public <T> T postWithResponse( final String path, final Object value, final TypeReference<T> typeRef )
+            throws IndyClientException
+    {
+        return postWithResponse( path, value, typeRef, HttpStatus.SC_CREATED );
+    }
+
+    public <T> T postWithResponse( final String path, final Object value, final TypeReference<T> typeRef,
+                                   final int... responseCodes )
+            throws IndyClientException
+    {
+        HttpPost post = newJsonPost( buildUrl( baseUrl, path ) );
+        ClientMetrics metrics = metricManager.register( post );
+
+        checkRequestValue( value );
+
+        CloseableHttpResponse response = null;
+        CloseableHttpClient client = null;
+        try
+        {
+            client = newClient();
+            addLoggingMDCToHeaders( post );
+
+            post.setEntity( jsonEntity( value ) );
+
+            response = client.execute( post, newContext( metrics ) );
+
+            final StatusLine sl = response.getStatusLine();
+            if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
+            {
+                metrics.registerErr( sl );
+                throw new IndyClientException( sl.getStatusCode(), "Error retrieving %s from: %s.\n%s",
+                                               typeRef.getType(), path, new IndyResponseErrorDetails( response ) );
+            }
+
+            return readJson( response, typeRef );
+        }
+        catch ( final IOException e )
+        {
+            metrics.registerErr( e );
             throw new IndyClientException( "Indy request failed: %s", e, e.getMessage() );
         }
         finally
@@ -799,6 +1419,40 @@ public class IndyClientHttp
     public void close()
     {
         logger.debug( "Shutting down indy client HTTP manager" );
+        synchronized ( this )
+        {
+            if ( client != null )
+            {
+                try
+                {
+                    client.reallyClose();
+                }
+                catch ( final IOException e )
+                {
+                    logger.warn( "Failed to close shared indy client: {}", e.getMessage() );
+                }
+                client = null;
+                transportClient = null;
+            }
+            if ( asyncClient != null )
+            {
+                closeQuietly( asyncClient );
+                asyncClient = null;
+            }
+            if ( connectionEvictor != null )
+            {
+                connectionEvictor.close();
+            }
+            if ( healthChecker != null )
+            {
+                healthChecker.close();
+            }
+            if ( ownsBlockingExecutor && blockingExecutor != null )
+            {
+                blockingExecutor.shutdownNow();
+                blockingExecutor = null;
+            }
+        }
         factory.shutdownNow();
     }
 
@@ -830,7 +1484,7 @@ public class IndyClientHttp
             client = newClient();
             addLoggingMDCToHeaders( delete );
 
-            response = client.execute( delete, newContext() );
+            response = client.execute( delete, newContext( metrics ) );
             final StatusLine sl = response.getStatusLine();
             if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
             {
@@ -871,7 +1525,7 @@ public class IndyClientHttp
             addLoggingMDCToHeaders( delete );
             delete.setHeader( ArtifactStore.METADATA_CHANGELOG, changelog );
 
-            response = client.execute( delete, newContext() );
+            response = client.execute( delete, newContext( metrics ) );
             final StatusLine sl = response.getStatusLine();
             if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
             {
@@ -923,7 +1577,7 @@ public class IndyClientHttp
             client = newClient();
             addLoggingMDCToHeaders( request );
 
-            response = client.execute( request, newContext() );
+            response = client.execute( request, newContext( metrics ) );
             final StatusLine sl = response.getStatusLine();
             if ( validResponseCode( sl.getStatusCode(), responseCodes ) )
             {
@@ -950,6 +1604,397 @@ public class IndyClientHttp
         }
     }
 
+    public CompletableFuture<Map<String, String>> headAsync( final String path )
+    {
+        return headAsync( path, HttpStatus.SC_OK );
+    }
+
+    public CompletableFuture<Map<String, String>> headAsync( final String path, final int... responseCodes )
+    {
+        return executeAsync( newJsonHead( buildUrl( baseUrl, path ) ), ( response, metrics ) -> {
+            final StatusLine sl = response.getStatusLine();
+            if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
+            {
+                if ( sl.getStatusCode() == HttpStatus.SC_NOT_FOUND )
+                {
+                    return null;
+                }
+                metrics.registerErr( sl );
+                throw new IndyClientException( sl.getStatusCode(), "Error executing HEAD: %s. Status was: %d %s (%s)",
+                                               path, sl.getStatusCode(), sl.getReasonPhrase(),
+                                               sl.getProtocolVersion() );
+            }
+
+            return toHeaderMap( response );
+        } );
+    }
+
+    public CompletableFuture<Boolean> existsAsync( final String path )
+    {
+        return existsAsync( path, null, HttpStatus.SC_OK );
+    }
+
+    public CompletableFuture<Boolean> existsAsync( final String path, final Supplier<Map<String, String>> querySupplier,
+                                                   final int... responseCodes )
+    {
+        return executeAsync( newJsonHead( buildUrl( baseUrl, querySupplier, path ) ), ( response, metrics ) -> {
+            final StatusLine sl = response.getStatusLine();
+            if ( validResponseCode( sl.getStatusCode(), responseCodes ) )
+            {
+                return true;
+            }
+            else if ( sl.getStatusCode() == HttpStatus.SC_NOT_FOUND )
+            {
+                return false;
+            }
+
+            metrics.registerErr( sl );
+            throw new IndyClientException( sl.getStatusCode(), "Error checking existence of: %s.\n%s", path,
+                                           new IndyResponseErrorDetails( response ) );
+        } );
+    }
+
+    public <T> CompletableFuture<T> getAsync( final String path, final Class<T> type )
+    {
+        return executeAsync( newJsonGet( buildUrl( baseUrl, path ) ), ( response, metrics ) -> {
+            final StatusLine sl = response.getStatusLine();
+            if ( sl.getStatusCode() != 200 )
+            {
+                if ( sl.getStatusCode() == 404 )
+                {
+                    return null;
+                }
+                metrics.registerErr( sl );
+                throw new IndyClientException( sl.getStatusCode(), "Error retrieving %s from: %s.\n%s",
+                                               type.getSimpleName(), path, new IndyResponseErrorDetails( response ) );
+            }
+
+            return readJson( response, type );
+        } );
+    }
+
+    public <T> CompletableFuture<T> getAsync( final String path, final TypeReference<T> typeRef )
+    {
+        return executeAsync( newJsonGet( buildUrl( baseUrl, path ) ), ( response, metrics ) -> {
+            final StatusLine sl = response.getStatusLine();
+            if ( sl.getStatusCode() != 200 )
+            {
+                if ( sl.getStatusCode() == 404 )
+                {
+                    return null;
+                }
+                metrics.registerErr( sl );
+                throw new IndyClientException( sl.getStatusCode(), "Error retrieving %s from: %s.\n%s",
+                                               typeRef.getType(), path, new IndyResponseErrorDetails( response ) );
+            }
+
+            return readJson( response, typeRef );
+        } );
+    }
+
+    public CompletableFuture<Void> putWithStreamAsync( final String path, final InputStream stream )
+    {
+        return putWithStreamAsync( path, stream, HttpStatus.SC_CREATED );
+    }
+
+    /**
+     * Runs {@link #putWithStream(String, InputStream, int...)} through {@link #submit(Callable)}. Reading the stream
+     * blocks, so it is kept off the async client's I/O threads.
+     */
+    public CompletableFuture<Void> putWithStreamAsync( final String path, final InputStream stream,
+                                                       final int... responseCodes )
+    {
+        return submit( () -> {
+            putWithStream( path, stream, responseCodes );
+            return null;
+        } );
+    }
+
+    public CompletableFuture<Boolean> putAsync( final String path, final Object value )
+    {
+        return putAsync( path, value, HttpStatus.SC_OK, HttpStatus.SC_CREATED );
+    }
+
+    public CompletableFuture<Boolean> putAsync( final String path, final Object value, final int... responseCodes )
+    {
+        final HttpPut put = newJsonPut( buildUrl( baseUrl, path ) );
+        try
+        {
+            checkRequestValue( value );
+            put.setEntity( jsonEntity( value ) );
+        }
+        catch ( final IndyClientException e )
+        {
+            return CompletableFuture.failedFuture( e );
+        }
+        catch ( final IOException e )
+        {
+            return CompletableFuture.failedFuture(
+                    new IndyClientException( "Indy request failed: %s", e, e.getMessage() ) );
+        }
+
+        return executeAsync( put, ( response, metrics ) -> {
+            final StatusLine sl = response.getStatusLine();
+            if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
+            {
+                metrics.registerErr( sl );
+                throw new IndyClientException( sl.getStatusCode(), "Error in response from: %s.\n%s", path,
+                                               new IndyResponseErrorDetails( response ) );
+            }
+            return true;
+        } );
+    }
+
+    public <T> CompletableFuture<T> postWithResponseAsync( final String path, final Object value, final Class<T> type )
+    {
+        return postWithResponseAsync( path, value, type, HttpStatus.SC_CREATED, HttpStatus.SC_OK );
+    }
+
+    public <T> CompletableFuture<T> postWithResponseAsync( final String path, final Object value, final Class<T> type,
+                                                           final int... responseCodes )
+    {
+        final HttpPost post = newJsonPost( buildUrl( baseUrl, path ) );
+        try
+        {
+            checkRequestValue( value );
+            post.setEntity( jsonEntity( value ) );
+        }
+        catch ( final IndyClientException e )
+        {
+            return CompletableFuture.failedFuture( e );
+        }
+        catch ( final IOException e )
+        {
+            return CompletableFuture.failedFuture(
+                    new IndyClientException( "Indy request failed: %s", e, e.getMessage() ) );
+        }
+
+        return executeAsync( post, ( response, metrics ) -> {
+            final StatusLine sl = response.getStatusLine();
+            if ( !validResponseCode( sl.getStatusCode(), responseCodes ) )
+            {
+                metrics.registerErr( sl );
+                throw new IndyClientException( sl.getStatusCode(), "Error POSTING with %s result from: %s.\n%s",
+                                               type.getSimpleName(), path, new IndyResponseErrorDetails( response ) );
+            }
+
+            return readJson( response, type );
+        } );
+    }
+
+    /**
+     * Runs the request on the non-blocking client and hands the buffered response to the handler on the blocking
+     * executor, keeping JSON parsing off the I/O dispatch thread. The returned future fails with
+     * {@link IndyClientException}, wrapped in a {@link java.util.concurrent.CompletionException} for dependent
+     * stages; cancelling it aborts the request.
+     */
+    private <T> CompletableFuture<T> executeAsync( final HttpRequestBase request, final AsyncResponseHandler<T> handler )
+    {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final ClientMetrics metrics = metricManager.register( request );
+        final String spanName =
+                request.getMethod() + "_" + request.getURI().getHost() + "_" + request.getURI().getPort();
+        final Optional<SpanWrapper> span = metricManager.getTraceManager()
+                                                        .flatMap( tm -> tm.startClientRequestSpan( spanName,
+                                                                                                   request::setHeader ) );
+        try
+        {
+            addLoggingMDCToHeaders( request );
+            addDefaultHeaders( request );
+
+            final Future<HttpResponse> future =
+                    newAsyncClient().execute( request, newContext(), new FutureCallback<HttpResponse>()
+                    {
+                        @Override
+                        public void completed( final HttpResponse response )
+                        {
+                            span.ifPresent( s -> s.addField( "target-http-status",
+                                                             response.getStatusLine().getStatusCode() ) );
+                            try
+                            {
+                                getBlockingExecutor().execute( () -> handle( response ) );
+                            }
+                            catch ( final RejectedExecutionException e )
+                            {
+                                metrics.registerErr( e );
+                                finish( response );
+                                result.completeExceptionally(
+                                        new IndyClientException( "Indy client is closed: %s", e, e.getMessage() ) );
+                            }
+                        }
+
+                        private void handle( final HttpResponse response )
+                        {
+                            try
+                            {
+                                result.complete( handler.handle( response, metrics ) );
+                            }
+                            catch ( final IndyClientException e )
+                            {
+                                result.completeExceptionally( e );
+                            }
+                            catch ( final IOException | RuntimeException e )
+                            {
+                                metrics.registerErr( e );
+                                result.completeExceptionally(
+                                        new IndyClientException( "Indy request failed: %s", e, e.getMessage() ) );
+                            }
+                            finally
+                            {
+                                finish( response );
+                            }
+                        }
+
+                        private void finish( final HttpResponse response )
+                        {
+                            metrics.registerEnd( response );
+                            cleanupResources( request, response, null, metrics );
+                            span.ifPresent( SpanWrapper::close );
+                        }
+
+                        @Override
+                        public void failed( final Exception e )
+                        {
+                            metrics.registerErr( e );
+                            cleanupResources( request, null, null, metrics );
+                            span.ifPresent( SpanWrapper::close );
+                            result.completeExceptionally(
+                                    new IndyClientException( "Indy request failed: %s", e, e.getMessage() ) );
+                        }
+
+                        @Override
+                        public void cancelled()
+                        {
+                            cleanupResources( request, null, null, metrics );
+                            span.ifPresent( SpanWrapper::close );
+                            result.cancel( false );
+                        }
+                    } );
+
+            result.whenComplete( ( v, t ) -> {
+                if ( result.isCancelled() )
+                {
+                    future.cancel( true );
+                }
+            } );
+        }
+        catch ( final IndyClientException e )
+        {
+            metrics.registerErr( e );
+            closeQuietly( metrics );
+            span.ifPresent( SpanWrapper::close );
+            result.completeExceptionally( e );
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the non-blocking client behind the *Async calls, creating and starting it on first use. Unlike the
+     * blocking client it is not built by jhttpc: it picks up the connection limit, request timeout, TLS material and
+     * proxy from the {@link SiteConfig}, the credentials (proxy credentials included) from {@link #newContext()}
+     * and the authenticator's {@link IndyClientAuthenticator#decorateAsyncClientBuilder} decoration. None of the
+     * decorators of the blocking client (retries, breakers, deadlines, limits, nodes, compression) apply to it.
+     */
+    public synchronized CloseableHttpAsyncClient newAsyncClient()
+            throws IndyClientException
+    {
+        if ( asyncClient == null )
+        {
+            final SSLContext sslContext;
+            try
+            {
+                sslContext = SiteSslContexts.fromSite( location, passwordManager );
+            }
+            catch ( final JHttpCException e )
+            {
+                throw new IndyClientException( "Indy request failed: %s", e, e.getMessage() );
+            }
+
+            final int timeoutMillis = location.getRequestTimeoutSeconds() * 1000;
+            final RequestConfig requestConfig = RequestConfig.custom()
+                                                             .setConnectTimeout( timeoutMillis )
+                                                             .setConnectionRequestTimeout( timeoutMillis )
+                                                             .setSocketTimeout( timeoutMillis )
+                                                             .build();
+
+            HttpAsyncClientBuilder builder = HttpAsyncClients.custom()
+                                                             .useSystemProperties()
+                                                             .setMaxConnTotal( location.getMaxConnections() )
+                                                             .setMaxConnPerRoute( location.getMaxConnections() )
+                                                             .setDefaultRequestConfig( requestConfig )
+                                                             .setSSLStrategy(
+                                                                     new HandshakeTimingStrategy( sslContext,
+                                                                                                  tlsSessionStats ) );
+            if ( location.getProxyHost() != null )
+            {
+                builder.setProxy( new HttpHost( location.getProxyHost(), location.getProxyPort() ) );
+            }
+            if ( authenticator != null )
+            {
+                builder = authenticator.decorateAsyncClientBuilder( builder );
+            }
+
+            asyncClient = builder.build();
+            asyncClient.start();
+        }
+
+        return asyncClient;
+    }
+
+    /**
+     * Runs a blocking call (e.g. a content download or any other module method) on the client's blocking
+     * executor, with the caller's ThreadContext, MDC and trace context carried over. Unless an executor or virtual
+     * threads were configured on the builder, a cached pool of daemon platform threads is created on first use.
+     */
+    public <T> CompletableFuture<T> submit( final Callable<T> call )
+    {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final Callable<T> task = BlockingExecutors.withCallerContext( call );
+        try
+        {
+            getBlockingExecutor().execute( () -> {
+                try
+                {
+                    result.complete( task.call() );
+                }
+                catch ( final IndyClientException e )
+                {
+                    result.completeExceptionally( e );
+                }
+                catch ( final Exception e )
+                {
+                    result.completeExceptionally(
+                            new IndyClientException( "Indy request failed: %s", e, e.getMessage() ) );
+                }
+            } );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            result.completeExceptionally( new IndyClientException( "Indy client is closed: %s", e, e.getMessage() ) );
+        }
+
+        return result;
+    }
+
+    private synchronized ExecutorService getBlockingExecutor()
+    {
+        if ( blockingExecutor == null )
+        {
+            blockingExecutor = BlockingExecutors.newPlatformThreadExecutor();
+            ownsBlockingExecutor = true;
+        }
+
+        return blockingExecutor;
+    }
+
+    @FunctionalInterface
+    private interface AsyncResponseHandler<T>
+    {
+        T handle( HttpResponse response, ClientMetrics metrics )
+                throws IndyClientException, IOException;
+    }
+
     public void cleanup( final HttpRequest request, final HttpResponse response, final CloseableHttpClient client )
     {
         cleanupResources( request, response, client, null );
@@ -965,16 +2010,292 @@ public class IndyClientHttp
         return baseUrl;
     }
 
-    public CloseableHttpClient newClient()
+    /**
+     * The connection pool end of the shared client, below the retry, hedging, circuit breaker and limiter layers.
+     */
+    private synchronized CloseableHttpClient transportClient()
             throws IndyClientException
     {
+        newClient();
+        return transportClient;
+    }
+
+    /**
+     * Returns the client shared by every call on this instance. It is created on first use and stays open until
+     * {@link #close()}; closing the returned client (directly or via {@link HttpResources}) has no effect.
+     */
+    public synchronized CloseableHttpClient newClient()
+            throws IndyClientException
+    {
+        if ( client == null )
+        {
+            try
+            {
+                final long timeoutMillis = TimeUnit.SECONDS.toMillis( location.getRequestTimeoutSeconds() );
+                CloseableHttpClient created = nodes == null ?
+                        factory.createClient( location ) :
+                        new LoadBalancingHttpClient( baseUrl, nodes, balancingStrategy, factory );
+                BulkheadHttpClient bulkheads = null;
+                if ( bulkheadPolicy != null && nodes == null )
+                {
+                    bulkheads = new BulkheadHttpClient( created, baseUrl, bulkheadPolicy, factory );
+                    created = bulkheads;
+                }
+                created = new TlsSessionHttpClient( created, tlsSessionStats,
+                                                    SiteSslContexts.fromSite( location, passwordManager ) );
+                if ( compressionPolicy != null )
+                {
+                    created = new CompressionHttpClient( created, baseUrl, compressionPolicy, compressionStats,
+                                                         (int) timeoutMillis );
+                }
+                if ( connectionEvictor != null )
+                {
+                    created = new EvictingHttpClient( created, connectionEvictor, (int) timeoutMillis );
+                }
+                transportClient = new DefaultHeadersHttpClient( created, defaultHeaders );
+                if ( connectionLimit != null )
+                {
+                    created = new AdaptiveLimitHttpClient( created, connectionLimit, timeoutMillis );
+                }
+                if ( requestScheduler != null )
+                {
+                    // the scheduler's capacity is the main pool, so calls routed to a bulkhead skip the queue
+                    final Predicate<HttpRequest> unscheduled =
+                            bulkheads == null ? request -> false : bulkheads::isBulkheaded;
+                    created = new PrioritySchedulingHttpClient( created, baseUrl, requestScheduler, schedulingPolicy,
+                                                                timeoutMillis, unscheduled );
+                }
+                if ( requestHedger != null )
+                {
+                    created = new HedgingHttpClient( created, baseUrl, requestHedger, this::getBlockingExecutor );
+                }
+                if ( concurrencyLimit != null )
+                {
+                    // below the retries, so each attempt takes its own slot and backoff is not part of the RTT
+                    created = new ConcurrencyLimitingHttpClient( created, concurrencyLimit, timeoutMillis );
+                }
+                if ( retryPolicy != null )
+                {
+                    created = new RetryingHttpClient( created, retryPolicy, retryBudget );
+                }
+                if ( circuitBreakers != null )
+                {
+                    created = new CircuitBreakingHttpClient( created, baseUrl, circuitBreakers );
+                }
+                created = new DeadlineHttpClient( created, (int) timeoutMillis );
+                created = new DefaultHeadersHttpClient( created, defaultHeaders );
+                client = new CloseBlockingHttpClient( created );
+            }
+            catch ( JHttpCException e )
+            {
+                throw new IndyClientException( "Indy request failed: %s", e, e.getMessage() );
+            }
+        }
+
+        return client;
+    }
+
+    /**
+     * Opens up to {@code connections} pooled connections in parallel, so DNS, TCP and TLS setup is paid before the
+     * first real calls. Each connection is opened by a request for {@code path} (a HEAD of the base URL when null);
+     * all of them are held until every request has answered, to keep the pool from reusing one socket. Any response
+     * status counts; failures are only logged.
+     * <br/>
+     * The count is capped by the pool size and by the connection, concurrency and scheduling limits in force, and the
+     * requests go straight to the connection pool: they are not retried, hedged, or counted by the circuit breakers
+     * and limiters.
+     *
+     * @return the time warm-up took, in milliseconds
+     */
+    public long warmUp( final int connections, final String path )
+            throws IndyClientException
+    {
+        int count = Math.min( connections, location.getMaxConnections() );
+        if ( connectionLimit != null )
+        {
+            count = Math.min( count, connectionLimit.getLimit() );
+        }
+        if ( concurrencyLimit != null )
+        {
+            count = Math.min( count, concurrencyLimit.getLimit() );
+        }
+        if ( requestScheduler != null )
+        {
+            count = Math.min( count, requestScheduler.getCapacity() );
+        }
+        if ( count < 1 )
+        {
+            return 0;
+        }
+
+        final CloseableHttpClient transport = transportClient();
+
+        final long start = System.nanoTime();
+        final long timeoutMillis = TimeUnit.SECONDS.toMillis( location.getRequestTimeoutSeconds() );
+        final CountDownLatch answered = new CountDownLatch( count );
+        final AtomicInteger opened = new AtomicInteger();
+        final List<Future<?>> tasks = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            tasks.add( getBlockingExecutor().submit( () -> {
+                final HttpRequestBase request =
+                        path == null ? newJsonHead( baseUrl ) : newJsonGet( buildUrl( baseUrl, path ) );
+                CloseableHttpResponse response = null;
+                try
+                {
+                    response = transport.execute( request, newContext() );
+                    opened.incrementAndGet();
+                }
+                catch ( final IOException | IndyClientException e )
+                {
+                    logger.warn( "Connection warm-up request to {} failed: {}", request.getURI(), e.getMessage() );
+                }
+                finally
+                {
+                    answered.countDown();
+                }
+
+                try
+                {
+                    answered.await( timeoutMillis, TimeUnit.MILLISECONDS );
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                finally
+                {
+                    cleanupResources( request, response, null, null );
+                }
+            } ) );
+        }
+
+        for ( final Future<?> task : tasks )
+        {
+            try
+            {
+                task.get();
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch ( final ExecutionException e )
+            {
+                logger.warn( "Connection warm-up failed: {}", e.getCause().getMessage() );
+            }
+        }
+
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+        logger.info( "Warmed up {} of {} connections to {} in {}ms", opened.get(), count, baseUrl, elapsed );
+        return elapsed;
+    }
+
+    /**
+     * The adaptive limit on connections in use, when enabled through {@link Builder#setAdaptiveConnections}.
+     */
+    public Optional<AdaptiveConnectionLimit> getConnectionLimit()
+    {
+        return Optional.ofNullable( connectionLimit );
+    }
+
+    /**
+     * The nodes requests are balanced over, empty unless configured through {@link Builder#setNodes(List)}.
+     */
+    public List<IndyNode> getNodes()
+    {
+        return nodes == null ? Collections.emptyList() : Collections.unmodifiableList( nodes );
+    }
+
+    /**
+     * The idle connection evictor, when enabled through {@link Builder#setConnectionEviction}.
+     */
+    public Optional<ConnectionEvictor> getConnectionEvictor()
+    {
+        return Optional.ofNullable( connectionEvictor );
+    }
+
+    /**
+     * The adaptive concurrency limit, when enabled through {@link Builder#setConcurrencyLimit(int, int, int)}.
+     */
+    public Optional<AimdConcurrencyLimit> getConcurrencyLimit()
+    {
+        return Optional.ofNullable( concurrencyLimit );
+    }
+
+    /**
+     * The priority scheduler, when enabled through {@link Builder#setSchedulingPolicy(SchedulingPolicy)}.
+     */
+    public Optional<RequestScheduler> getRequestScheduler()
+    {
+        return Optional.ofNullable( requestScheduler );
+    }
+
+    /**
+     * Hedge counters and delay, when enabled through {@link Builder#setHedgePolicy(HedgePolicy)}.
+     */
+    public Optional<RequestHedger> getRequestHedger()
+    {
+        return Optional.ofNullable( requestHedger );
+    }
+
+    /**
+     * Response and request body bytes before and after compression, when enabled through
+     * {@link Builder#setCompressionPolicy(CompressionPolicy)}.
+     */
+    public Optional<CompressionStats> getCompressionStats()
+    {
+        return Optional.ofNullable( compressionStats );
+    }
+
+    /**
+     * TLS handshakes made by this client's connections, full and resumed.
+     */
+    public TlsSessionStats getTlsSessionStats()
+    {
+        return tlsSessionStats;
+    }
+
+    /**
+     * The circuit breakers by traffic class, empty unless enabled through {@link Builder#setCircuitBreakers}.
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers()
+    {
+        return circuitBreakers == null ? Collections.emptyMap() : circuitBreakers;
+    }
+
+    /**
+     * Drops pooled connections that sat idle through a whole sampling window after the adaptive limit shrank.
+     */
+    private void closeIdleConnections()
+    {
+        final ClientConnectionManager cm = connectionManager();
+        if ( cm != null )
+        {
+            cm.closeIdleConnections( AdaptiveConnectionLimit.DEFAULT_WINDOW_MILLIS, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    /**
+     * Pool controls of the shared client, or null when it hasn't been created or its transport has no pool.
+     */
+    @SuppressWarnings( "deprecation" )
+    private synchronized ClientConnectionManager connectionManager()
+    {
+        if ( client == null )
+        {
+            return null;
+        }
+
         try
         {
-            return factory.createClient( location, defaultHeaders );
+            return client.getConnectionManager();
         }
-        catch ( JHttpCException e )
+        catch ( final UnsupportedOperationException e )
         {
-            throw new IndyClientException( "Indy request failed: %s", e, e.getMessage() );
+            logger.trace( "Client has no connection pool: {}", e.getMessage() );
+            return null;
         }
     }
 
@@ -991,6 +2312,14 @@ public class IndyClientHttp
         }
     }
 
+    private HttpClientContext newContext( final ClientMetrics metrics )
+            throws IndyClientException
+    {
+        final HttpClientContext context = newContext();
+        context.setAttribute( ClientMetrics.CONTEXT_KEY, metrics );
+        return context;
+    }
+
     public HttpGet newRawGet( final String url )
     {
         return new HttpGet( url );
@@ -1043,7 +2372,7 @@ public class IndyClientHttp
 
     protected void addJsonHeaders( final HttpUriRequest req )
     {
-        req.addHeader( "Accept", "application/json" );
+        req.addHeader( "Accept", binaryFormat == null ? "application/json" : binaryFormat.getAcceptHeader() );
         req.addHeader( "Content-Type", "application/json" );
     }
 
@@ -1052,6 +2381,14 @@ public class IndyClientHttp
         return objectMapper;
     }
 
+    /**
+     * Resolves these response types ahead of the first call that reads them, see {@link JsonCodecCache}.
+     */
+    public void warmJsonTypes( final Iterable<? extends Type> types )
+    {
+        jsonCodecs.warm( types );
+    }
+
     public static SiteConfig defaultSiteConfig( String baseUrl )
     {
         return new SiteConfigBuilder( "indy", baseUrl ).withRequestTimeoutSeconds( 30 )
@@ -1059,21 +2396,17 @@ public class IndyClientHttp
                                                        .build();
     }
 
+    /**
+     * Adds a header to every later request. Default headers are added to each request as it is sent, so the shared
+     * client does not have to be rebuilt.
+     */
     public void addDefaultHeader( String key, String value )
     {
-        if ( defaultHeaders == null )
-        {
-            defaultHeaders = new ArrayList<>();
-        }
         defaultHeaders.add( new BasicHeader( key, value ) );
     }
 
     public String getDefaultHeader( String key )
     {
-        if ( defaultHeaders == null )
-        {
-            return null;
-        }
         for ( Header header : defaultHeaders )
         {
             if ( header.getName().equals( key ) )
@@ -1100,4 +2433,9 @@ public class IndyClientHttp
             }
         }
     }
+
+    private void addDefaultHeaders( HttpRequestBase request )
+    {
+        DefaultHeadersHttpClient.addDefaultHeaders( request, defaultHeaders );
+    }
 }
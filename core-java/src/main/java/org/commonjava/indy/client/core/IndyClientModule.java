@@ -18,6 +18,7 @@ package org.commonjava.indy.client.core;
 import com.fasterxml.jackson.databind.Module;
 import org.commonjava.indy.model.core.io.IndyObjectMapper;
 
+import java.lang.reflect.Type;
 import java.util.Collections;
 
 public abstract class IndyClientModule
@@ -38,6 +39,15 @@ public abstract class IndyClientModule
         return Collections.emptySet();
     }
 
+    /**
+     * Response types this module reads, resolved by {@link IndyClientHttp#warmJsonTypes(Iterable)} when the module is
+     * set up rather than on its first call.
+     */
+    public Iterable<Type> getJsonTypes()
+    {
+        return Collections.emptySet();
+    }
+
     protected Indy getClient()
     {
         return client;
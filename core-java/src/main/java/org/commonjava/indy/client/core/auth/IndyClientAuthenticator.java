@@ -15,9 +15,11 @@
  */
 package org.commonjava.indy.client.core.auth;
 
+import org.apache.http.HttpRequest;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.commonjava.util.jhttpc.JHttpCException;
 import org.commonjava.util.jhttpc.auth.ClientAuthenticator;
 import org.commonjava.util.jhttpc.auth.PasswordType;
@@ -39,4 +41,23 @@ public abstract class IndyClientAuthenticator extends ClientAuthenticator
         return builder;
     }
 
+    /**
+     * Counterpart of {@link #decorateClientBuilder(HttpClientBuilder)} for the non-blocking client used by the
+     * *Async calls in {@link org.commonjava.indy.client.core.IndyClientHttp}. The builder arrives with an SSL strategy
+     * already set, which takes precedence over {@code setSSLContext}; custom TLS must go through
+     * {@code setSSLStrategy}.
+     */
+    public HttpAsyncClientBuilder decorateAsyncClientBuilder( HttpAsyncClientBuilder builder )
+    {
+        return builder;
+    }
+
+    /**
+     * Request-level decoration, for transports that are not assembled from an Apache client builder (see
+     * {@link org.commonjava.indy.client.core.http2.Http2HttpFactory}).
+     */
+    public void decorateRequest( HttpRequest request )
+    {
+    }
+
 }
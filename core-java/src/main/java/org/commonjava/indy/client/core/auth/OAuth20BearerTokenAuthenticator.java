@@ -20,6 +20,7 @@ import org.apache.http.HttpException;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.protocol.HttpContext;
 import org.commonjava.indy.client.core.IndyClientException;
@@ -58,17 +59,36 @@ public class OAuth20BearerTokenAuthenticator
     @Override
     public HttpClientBuilder decorateClientBuilder( HttpClientBuilder builder ) throws JHttpCException
     {
-        builder.addInterceptorFirst( new HttpRequestInterceptor()
+        builder.addInterceptorFirst( bearerTokenInterceptor() );
+
+        return builder;
+    }
+
+    @Override
+    public HttpAsyncClientBuilder decorateAsyncClientBuilder( HttpAsyncClientBuilder builder )
+    {
+        builder.addInterceptorFirst( bearerTokenInterceptor() );
+
+        return builder;
+    }
+
+    @Override
+    public void decorateRequest( HttpRequest httpRequest )
+    {
+        final Header header = new BasicHeader( AUTHORIZATION_HEADER, String.format( BEARER_FORMAT, token ) );
+        httpRequest.addHeader( header );
+    }
+
+    private HttpRequestInterceptor bearerTokenInterceptor()
+    {
+        return new HttpRequestInterceptor()
         {
             @Override
             public void process( HttpRequest httpRequest, HttpContext httpContext ) throws HttpException, IOException
             {
-                final Header header = new BasicHeader( AUTHORIZATION_HEADER, String.format( BEARER_FORMAT, token ) );
-                httpRequest.addHeader( header );
+                decorateRequest( httpRequest );
             }
-        } );
-
-        return builder;
+        };
     }
 
 }
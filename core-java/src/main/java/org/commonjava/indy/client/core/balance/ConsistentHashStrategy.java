@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.balance;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.commonjava.indy.client.core.module.IndyContentClientModule.CONTENT_BASE;
+
+/**
+ * Routes content requests by their store key and path (the {@code content/<pkg>/<type>/<name>/<path>} part built by
+ * {@link org.commonjava.indy.client.core.module.IndyContentClientModule#contentPath}, also found under
+ * {@code folo/track/<id>/}) onto a hash ring of nodes, so each file is served from the same node's cache. Ejecting or
+ * restoring a node only moves the keys that node owns.
+ * <br/>
+ * Load is bounded: a node is skipped while it has more than {@code 1 + balanceFactor} times the average outstanding
+ * requests, and the key moves to the next node on the ring. All other traffic goes to the fallback strategy.
+ */
+public class ConsistentHashStrategy
+        implements LoadBalancingStrategy
+{
+    public static final int DEFAULT_REPLICAS = 100;
+
+    public static final double DEFAULT_BALANCE_FACTOR = 0.25;
+
+    private static final String FOLO_TRACK = "folo/track/";
+
+    private final LoadBalancingStrategy fallback;
+
+    private final int replicas;
+
+    private final double balanceFactor;
+
+    private volatile Ring ring;
+
+    public ConsistentHashStrategy()
+    {
+        this( new RoundRobinStrategy(), DEFAULT_REPLICAS, DEFAULT_BALANCE_FACTOR );
+    }
+
+    public ConsistentHashStrategy( final LoadBalancingStrategy fallback, final int replicas,
+                                   final double balanceFactor )
+    {
+        this.fallback = fallback;
+        this.replicas = replicas;
+        this.balanceFactor = balanceFactor;
+    }
+
+    @Override
+    public IndyNode select( final List<IndyNode> nodes, final HttpRequest request )
+    {
+        final String key = routingKey( request );
+        if ( key == null || nodes.size() == 1 )
+        {
+            return fallback.select( nodes, request );
+        }
+
+        Ring current = ring;
+        if ( current == null || !current.nodes.equals( nodes ) )
+        {
+            current = new Ring( nodes, replicas );
+            ring = current;
+        }
+
+        int total = 1;
+        for ( final IndyNode node : nodes )
+        {
+            total += node.getOutstanding();
+        }
+        final double capacity = Math.ceil( total * ( 1 + balanceFactor ) / nodes.size() );
+
+        return current.walk( hash( key ), capacity );
+    }
+
+    /**
+     * Returns {@code <pkg>/<type>/<name>/<path>} for content requests, null for anything else.
+     */
+    static String routingKey( final HttpRequest request )
+    {
+        if ( request == null )
+        {
+            return null;
+        }
+
+        final String path = request instanceof HttpUriRequest ?
+                ( (HttpUriRequest) request ).getURI().getPath() :
+                URI.create( request.getRequestLine().getUri() ).getPath();
+        if ( path == null )
+        {
+            return null;
+        }
+
+        final int folo = path.indexOf( "/" + FOLO_TRACK );
+        if ( folo > -1 )
+        {
+            // skip the tracking id
+            final int id = folo + FOLO_TRACK.length() + 1;
+            final int slash = path.indexOf( '/', id );
+            return slash < 0 ? null : storePath( path.substring( slash + 1 ) );
+        }
+
+        final int content = path.indexOf( "/" + CONTENT_BASE + "/" );
+        return content < 0 ? null : storePath( path.substring( content + CONTENT_BASE.length() + 2 ) );
+    }
+
+    /**
+     * Accepts only {@code <pkg>/<type>/<name>/<path...>}, so store-level calls aren't pinned to one node.
+     */
+    private static String storePath( final String rest )
+    {
+        return rest.split( "/", 4 ).length == 4 ? rest : null;
+    }
+
+    /**
+     * 64-bit FNV-1a, finished with the MurmurHash3 mixer so similar keys spread around the ring.
+     */
+    static long hash( final String key )
+    {
+        long h = 0xcbf29ce484222325L;
+        for ( final byte b : key.getBytes( StandardCharsets.UTF_8 ) )
+        {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Ring
+    {
+        private final List<IndyNode> nodes;
+
+        private final TreeMap<Long, IndyNode> points = new TreeMap<>();
+
+        private Ring( final List<IndyNode> nodes, final int replicas )
+        {
+            this.nodes = nodes;
+            for ( final IndyNode node : nodes )
+            {
+                for ( int i = 0; i < replicas; i++ )
+                {
+                    points.put( hash( node.getBaseUrl() + "#" + i ), node );
+                }
+            }
+        }
+
+        private IndyNode walk( final long hash, final double capacity )
+        {
+            IndyNode node = firstBelow( points.tailMap( hash, true ).values(), capacity );
+            if ( node == null )
+            {
+                node = firstBelow( points.headMap( hash, false ).values(), capacity );
+            }
+            if ( node == null )
+            {
+                // everyone is over capacity; stay with the owner
+                final Map.Entry<Long, IndyNode> owner = points.ceilingEntry( hash );
+                node = owner == null ? points.firstEntry().getValue() : owner.getValue();
+            }
+
+            return node;
+        }
+
+        private static IndyNode firstBelow( final Collection<IndyNode> candidates, final double capacity )
+        {
+            for ( final IndyNode node : candidates )
+            {
+                if ( node.getOutstanding() < capacity )
+                {
+                    return node;
+                }
+            }
+
+            return null;
+        }
+    }
+}
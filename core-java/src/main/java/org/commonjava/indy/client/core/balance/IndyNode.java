@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.balance;
+
+import org.commonjava.util.jhttpc.model.SiteConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Indy node behind a {@link LoadBalancingHttpClient}, with its own {@link SiteConfig} (and so its own connection
+ * pool), its health and the requests currently outstanding against it.
+ */
+public class IndyNode
+{
+    /**
+     * Consecutive request failures after which a node is ejected until a health check passes again, or until it is
+     * readmitted.
+     */
+    public static final int EJECT_AFTER_FAILURES = 3;
+
+    /**
+     * How long an ejected node is left out when no health checks run, see {@link #setReadmitAfterMillis(long)}.
+     */
+    public static final long READMIT_AFTER_MILLIS = 30000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final SiteConfig location;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private volatile boolean healthy = true;
+
+    private volatile long ejectedAt;
+
+    private volatile long readmitAfterMillis;
+
+    public IndyNode( final SiteConfig location )
+    {
+        this.location = location;
+    }
+
+    public SiteConfig getLocation()
+    {
+        return location;
+    }
+
+    public String getBaseUrl()
+    {
+        return location.getUri();
+    }
+
+    /**
+     * @return true unless the node is ejected, or once an ejected node is due to be tried again
+     */
+    public boolean isHealthy()
+    {
+        return healthy || ( readmitAfterMillis > 0 && System.currentTimeMillis() - ejectedAt >= readmitAfterMillis );
+    }
+
+    /**
+     * Lets requests try an ejected node again this long after it was ejected, for use without a
+     * {@link NodeHealthChecker}. The first of them to succeed restores the node, and a run of failures ejects it
+     * for as long again. Zero, the default, leaves it out until a health check passes.
+     */
+    public void setReadmitAfterMillis( final long readmitAfterMillis )
+    {
+        this.readmitAfterMillis = readmitAfterMillis;
+    }
+
+    public int getOutstanding()
+    {
+        return outstanding.get();
+    }
+
+    void requestStarted()
+    {
+        outstanding.incrementAndGet();
+    }
+
+    void requestFinished()
+    {
+        outstanding.decrementAndGet();
+    }
+
+    void succeeded()
+    {
+        if ( !healthy && readmitAfterMillis > 0 )
+        {
+            restore();
+        }
+        failures.set( 0 );
+    }
+
+    void failed()
+    {
+        if ( failures.incrementAndGet() >= EJECT_AFTER_FAILURES )
+        {
+            eject();
+        }
+    }
+
+    void eject()
+    {
+        ejectedAt = System.currentTimeMillis();
+        if ( healthy )
+        {
+            logger.warn( "Ejecting Indy node: {}", getBaseUrl() );
+            healthy = false;
+        }
+    }
+
+    void restore()
+    {
+        failures.set( 0 );
+        if ( !healthy )
+        {
+            logger.info( "Indy node is healthy again: {}", getBaseUrl() );
+            healthy = true;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IndyNode{" + getBaseUrl() + ", healthy=" + healthy + ", outstanding=" + outstanding + '}';
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.balance;
+
+import org.apache.http.HttpRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends each request to the node with the fewest requests outstanding, picking randomly among ties so idle nodes
+ * share the load.
+ */
+public class LeastOutstandingStrategy
+        implements LoadBalancingStrategy
+{
+    @Override
+    public IndyNode select( final List<IndyNode> nodes, final HttpRequest request )
+    {
+        IndyNode selected = null;
+        int least = Integer.MAX_VALUE;
+        int ties = 0;
+        for ( final IndyNode node : nodes )
+        {
+            final int outstanding = node.getOutstanding();
+            if ( outstanding < least )
+            {
+                selected = node;
+                least = outstanding;
+                ties = 1;
+            }
+            else if ( outstanding == least && ThreadLocalRandom.current().nextInt( ++ties ) == 0 )
+            {
+                selected = node;
+            }
+        }
+
+        return selected;
+    }
+}
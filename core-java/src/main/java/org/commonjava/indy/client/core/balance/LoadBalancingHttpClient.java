@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.balance;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.commonjava.indy.client.core.helper.CompositeConnectionManager;
+import org.commonjava.indy.client.core.helper.ReleasingHttpResponse;
+import org.commonjava.util.jhttpc.HttpFactoryIfc;
+import org.commonjava.util.jhttpc.JHttpCException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Spreads requests addressed to the primary base URL over several Indy nodes. Each node gets its own client (and so
+ * connection pool) from the factory, and requests are re-addressed to the selected node's base URL. Nodes that keep
+ * failing are left out until a health check restores them; if none is healthy, all of them are tried.
+ */
+public class LoadBalancingHttpClient
+        extends CloseableHttpClient
+{
+    /**
+     * Context attribute holding an {@link IndyNode} the request must go to, bypassing the strategy.
+     */
+    public static final String TARGET_NODE = "indy-target-node";
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final String baseUrl;
+
+    private final List<IndyNode> nodes;
+
+    private final LoadBalancingStrategy strategy;
+
+    private final HttpFactoryIfc factory;
+
+    private final Map<IndyNode, CloseableHttpClient> clients = new LinkedHashMap<>();
+
+    public LoadBalancingHttpClient( final String baseUrl, final List<IndyNode> nodes,
+                                    final LoadBalancingStrategy strategy, final HttpFactoryIfc factory )
+            throws JHttpCException
+    {
+        this.baseUrl = trimSlash( baseUrl );
+        this.nodes = nodes;
+        this.strategy = strategy;
+        this.factory = factory;
+
+        for ( final IndyNode node : nodes )
+        {
+            clients.put( node, factory.createClient( node.getLocation() ) );
+        }
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        final IndyNode node = selectNode( request, context );
+        final HttpUriRequest routed = route( request, node );
+
+        final HttpClientContext nodeContext;
+        try
+        {
+            nodeContext = factory.createContext( node.getLocation() );
+        }
+        catch ( final JHttpCException e )
+        {
+            throw new IOException( "Failed to create context for Indy node: " + node.getBaseUrl(), e );
+        }
+
+        logger.trace( "Routing {} to {}", request.getRequestLine(), node );
+        node.requestStarted();
+        final CloseableHttpResponse response;
+        try
+        {
+            response = clients.get( node ).execute( routed, nodeContext );
+        }
+        catch ( final IOException | RuntimeException e )
+        {
+            node.requestFinished();
+            node.failed();
+            throw e;
+        }
+        finally
+        {
+            if ( context != null )
+            {
+                // let callers further up still see which connection served the request
+                context.setAttribute( HttpCoreContext.HTTP_CONNECTION,
+                                      nodeContext.getAttribute( HttpCoreContext.HTTP_CONNECTION ) );
+            }
+        }
+
+        if ( response.getStatusLine().getStatusCode() >= 500 )
+        {
+            node.failed();
+        }
+        else
+        {
+            node.succeeded();
+        }
+
+        return ReleasingHttpResponse.wrap( response, node::requestFinished );
+    }
+
+    private IndyNode selectNode( final HttpRequest request, final HttpContext context )
+    {
+        final Object pinned = context == null ? null : context.getAttribute( TARGET_NODE );
+        if ( pinned instanceof IndyNode && clients.containsKey( pinned ) )
+        {
+            return (IndyNode) pinned;
+        }
+
+        final List<IndyNode> healthy = nodes.stream().filter( IndyNode::isHealthy ).collect( Collectors.toList() );
+        return strategy.select( healthy.isEmpty() ? nodes : healthy, request );
+    }
+
+    private HttpUriRequest route( final HttpRequest request, final IndyNode node )
+    {
+        final HttpRequestWrapper routed = HttpRequestWrapper.wrap( request );
+        final String uri = routed.getURI().toString();
+        if ( uri.startsWith( baseUrl ) )
+        {
+            routed.setURI( URI.create( trimSlash( node.getBaseUrl() ) + uri.substring( baseUrl.length() ) ) );
+        }
+
+        return routed;
+    }
+
+    private static String trimSlash( final String url )
+    {
+        return url.endsWith( "/" ) ? url.substring( 0, url.length() - 1 ) : url;
+    }
+
+    public List<IndyNode> getNodes()
+    {
+        return nodes;
+    }
+
+    @Override
+    public void close()
+    {
+        clients.values().forEach( c -> closeQuietly( c ) );
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        throw new UnsupportedOperationException( "Load-balanced client has no single HttpParams" );
+    }
+
+    /**
+     * Pool controls that apply to the pools of all nodes.
+     */
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return new CompositeConnectionManager( clients.values() );
+    }
+}
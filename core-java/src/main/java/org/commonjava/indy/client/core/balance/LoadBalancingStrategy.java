@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.balance;
+
+import org.apache.http.HttpRequest;
+
+import java.util.List;
+
+/**
+ * Picks the node a request is sent to.
+ */
+@FunctionalInterface
+public interface LoadBalancingStrategy
+{
+    /**
+     * @param nodes the healthy nodes, or all of them when none is healthy; never empty
+     * @param request the request about to be sent, still addressed to the primary base URL
+     */
+    IndyNode select( List<IndyNode> nodes, HttpRequest request );
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.balance;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.commonjava.indy.client.core.retry.RetryingHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.commonjava.indy.client.core.helper.HttpResources.cleanupResources;
+import static org.commonjava.indy.client.core.util.UrlUtils.buildUrl;
+
+/**
+ * Daemon that polls every node with a GET of {@code path}, ejecting nodes that fail to answer or answer with a
+ * server error, and restoring those that answer again. The client it is given should go straight to the nodes'
+ * pools, so that no breaker or limiter above them can fail a probe.
+ */
+public class NodeHealthChecker
+        implements Closeable
+{
+    public static final long DEFAULT_INTERVAL_MILLIS = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final List<IndyNode> nodes;
+
+    private final Callable<CloseableHttpClient> client;
+
+    private final String path;
+
+    private final ScheduledExecutorService scheduler;
+
+    public NodeHealthChecker( final List<IndyNode> nodes, final Callable<CloseableHttpClient> client,
+                              final String path, final long intervalMillis )
+    {
+        this.nodes = nodes;
+        this.client = client;
+        this.path = path;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor( r -> {
+            Thread t = new Thread( r, "indy-client-health-check" );
+            t.setDaemon( true );
+            return t;
+        } );
+        this.scheduler.scheduleWithFixedDelay( this::checkAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS );
+    }
+
+    public void checkAll()
+    {
+        nodes.forEach( this::check );
+    }
+
+    private void check( final IndyNode node )
+    {
+        final HttpGet request = new HttpGet( buildUrl( node.getBaseUrl(), path ) );
+        final HttpClientContext context = HttpClientContext.create();
+        context.setAttribute( LoadBalancingHttpClient.TARGET_NODE, node );
+        context.setAttribute( RetryingHttpClient.NO_RETRY, Boolean.TRUE );
+
+        CloseableHttpResponse response = null;
+        try
+        {
+            response = client.call().execute( request, context );
+            if ( response.getStatusLine().getStatusCode() < 500 )
+            {
+                node.restore();
+            }
+            else
+            {
+                logger.debug( "Health check of {} failed: {}", node.getBaseUrl(), response.getStatusLine() );
+                node.eject();
+            }
+        }
+        catch ( final Exception e )
+        {
+            logger.debug( "Health check of {} failed: {}", node.getBaseUrl(), e.getMessage() );
+            node.eject();
+        }
+        finally
+        {
+            cleanupResources( request, response, null );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.breaker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker for one traffic class.
+ * <ul>
+ *     <li>CLOSED: calls pass; it opens when the failure rate or the slow call rate of the last calls reaches its
+ *     threshold</li>
+ *     <li>OPEN: calls fail fast with {@link CircuitBreakerOpenException} until the open period is over</li>
+ *     <li>HALF_OPEN: a few probe calls pass; it closes if they all succeed in time, and opens again otherwise</li>
+ * </ul>
+ * Each state change starts a new epoch; results of calls admitted in an earlier epoch are dropped, so calls that
+ * were already in flight when the breaker opened can't be mistaken for probes.
+ */
+public class CircuitBreaker
+{
+    public enum State
+    {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final String name;
+
+    private final CircuitBreakerConfig config;
+
+    private final long slowCallNanos;
+
+    private final boolean[] failedCalls;
+
+    private final boolean[] slowCalls;
+
+    private State state = State.CLOSED;
+
+    private long epoch;
+
+    private long openedAt;
+
+    private int next;
+
+    private int calls;
+
+    private int failures;
+
+    private int slow;
+
+    private int probesIssued;
+
+    private int probesPassed;
+
+    public CircuitBreaker( final String name, final CircuitBreakerConfig config )
+    {
+        if ( config.getWindowSize() < 1 || config.getHalfOpenProbes() < 1 )
+        {
+            throw new IllegalArgumentException( "Circuit breaker window and probe count must be positive" );
+        }
+
+        this.name = name;
+        this.config = config;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos( config.getSlowCallMillis() );
+        this.failedCalls = new boolean[config.getWindowSize()];
+        this.slowCalls = new boolean[config.getWindowSize()];
+    }
+
+    /**
+     * @return the epoch to pass back to {@link #record(long, boolean, long)}
+     * @throws CircuitBreakerOpenException when the call may not be sent
+     */
+    public long acquire()
+            throws CircuitBreakerOpenException
+    {
+        return acquire( System.nanoTime() );
+    }
+
+    synchronized long acquire( final long now )
+            throws CircuitBreakerOpenException
+    {
+        if ( state == State.OPEN && now - openedAt >= TimeUnit.MILLISECONDS.toNanos( config.getOpenMillis() ) )
+        {
+            transition( State.HALF_OPEN, now );
+        }
+
+        if ( state == State.OPEN || ( state == State.HALF_OPEN && probesIssued >= config.getHalfOpenProbes() ) )
+        {
+            throw new CircuitBreakerOpenException( name, state );
+        }
+
+        if ( state == State.HALF_OPEN )
+        {
+            probesIssued++;
+        }
+        return epoch;
+    }
+
+    public void record( final long epoch, final boolean failed, final long durationNanos )
+    {
+        record( epoch, failed, durationNanos, System.nanoTime() );
+    }
+
+    synchronized void record( final long epoch, final boolean failed, final long durationNanos, final long now )
+    {
+        if ( epoch != this.epoch )
+        {
+            return;
+        }
+
+        final boolean wasSlow = durationNanos > slowCallNanos;
+        if ( state == State.HALF_OPEN )
+        {
+            if ( failed || wasSlow )
+            {
+                logger.warn( "Probe call for {} {}; reopening circuit breaker", name, failed ? "failed" : "was slow" );
+                transition( State.OPEN, now );
+            }
+            else if ( ++probesPassed >= config.getHalfOpenProbes() )
+            {
+                transition( State.CLOSED, now );
+            }
+            return;
+        }
+
+        if ( calls == failedCalls.length )
+        {
+            failures -= failedCalls[next] ? 1 : 0;
+            slow -= slowCalls[next] ? 1 : 0;
+        }
+        else
+        {
+            calls++;
+        }
+        failedCalls[next] = failed;
+        slowCalls[next] = wasSlow;
+        failures += failed ? 1 : 0;
+        slow += wasSlow ? 1 : 0;
+        next = ( next + 1 ) % failedCalls.length;
+
+        if ( calls >= config.getMinimumCalls() && ( failures >= calls * config.getFailureRateThreshold()
+                || slow >= calls * config.getSlowCallRateThreshold() ) )
+        {
+            logger.warn( "Opening circuit breaker for {}: {} of {} calls failed, {} were slow", name, failures, calls,
+                         slow );
+            transition( State.OPEN, now );
+        }
+    }
+
+    private void transition( final State to, final long now )
+    {
+        if ( to == State.CLOSED )
+        {
+            logger.info( "Closing circuit breaker for {}", name );
+        }
+        else if ( to == State.HALF_OPEN )
+        {
+            logger.debug( "Circuit breaker for {} is half-open, probing", name );
+        }
+
+        state = to;
+        epoch++;
+        openedAt = now;
+        probesIssued = 0;
+        probesPassed = 0;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slow = 0;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public synchronized State getState()
+    {
+        return state;
+    }
+}
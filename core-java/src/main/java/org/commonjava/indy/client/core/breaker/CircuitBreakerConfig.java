@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.breaker;
+
+/**
+ * Settings shared by the per traffic class {@link CircuitBreaker}s. Rates are evaluated over the last
+ * {@code windowSize} calls of a class, once at least {@code minimumCalls} of them have completed.
+ */
+public class CircuitBreakerConfig
+{
+    private double failureRateThreshold = 0.5;
+
+    private double slowCallRateThreshold = 0.8;
+
+    private long slowCallMillis = 10000;
+
+    private int windowSize = 50;
+
+    private int minimumCalls = 10;
+
+    private long openMillis = 30000;
+
+    private int halfOpenProbes = 3;
+
+    public double getFailureRateThreshold()
+    {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold( double failureRateThreshold )
+    {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public double getSlowCallRateThreshold()
+    {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold( double slowCallRateThreshold )
+    {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    /**
+     * Calls whose response headers take longer than this count as slow.
+     */
+    public long getSlowCallMillis()
+    {
+        return slowCallMillis;
+    }
+
+    public void setSlowCallMillis( long slowCallMillis )
+    {
+        this.slowCallMillis = slowCallMillis;
+    }
+
+    public int getWindowSize()
+    {
+        return windowSize;
+    }
+
+    public void setWindowSize( int windowSize )
+    {
+        this.windowSize = windowSize;
+    }
+
+    public int getMinimumCalls()
+    {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls( int minimumCalls )
+    {
+        this.minimumCalls = minimumCalls;
+    }
+
+    /**
+     * How long an open breaker fails calls fast before letting probes through.
+     */
+    public long getOpenMillis()
+    {
+        return openMillis;
+    }
+
+    public void setOpenMillis( long openMillis )
+    {
+        this.openMillis = openMillis;
+    }
+
+    public int getHalfOpenProbes()
+    {
+        return halfOpenProbes;
+    }
+
+    public void setHalfOpenProbes( int halfOpenProbes )
+    {
+        this.halfOpenProbes = halfOpenProbes;
+    }
+}
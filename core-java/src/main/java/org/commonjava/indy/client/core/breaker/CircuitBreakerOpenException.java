@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.breaker;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request whose traffic class has its {@link CircuitBreaker} open.
+ */
+public class CircuitBreakerOpenException
+        extends IOException
+{
+    private static final long serialVersionUID = 1L;
+
+    private final String trafficClass;
+
+    public CircuitBreakerOpenException( final String trafficClass, final CircuitBreaker.State state )
+    {
+        super( "Circuit breaker for " + trafficClass + " is " + state + "; failing fast" );
+        this.trafficClass = trafficClass;
+    }
+
+    public String getTrafficClass()
+    {
+        return trafficClass;
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.breaker;
+
+import org.apache.commons.lang3.Strings;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.o11y.metric.ClientMetricConstants;
+import org.commonjava.indy.client.core.o11y.metric.ClientTrafficClassifier;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Guards each traffic class found by {@link ClientTrafficClassifier} (content, folo, promote, repository management)
+ * with its own {@link CircuitBreaker}, so a degraded Indy subsystem fails fast instead of tying up threads and
+ * connections needed by the others. Unclassified requests pass straight through. A call fails when it throws or
+ * gets a 5xx response.
+ */
+public class CircuitBreakingHttpClient
+        extends CloseableHttpClient
+{
+    public static final String CIRCUIT_BREAKER = "circuit_breaker";
+
+    public static final String CIRCUIT_STATE = "circuit_state";
+
+    private final CloseableHttpClient delegate;
+
+    private final Map<String, CircuitBreaker> breakers;
+
+    private final ClientTrafficClassifier classifier = new ClientTrafficClassifier();
+
+    private final String basePath;
+
+    public CircuitBreakingHttpClient( final CloseableHttpClient delegate, final String baseUrl,
+                                      final Map<String, CircuitBreaker> breakers )
+    {
+        this.delegate = delegate;
+        this.breakers = breakers;
+        this.basePath = Strings.CS.removeEnd( URI.create( baseUrl ).getPath(), "/" );
+    }
+
+    /**
+     * One breaker per {@link ClientMetricConstants#CLIENT_FUNCTIONS client function}, all with the same settings.
+     */
+    public static Map<String, CircuitBreaker> newBreakers( final CircuitBreakerConfig config )
+    {
+        final Map<String, CircuitBreaker> breakers = new LinkedHashMap<>();
+        for ( final String function : ClientMetricConstants.CLIENT_FUNCTIONS )
+        {
+            breakers.put( function, new CircuitBreaker( function, config ) );
+        }
+        return Collections.unmodifiableMap( breakers );
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        final CircuitBreaker breaker = breakerFor( request );
+        if ( breaker == null )
+        {
+            return delegate.execute( target, request, context );
+        }
+
+        final long epoch;
+        try
+        {
+            epoch = breaker.acquire();
+        }
+        catch ( final CircuitBreakerOpenException e )
+        {
+            addFieldToCurrentSpan( CIRCUIT_BREAKER, breaker.getName() );
+            addFieldToCurrentSpan( CIRCUIT_STATE, breaker.getState().name() );
+            throw e;
+        }
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try
+        {
+            final CloseableHttpResponse response = delegate.execute( target, request, context );
+            failed = response.getStatusLine().getStatusCode() >= 500;
+            return response;
+        }
+        finally
+        {
+            breaker.record( epoch, failed, System.nanoTime() - start );
+        }
+    }
+
+    /**
+     * The classifier assigns at most one function to a request.
+     */
+    private CircuitBreaker breakerFor( final HttpRequest request )
+    {
+        if ( !( request instanceof HttpUriRequest ) )
+        {
+            return null;
+        }
+
+        final List<String> functions = classifier.calculateClassifiers( (HttpUriRequest) request, basePath );
+        return functions.isEmpty() ? null : breakers.get( functions.get( 0 ) );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
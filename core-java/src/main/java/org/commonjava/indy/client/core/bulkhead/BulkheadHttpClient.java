@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.bulkhead;
+
+import org.apache.commons.lang3.Strings;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.helper.CompositeConnectionManager;
+import org.commonjava.indy.client.core.o11y.metric.ClientTrafficClassifier;
+import org.commonjava.util.jhttpc.HttpFactoryIfc;
+import org.commonjava.util.jhttpc.JHttpCException;
+import org.commonjava.util.jhttpc.model.SiteConfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Sends the calls picked out by a {@link BulkheadPolicy} through clients of their own, so each group draws on its
+ * own connection pool: long zip exports can then use up their pool without leaving content reads waiting for a
+ * connection.
+ */
+public class BulkheadHttpClient
+        extends CloseableHttpClient
+{
+    public static final String BULKHEAD = "bulkhead";
+
+    private static final String MAIN_POOL = "main";
+
+    private final CloseableHttpClient main;
+
+    private final BulkheadPolicy policy;
+
+    private final String basePath;
+
+    private final ClientTrafficClassifier classifier = new ClientTrafficClassifier();
+
+    private final Map<SiteConfig, CloseableHttpClient> pools = new IdentityHashMap<>();
+
+    public BulkheadHttpClient( final CloseableHttpClient main, final String baseUrl, final BulkheadPolicy policy,
+                               final HttpFactoryIfc factory )
+            throws JHttpCException
+    {
+        this.main = main;
+        this.policy = policy;
+        this.basePath = Strings.CS.removeEnd( URI.create( baseUrl ).getPath(), "/" );
+
+        final List<SiteConfig> sites = new ArrayList<>( policy.getPathPools().values() );
+        sites.addAll( policy.getFunctionPools().values() );
+        for ( final SiteConfig site : sites )
+        {
+            if ( !pools.containsKey( site ) )
+            {
+                pools.put( site, factory.createClient( site ) );
+            }
+        }
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        final SiteConfig pool = request instanceof HttpUriRequest ? poolOf( (HttpUriRequest) request ) : null;
+        addFieldToCurrentSpan( BULKHEAD, pool == null ? MAIN_POOL : pool.getId() );
+        return ( pool == null ? main : pools.get( pool ) ).execute( target, request, context );
+    }
+
+    /**
+     * @return whether the request is sent through one of the bulkheads rather than the main pool
+     */
+    public boolean isBulkheaded( final HttpRequest request )
+    {
+        return request instanceof HttpUriRequest && poolOf( (HttpUriRequest) request ) != null;
+    }
+
+    private SiteConfig poolOf( final HttpUriRequest request )
+    {
+        final String fullPath = request.getURI().getPath();
+        if ( fullPath == null || !fullPath.startsWith( basePath + "/" ) )
+        {
+            // not an Indy API call
+            return null;
+        }
+
+        final String path = ClientTrafficClassifier.relativePath( request, basePath );
+
+        return policy.poolOf( Strings.CS.removeStart( path, "/" ),
+                              classifier.calculateClassifiers( request, basePath ) );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        pools.values().forEach( c -> closeQuietly( c ) );
+        main.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return main.getParams();
+    }
+
+    /**
+     * Pool controls that apply to the main pool and every bulkhead.
+     */
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        final List<CloseableHttpClient> all = new ArrayList<>( pools.values() );
+        all.add( main );
+        return new CompositeConnectionManager( all );
+    }
+}
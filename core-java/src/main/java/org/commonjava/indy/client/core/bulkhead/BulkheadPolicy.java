@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.bulkhead;
+
+import org.apache.commons.lang3.Strings;
+import org.commonjava.util.jhttpc.model.SiteConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for {@link BulkheadHttpClient}: which calls get a connection pool of their own. Each pool is described by
+ * a {@link SiteConfig} for the same Indy as the main location, with a distinct id and its own
+ * {@code maxConnections}; one SiteConfig may serve several paths or traffic classes, which then share that pool.
+ * <br/>
+ * Calls are matched on the longest path prefix first, relative to the base URL (a module's base path, e.g.
+ * {@code folo/admin}, isolates the whole module), then on their traffic class, e.g.
+ * {@link org.commonjava.indy.client.core.o11y.metric.ClientMetricConstants#CLIENT_CONTENT}. Anything else uses the
+ * main pool.
+ */
+public class BulkheadPolicy
+{
+    private Map<String, SiteConfig> pathPools = new HashMap<>();
+
+    private Map<String, SiteConfig> functionPools = new HashMap<>();
+
+    public Map<String, SiteConfig> getPathPools()
+    {
+        return pathPools;
+    }
+
+    public void setPathPools( Map<String, SiteConfig> pathPools )
+    {
+        this.pathPools = pathPools;
+    }
+
+    public Map<String, SiteConfig> getFunctionPools()
+    {
+        return functionPools;
+    }
+
+    public void setFunctionPools( Map<String, SiteConfig> functionPools )
+    {
+        this.functionPools = functionPools;
+    }
+
+    public BulkheadPolicy isolatePath( String pathPrefix, SiteConfig pool )
+    {
+        this.pathPools.put( pathPrefix, pool );
+        return this;
+    }
+
+    public BulkheadPolicy isolateFunction( String function, SiteConfig pool )
+    {
+        this.functionPools.put( function, pool );
+        return this;
+    }
+
+    /**
+     * @param path the request path below the base URL, without a leading slash
+     * @param functions the traffic classes of the request
+     * @return the pool for the request, or null for the main one
+     */
+    public SiteConfig poolOf( final String path, final List<String> functions )
+    {
+        String match = null;
+        for ( final String prefix : pathPools.keySet() )
+        {
+            if ( path.startsWith( Strings.CS.removeStart( prefix, "/" ) ) && ( match == null
+                    || prefix.length() > match.length() ) )
+            {
+                match = prefix;
+            }
+        }
+
+        if ( match != null )
+        {
+            return pathPools.get( match );
+        }
+
+        for ( final String function : functions )
+        {
+            final SiteConfig pool = functionPools.get( function );
+            if ( pool != null )
+            {
+                return pool;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,461 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.compress;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.ProxyOutputStream;
+import org.apache.commons.lang3.Strings;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.helper.RequestConfigs;
+import org.commonjava.indy.client.core.o11y.metric.ClientTrafficClassifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Asks for compressed responses on JSON calls (those accepting {@code application/json}), offering the codings of
+ * the {@link CompressionPolicy}, and decodes them as they are read. Apache's own decompression is switched off for
+ * these calls so the bytes on the wire can be counted; both counts go to the span and to {@link CompressionStats}
+ * once the body is closed. Content downloads are left alone.
+ * <br/>
+ * When the policy has a request codec, JSON bodies sent with POST or PUT to the configured paths are compressed once
+ * they reach the size threshold. Bodies of known length are compressed up front, and sent as they were if that does
+ * not make them smaller; repeatable bodies of unknown length, which are only streamed because they are large, count
+ * as over the threshold and are compressed as they are written out, without being held in memory. A server that
+ * answers {@code 415 Unsupported Media Type} gets the call again uncompressed, and that path is not compressed again
+ * by this client.
+ * <br/>
+ * Each attempt runs on a copy of the request, so the caller's request and body come back as they were sent and a
+ * retry above this client negotiates and compresses afresh.
+ */
+public class CompressionHttpClient
+        extends CloseableHttpClient
+{
+    public static final String RESPONSE_WIRE_BYTES = "response_wire_bytes";
+
+    public static final String RESPONSE_DECODED_BYTES = "response_decoded_bytes";
+
+    public static final String REQUEST_RAW_BYTES = "request_raw_bytes";
+
+    public static final String REQUEST_WIRE_BYTES = "request_wire_bytes";
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final CloseableHttpClient delegate;
+
+    private final CompressionPolicy policy;
+
+    private final String basePath;
+
+    private final Set<String> refusedPaths = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, ContentCodec> codecs = new LinkedHashMap<>();
+
+    private final String acceptEncoding;
+
+    private final CompressionStats stats;
+
+    private final int defaultTimeoutMillis;
+
+    public CompressionHttpClient( final CloseableHttpClient delegate, final String baseUrl,
+                                  final CompressionPolicy policy, final CompressionStats stats,
+                                  final int defaultTimeoutMillis )
+    {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.basePath = Strings.CS.removeEnd( URI.create( baseUrl ).getPath(), "/" );
+        this.stats = stats;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        policy.getResponseCodecs()
+              .forEach( codec -> codecs.put( codec.getEncoding().toLowerCase( Locale.ROOT ), codec ) );
+        this.acceptEncoding = String.join( ", ", codecs.keySet() );
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        final boolean negotiate = !codecs.isEmpty() && isJson( request, HttpHeaders.ACCEPT )
+                && !request.containsHeader( HttpHeaders.ACCEPT_ENCODING );
+        final String path = compressiblePath( request );
+        final HttpRequest attempt = negotiate || path != null ? copy( request ) : request;
+        if ( negotiate )
+        {
+            final HttpRequestBase req = (HttpRequestBase) attempt;
+            req.setHeader( HttpHeaders.ACCEPT_ENCODING, acceptEncoding );
+            req.setConfig( RequestConfigs.configOf( req, defaultTimeoutMillis )
+                                         .setContentCompressionEnabled( false )
+                                         .build() );
+        }
+
+        final HttpEntity uncompressed = path == null ? null : compressBody( (HttpEntityEnclosingRequest) attempt );
+
+        CloseableHttpResponse response = delegate.execute( target, attempt, context );
+        if ( uncompressed != null
+                && response.getStatusLine().getStatusCode() == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE )
+        {
+            logger.debug( "{} refused a {} encoded body; sending it uncompressed from now on", path,
+                          policy.getRequestCodec().getEncoding() );
+            refusedPaths.add( path );
+            response.close();
+            ( (HttpEntityEnclosingRequest) attempt ).setEntity( uncompressed );
+            response = delegate.execute( target, attempt, context );
+        }
+
+        return negotiate ? decoded( response ) : response;
+    }
+
+    /**
+     * Copies the request for one attempt; {@code clone()} is no good here, as the clone shares the caller's headers.
+     * Aborting the caller's request aborts the copy.
+     */
+    private static HttpRequestBase copy( final HttpRequest request )
+    {
+        final HttpRequestBase copy = (HttpRequestBase) RequestBuilder.copy( request ).build();
+        if ( request instanceof HttpRequestBase )
+        {
+            ( (HttpRequestBase) request ).setCancellable( () -> {
+                copy.abort();
+                return true;
+            } );
+        }
+        return copy;
+    }
+
+    /**
+     * @return the path below the base URL if the request's body may be compressed, otherwise null
+     */
+    private String compressiblePath( final HttpRequest request )
+    {
+        if ( policy.getRequestCodec() == null || !( request instanceof HttpEntityEnclosingRequest )
+                || !( request instanceof HttpUriRequest ) )
+        {
+            return null;
+        }
+
+        final HttpEntity entity = ( (HttpEntityEnclosingRequest) request ).getEntity();
+        if ( entity == null || entity.getContentEncoding() != null || !entity.isRepeatable()
+                || ( entity.getContentLength() >= 0
+                && entity.getContentLength() < policy.getRequestThresholdBytes() ) )
+        {
+            return null;
+        }
+
+        final boolean json = isJson( request, HttpHeaders.CONTENT_TYPE ) || ( entity.getContentType() != null
+                && entity.getContentType().getValue().contains( "application/json" ) );
+        if ( !json )
+        {
+            return null;
+        }
+
+        final String path = Strings.CS.removeStart(
+                ClientTrafficClassifier.relativePath( (HttpUriRequest) request, basePath ), "/" );
+        return policy.compressesRequestsTo( path ) && !refusedPaths.contains( path ) ? path : null;
+    }
+
+    /**
+     * Swaps the body of this attempt's copy of the request for its compressed form.
+     *
+     * @return the original body, or null if compressing it would not have made it smaller
+     */
+    private HttpEntity compressBody( final HttpEntityEnclosingRequest request )
+            throws IOException
+    {
+        final ContentCodec codec = policy.getRequestCodec();
+        final HttpEntity entity = request.getEntity();
+        if ( entity.getContentLength() < 0 )
+        {
+            request.setEntity( new CompressingEntity( entity, codec ) );
+            return entity;
+        }
+
+        final ByteArrayOutputStream bytes =
+                new ByteArrayOutputStream( (int) Math.max( 8192, entity.getContentLength() / 4 ) );
+        final ByteCountingOutputStream raw;
+        try (OutputStream out = codec.encode( bytes ))
+        {
+            raw = new ByteCountingOutputStream( out );
+            entity.writeTo( raw );
+        }
+
+        final long rawBytes = raw.getCount();
+        if ( bytes.size() >= rawBytes )
+        {
+            return null;
+        }
+
+        final ByteArrayEntity compressed = new ByteArrayEntity( bytes.toByteArray() );
+        compressed.setContentType( entity.getContentType() );
+        compressed.setContentEncoding( codec.getEncoding() );
+        request.setEntity( compressed );
+
+        stats.requestSent( rawBytes, bytes.size() );
+        addFieldToCurrentSpan( REQUEST_RAW_BYTES, rawBytes );
+        addFieldToCurrentSpan( REQUEST_WIRE_BYTES, bytes.size() );
+        return entity;
+    }
+
+    private CloseableHttpResponse decoded( final CloseableHttpResponse response )
+    {
+        final HttpEntity entity = response.getEntity();
+        final Header encoding = response.getFirstHeader( HttpHeaders.CONTENT_ENCODING );
+        if ( entity == null || encoding == null )
+        {
+            return response;
+        }
+
+        final ContentCodec codec = codecs.get( encoding.getValue().trim().toLowerCase( Locale.ROOT ) );
+        if ( codec == null )
+        {
+            return response;
+        }
+
+        response.setEntity( new DecodingEntity( entity, codec ) );
+        response.removeHeaders( HttpHeaders.CONTENT_ENCODING );
+        response.removeHeaders( HttpHeaders.CONTENT_LENGTH );
+        response.removeHeaders( HttpHeaders.CONTENT_MD5 );
+        return response;
+    }
+
+    private static boolean isJson( final HttpRequest request, final String header )
+    {
+        for ( final Header value : request.getHeaders( header ) )
+        {
+            if ( value.getValue().contains( "application/json" ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+
+    /**
+     * Compresses the wrapped body while it is written to the connection, so a large body is never held whole; the
+     * byte counts are reported each time it is written.
+     */
+    private static final class ByteCountingOutputStream
+            extends ProxyOutputStream
+    {
+        private long count;
+
+        private ByteCountingOutputStream( final OutputStream out )
+        {
+            super( out );
+        }
+
+        @Override
+        protected void afterWrite( final int n )
+        {
+            count += n;
+        }
+
+        private long getCount()
+        {
+            return count;
+        }
+    }
+
+    private final class CompressingEntity
+            extends HttpEntityWrapper
+    {
+        private final ContentCodec codec;
+
+        private CompressingEntity( final HttpEntity entity, final ContentCodec codec )
+        {
+            super( entity );
+            this.codec = codec;
+        }
+
+        @Override
+        public long getContentLength()
+        {
+            return -1;
+        }
+
+        @Override
+        public boolean isChunked()
+        {
+            return true;
+        }
+
+        @Override
+        public Header getContentEncoding()
+        {
+            return new BasicHeader( HttpHeaders.CONTENT_ENCODING, codec.getEncoding() );
+        }
+
+        /**
+         * For transports that can only send a body they read; the compressed bytes are held in one array.
+         */
+        @Override
+        public InputStream getContent()
+                throws IOException
+        {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeTo( bytes );
+            return new ByteArrayInputStream( bytes.toByteArray() );
+        }
+
+        @Override
+        public void writeTo( final OutputStream out )
+                throws IOException
+        {
+            final ByteCountingOutputStream wire = new ByteCountingOutputStream( out );
+            final ByteCountingOutputStream raw;
+            try (OutputStream encoded = codec.encode( CloseShieldOutputStream.wrap( wire ) ))
+            {
+                raw = new ByteCountingOutputStream( encoded );
+                wrappedEntity.writeTo( raw );
+            }
+
+            stats.requestSent( raw.getCount(), wire.getCount() );
+            addFieldToCurrentSpan( REQUEST_RAW_BYTES, raw.getCount() );
+            addFieldToCurrentSpan( REQUEST_WIRE_BYTES, wire.getCount() );
+        }
+    }
+
+    private final class DecodingEntity
+            extends HttpEntityWrapper
+    {
+        private final ContentCodec codec;
+
+        private InputStream content;
+
+        private DecodingEntity( final HttpEntity entity, final ContentCodec codec )
+        {
+            super( entity );
+            this.codec = codec;
+        }
+
+        @Override
+        public synchronized InputStream getContent()
+                throws IOException
+        {
+            if ( content == null )
+            {
+                final BoundedInputStream wire =
+                        BoundedInputStream.builder().setInputStream( wrappedEntity.getContent() ).get();
+                final BoundedInputStream decoded =
+                        BoundedInputStream.builder().setInputStream( codec.decode( wire ) ).get();
+                final AtomicBoolean reported = new AtomicBoolean();
+                content = new FilterInputStream( decoded )
+                {
+                    @Override
+                    public void close()
+                            throws IOException
+                    {
+                        try
+                        {
+                            super.close();
+                        }
+                        finally
+                        {
+                            if ( reported.compareAndSet( false, true ) )
+                            {
+                                stats.responseRead( wire.getCount(), decoded.getCount() );
+                                addFieldToCurrentSpan( RESPONSE_WIRE_BYTES, wire.getCount() );
+                                addFieldToCurrentSpan( RESPONSE_DECODED_BYTES, decoded.getCount() );
+                            }
+                        }
+                    }
+                };
+            }
+            return content;
+        }
+
+        @Override
+        public void writeTo( final OutputStream out )
+                throws IOException
+        {
+            try (InputStream in = getContent())
+            {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ( ( read = in.read( buffer ) ) != -1 )
+                {
+                    out.write( buffer, 0, read );
+                }
+            }
+        }
+
+        @Override
+        public long getContentLength()
+        {
+            return -1;
+        }
+
+        @Override
+        public Header getContentEncoding()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.compress;
+
+import org.apache.commons.lang3.Strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings for {@link CompressionHttpClient}. Responses are negotiated with every JSON call; request bodies are only
+ * compressed once a request codec is set, since not every Indy deployment accepts them. Request paths are prefixes
+ * relative to the base URL, e.g. {@code IndyPromoteClientModule.PATHS_PROMOTE_PATH}; with none set, every JSON POST
+ * and PUT qualifies.
+ */
+public class CompressionPolicy
+{
+    public static final long DEFAULT_REQUEST_THRESHOLD_BYTES = 64 * 1024;
+
+    private List<ContentCodec> responseCodecs =
+            new ArrayList<>( Arrays.asList( ContentCodec.GZIP, ContentCodec.DEFLATE ) );
+
+    private ContentCodec requestCodec;
+
+    private long requestThresholdBytes = DEFAULT_REQUEST_THRESHOLD_BYTES;
+
+    private List<String> requestPaths = new ArrayList<>();
+
+    /**
+     * Codings offered in {@code Accept-Encoding} on JSON calls, most preferred first.
+     */
+    public List<ContentCodec> getResponseCodecs()
+    {
+        return responseCodecs;
+    }
+
+    public void setResponseCodecs( List<ContentCodec> responseCodecs )
+    {
+        this.responseCodecs = responseCodecs;
+    }
+
+    /**
+     * Coding for large JSON request bodies; null leaves them uncompressed.
+     */
+    public ContentCodec getRequestCodec()
+    {
+        return requestCodec;
+    }
+
+    public void setRequestCodec( ContentCodec requestCodec )
+    {
+        this.requestCodec = requestCodec;
+    }
+
+    public long getRequestThresholdBytes()
+    {
+        return requestThresholdBytes;
+    }
+
+    public void setRequestThresholdBytes( long requestThresholdBytes )
+    {
+        this.requestThresholdBytes = requestThresholdBytes;
+    }
+
+    public List<String> getRequestPaths()
+    {
+        return requestPaths;
+    }
+
+    public void setRequestPaths( List<String> requestPaths )
+    {
+        this.requestPaths = requestPaths;
+    }
+
+    public CompressionPolicy compressRequestsTo( String pathPrefix )
+    {
+        this.requestPaths.add( pathPrefix );
+        return this;
+    }
+
+    /**
+     * @param path the request path below the base URL, without a leading slash
+     */
+    public boolean compressesRequestsTo( final String path )
+    {
+        if ( requestPaths.isEmpty() )
+        {
+            return true;
+        }
+
+        for ( final String prefix : requestPaths )
+        {
+            if ( path.startsWith( Strings.CS.removeStart( prefix, "/" ) ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
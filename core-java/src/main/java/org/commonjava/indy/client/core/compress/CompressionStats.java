@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.compress;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte counts of the compressed responses read and request bodies sent by one client, on the wire and uncompressed.
+ */
+public class CompressionStats
+{
+    private final AtomicLong responseWireBytes = new AtomicLong();
+
+    private final AtomicLong responseDecodedBytes = new AtomicLong();
+
+    private final AtomicLong requestRawBytes = new AtomicLong();
+
+    private final AtomicLong requestWireBytes = new AtomicLong();
+
+    void responseRead( final long wireBytes, final long decodedBytes )
+    {
+        responseWireBytes.addAndGet( wireBytes );
+        responseDecodedBytes.addAndGet( decodedBytes );
+    }
+
+    void requestSent( final long rawBytes, final long wireBytes )
+    {
+        requestRawBytes.addAndGet( rawBytes );
+        requestWireBytes.addAndGet( wireBytes );
+    }
+
+    public long getResponseWireBytes()
+    {
+        return responseWireBytes.get();
+    }
+
+    public long getResponseDecodedBytes()
+    {
+        return responseDecodedBytes.get();
+    }
+
+    public long getRequestRawBytes()
+    {
+        return requestRawBytes.get();
+    }
+
+    public long getRequestWireBytes()
+    {
+        return requestWireBytes.get();
+    }
+}
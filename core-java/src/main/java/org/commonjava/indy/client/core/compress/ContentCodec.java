@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * One HTTP content coding, e.g. {@code gzip}. {@link #GZIP} and {@link #DEFLATE} are built in; others, such as zstd
+ * or brotli, can be plugged in through a {@link CompressionPolicy} by implementing this with the library of choice.
+ */
+public interface ContentCodec
+{
+    ContentCodec GZIP = new GzipCodec();
+
+    ContentCodec DEFLATE = new DeflateCodec();
+
+    /**
+     * The token used in {@code Accept-Encoding} and {@code Content-Encoding}.
+     */
+    String getEncoding();
+
+    InputStream decode( InputStream in )
+            throws IOException;
+
+    OutputStream encode( OutputStream out )
+            throws IOException;
+}
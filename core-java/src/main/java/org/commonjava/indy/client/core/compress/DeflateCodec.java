@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.compress;
+
+import org.apache.http.client.entity.DeflateInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes zlib-wrapped deflate, as RFC 9110 specifies; reads both that and the raw deflate some servers send.
+ */
+final class DeflateCodec
+        implements ContentCodec
+{
+    @Override
+    public String getEncoding()
+    {
+        return "deflate";
+    }
+
+    @Override
+    public InputStream decode( final InputStream in )
+            throws IOException
+    {
+        return new DeflateInputStream( in );
+    }
+
+    @Override
+    public OutputStream encode( final OutputStream out )
+    {
+        return new DeflaterOutputStream( out );
+    }
+}
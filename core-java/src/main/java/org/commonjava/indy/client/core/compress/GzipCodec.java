@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+final class GzipCodec
+        implements ContentCodec
+{
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public String getEncoding()
+    {
+        return "gzip";
+    }
+
+    @Override
+    public InputStream decode( final InputStream in )
+            throws IOException
+    {
+        return new GZIPInputStream( in, BUFFER_SIZE );
+    }
+
+    @Override
+    public OutputStream encode( final OutputStream out )
+            throws IOException
+    {
+        return new GZIPOutputStream( out, BUFFER_SIZE );
+    }
+}
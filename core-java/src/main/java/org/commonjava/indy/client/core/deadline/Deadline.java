@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a call must be done, including the wait for a connection, connecting, and reading the
+ * response body. A deadline applies to the calls made on the current thread (and the async calls it starts), so it
+ * covers module methods too:
+ * <pre>
+ * try ( Deadline.Scope scope = Deadline.after( 800, TimeUnit.MILLISECONDS ).apply() )
+ * {
+ *     indy.content().get( key, path );
+ * }
+ * </pre>
+ * Scopes nest; an inner deadline never extends an outer one. See {@link DeadlineHttpClient}.
+ */
+public final class Deadline
+{
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline( final long deadlineNanos )
+    {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after( final long duration, final TimeUnit unit )
+    {
+        return new Deadline( System.nanoTime() + unit.toNanos( duration ) );
+    }
+
+    public long remainingNanos()
+    {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public long remainingMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( remainingNanos() );
+    }
+
+    public boolean isExpired()
+    {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Applies this deadline to calls from the current thread until the returned scope is closed.
+     */
+    public Scope apply()
+    {
+        final Deadline previous = CURRENT.get();
+        CURRENT.set( previous != null && previous.deadlineNanos - deadlineNanos < 0 ? previous : this );
+        return () -> setCurrent( previous );
+    }
+
+    /**
+     * @return the deadline applied to the current thread, or null
+     */
+    public static Deadline current()
+    {
+        return CURRENT.get();
+    }
+
+    public static void setCurrent( final Deadline deadline )
+    {
+        if ( deadline == null )
+        {
+            CURRENT.remove();
+        }
+        else
+        {
+            CURRENT.set( deadline );
+        }
+    }
+
+    /**
+     * Caps a timeout by the time left to the current thread's deadline, if it has one.
+     */
+    public static long cap( final long timeout, final TimeUnit unit )
+    {
+        final Deadline deadline = CURRENT.get();
+        if ( deadline == null )
+        {
+            return timeout;
+        }
+
+        return Math.min( timeout, Math.max( 0, unit.convert( deadline.remainingNanos(), TimeUnit.NANOSECONDS ) ) );
+    }
+
+    public interface Scope
+            extends AutoCloseable
+    {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.deadline;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown when a call's {@link Deadline} passes before it is sent, or while it is waiting for a response.
+ */
+public class DeadlineExceededException
+        extends InterruptedIOException
+{
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException( final String message )
+    {
+        super( message );
+    }
+
+    public DeadlineExceededException( final String message, final Throwable cause )
+    {
+        super( message );
+        initCause( cause );
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.deadline;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.helper.ReleasingHttpResponse;
+import org.commonjava.indy.client.core.helper.RequestConfigs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Enforces the current thread's {@link Deadline}, when it has one, on each call:
+ * <ul>
+ *     <li>the connection lease, connect and socket timeouts are capped by the time left (queues in the client
+ *     layers below cap their waits the same way)</li>
+ *     <li>when the deadline passes, the request is aborted, or if its response has arrived, the response is closed,
+ *     which cuts off a body that is still being read</li>
+ * </ul>
+ * A call that fails once its deadline has passed surfaces as {@link DeadlineExceededException}.
+ */
+public class DeadlineHttpClient
+        extends CloseableHttpClient
+{
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final CloseableHttpClient delegate;
+
+    private final int defaultTimeoutMillis;
+
+    private ScheduledThreadPoolExecutor timer;
+
+    /**
+     * @param defaultTimeoutMillis the site's timeouts, used for requests without a config of their own
+     */
+    public DeadlineHttpClient( final CloseableHttpClient delegate, final int defaultTimeoutMillis )
+    {
+        this.delegate = delegate;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        final Deadline deadline = Deadline.current();
+        if ( deadline == null )
+        {
+            return delegate.execute( target, request, context );
+        }
+
+        final long remainingNanos = deadline.remainingNanos();
+        if ( remainingNanos <= 0 )
+        {
+            throw new DeadlineExceededException( "Deadline passed before sending: " + request.getRequestLine() );
+        }
+
+        if ( request instanceof HttpRequestBase )
+        {
+            capTimeouts( (HttpRequestBase) request, (int) Math.max( 1, deadline.remainingMillis() ) );
+        }
+
+        final AtomicReference<CloseableHttpResponse> received = new AtomicReference<>();
+        final ScheduledFuture<?> expiry =
+                timer().schedule( () -> expire( request, received.get() ), remainingNanos, TimeUnit.NANOSECONDS );
+
+        final CloseableHttpResponse response;
+        try
+        {
+            response = delegate.execute( target, request, context );
+        }
+        catch ( final IOException e )
+        {
+            expiry.cancel( false );
+            if ( deadline.isExpired() )
+            {
+                throw new DeadlineExceededException( "Deadline passed waiting for: " + request.getRequestLine(), e );
+            }
+            throw e;
+        }
+        catch ( final RuntimeException e )
+        {
+            expiry.cancel( false );
+            throw e;
+        }
+
+        received.set( response );
+        if ( expiry.isDone() && !expiry.isCancelled() )
+        {
+            // expired just as the response arrived, before it could be closed
+            closeQuietly( response );
+            throw new DeadlineExceededException( "Deadline passed waiting for: " + request.getRequestLine() );
+        }
+
+        return ReleasingHttpResponse.wrap( response, () -> expiry.cancel( false ) );
+    }
+
+    private void capTimeouts( final HttpRequestBase request, final int remainingMillis )
+    {
+        final RequestConfig.Builder capped = RequestConfigs.configOf( request, defaultTimeoutMillis );
+        final RequestConfig base = capped.build();
+        request.setConfig( capped.setConnectTimeout( cap( base.getConnectTimeout(), remainingMillis ) )
+                                 .setConnectionRequestTimeout(
+                                         cap( base.getConnectionRequestTimeout(), remainingMillis ) )
+                                 .setSocketTimeout( cap( base.getSocketTimeout(), remainingMillis ) )
+                                 .build() );
+    }
+
+    private static int cap( final int timeoutMillis, final int remainingMillis )
+    {
+        return timeoutMillis <= 0 ? remainingMillis : Math.min( timeoutMillis, remainingMillis );
+    }
+
+    private void expire( final HttpRequest request, final CloseableHttpResponse response )
+    {
+        logger.debug( "Deadline passed for: {}; cancelling", request.getRequestLine() );
+        if ( response != null )
+        {
+            closeQuietly( response );
+        }
+        else if ( request instanceof HttpRequestBase )
+        {
+            ( (HttpRequestBase) request ).abort();
+        }
+    }
+
+    private synchronized ScheduledThreadPoolExecutor timer()
+    {
+        if ( timer == null )
+        {
+            timer = new ScheduledThreadPoolExecutor( 1, r -> {
+                Thread t = new Thread( r, "indy-client-deadline" );
+                t.setDaemon( true );
+                return t;
+            } );
+            timer.setRemoveOnCancelPolicy( true );
+        }
+        return timer;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        synchronized ( this )
+        {
+            if ( timer != null )
+            {
+                timer.shutdownNow();
+            }
+        }
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.hedge;
+
+/**
+ * Settings for {@link HedgingHttpClient}.
+ */
+public class HedgePolicy
+{
+    private double percentile = 0.95;
+
+    private long minDelayMillis = 20;
+
+    private int sampleSize = 200;
+
+    private int minSamples = 20;
+
+    private double maxExtraLoad = 0.05;
+
+    private int minHedgesPerSecond = 1;
+
+    /**
+     * A request is hedged once it has taken longer than this percentile of recent content read latencies.
+     */
+    public double getPercentile()
+    {
+        return percentile;
+    }
+
+    public void setPercentile( double percentile )
+    {
+        this.percentile = percentile;
+    }
+
+    /**
+     * Floor for the hedge delay, so a fast and steady server is not sent duplicates on every small hiccup.
+     */
+    public long getMinDelayMillis()
+    {
+        return minDelayMillis;
+    }
+
+    public void setMinDelayMillis( long minDelayMillis )
+    {
+        this.minDelayMillis = minDelayMillis;
+    }
+
+    /**
+     * How many recent latencies the percentile is taken over.
+     */
+    public int getSampleSize()
+    {
+        return sampleSize;
+    }
+
+    public void setSampleSize( int sampleSize )
+    {
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Nothing is hedged until this many latencies have been seen.
+     */
+    public int getMinSamples()
+    {
+        return minSamples;
+    }
+
+    public void setMinSamples( int minSamples )
+    {
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Cap on hedges as a fraction of eligible requests, on top of {@link #getMinHedgesPerSecond()}.
+     */
+    public double getMaxExtraLoad()
+    {
+        return maxExtraLoad;
+    }
+
+    public void setMaxExtraLoad( double maxExtraLoad )
+    {
+        this.maxExtraLoad = maxExtraLoad;
+    }
+
+    public int getMinHedgesPerSecond()
+    {
+        return minHedgesPerSecond;
+    }
+
+    public void setMinHedgesPerSecond( int minHedgesPerSecond )
+    {
+        this.minHedgesPerSecond = minHedgesPerSecond;
+    }
+}
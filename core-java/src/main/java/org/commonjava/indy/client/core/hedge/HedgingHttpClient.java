@@ -0,0 +1,369 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.hedge;
+
+import org.apache.commons.lang3.Strings;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.deadline.Deadline;
+import org.commonjava.indy.client.core.deadline.DeadlineExceededException;
+import org.commonjava.indy.client.core.o11y.metric.ClientMetricConstants;
+import org.commonjava.indy.client.core.o11y.metric.ClientTrafficClassifier;
+import org.commonjava.indy.client.core.util.BlockingExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Hedges content reads (GET and HEAD of {@code content/} and {@code folo/track/} paths): when no response has
+ * arrived after the {@link RequestHedger#getDelayNanos() hedge delay}, a copy of the request is sent, the first
+ * successful response is returned and the other request is aborted. Both run on the client's blocking executor, so
+ * the caller can give up on the slow one. Other requests pass straight through.
+ */
+public class HedgingHttpClient
+        extends CloseableHttpClient
+{
+    public static final String HEDGED = "hedged";
+
+    public static final String HEDGE_WON = "hedge_won";
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final CloseableHttpClient delegate;
+
+    private final RequestHedger hedger;
+
+    private final Supplier<ExecutorService> executor;
+
+    private final ClientTrafficClassifier classifier = new ClientTrafficClassifier();
+
+    private final String basePath;
+
+    public HedgingHttpClient( final CloseableHttpClient delegate, final String baseUrl, final RequestHedger hedger,
+                              final Supplier<ExecutorService> executor )
+    {
+        this.delegate = delegate;
+        this.hedger = hedger;
+        this.executor = executor;
+        this.basePath = Strings.CS.removeEnd( URI.create( baseUrl ).getPath(), "/" );
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        if ( !isHedgeable( request ) )
+        {
+            return delegate.execute( target, request, context );
+        }
+
+        hedger.requestStarted();
+        final long delayNanos = hedger.getDelayNanos();
+        if ( delayNanos < 0 )
+        {
+            return executeTimed( target, request, context );
+        }
+
+        // both attempts run on copies, so aborting the loser leaves the caller's request usable (e.g. for a retry)
+        final HttpRequestBase primaryRequest = copy( request );
+        final HttpRequestBase hedgeRequest = copy( request );
+        if ( primaryRequest == null || hedgeRequest == null )
+        {
+            return delegate.execute( target, request, context );
+        }
+
+        final Race race = new Race();
+        try
+        {
+            final CompletableFuture<CloseableHttpResponse> primary =
+                    submit( target, primaryRequest, context, race );
+            if ( primary == null )
+            {
+                logger.debug( "Executor is saturated; sending {} without a hedge", request.getRequestLine() );
+                return executeTimed( target, request, context );
+            }
+
+            try
+            {
+                return unwrap( primary, delayNanos );
+            }
+            catch ( final TimeoutException e )
+            {
+                // slow response, hedge below
+            }
+
+            if ( !hedger.tryHedge() )
+            {
+                return unwrap( primary );
+            }
+
+            final HttpContext hedgeContext = context == null ? null : new BasicHttpContext( context );
+            final CompletableFuture<CloseableHttpResponse> hedge =
+                    submit( target, hedgeRequest, hedgeContext, race );
+            if ( hedge == null )
+            {
+                logger.debug( "Executor is saturated; not hedging {}", request.getRequestLine() );
+                return unwrap( primary );
+            }
+
+            logger.debug( "No response to {} after {}ms; sent hedge request", request.getRequestLine(),
+                          TimeUnit.NANOSECONDS.toMillis( delayNanos ) );
+            addFieldToCurrentSpan( HEDGED, true );
+
+            final CloseableHttpResponse response = unwrap( race.winner );
+            final boolean hedgeWon = hedge.isDone() && !hedge.isCompletedExceptionally() && hedge.join() == response;
+            addFieldToCurrentSpan( HEDGE_WON, hedgeWon );
+            if ( hedgeWon )
+            {
+                hedger.hedgeWon();
+                primaryRequest.abort();
+            }
+            else
+            {
+                hedgeRequest.abort();
+            }
+            return response;
+        }
+        catch ( final InterruptedIOException e )
+        {
+            race.abandon();
+            primaryRequest.abort();
+            hedgeRequest.abort();
+            throw e;
+        }
+    }
+
+    private CloseableHttpResponse executeTimed( final HttpHost target, final HttpRequest request,
+                                                final HttpContext context )
+            throws IOException
+    {
+        final long start = System.nanoTime();
+        final CloseableHttpResponse response = delegate.execute( target, request, context );
+        hedger.recordLatency( System.nanoTime() - start );
+        return response;
+    }
+
+    private HttpRequestBase copy( final HttpRequest request )
+    {
+        try
+        {
+            return (HttpRequestBase) ( (HttpRequestBase) request ).clone();
+        }
+        catch ( final CloneNotSupportedException e )
+        {
+            return null;
+        }
+    }
+
+    private boolean isHedgeable( final HttpRequest request )
+    {
+        if ( !( request instanceof HttpRequestBase ) )
+        {
+            return false;
+        }
+
+        final String method = request.getRequestLine().getMethod();
+        if ( !"GET".equals( method ) && !"HEAD".equals( method ) )
+        {
+            return false;
+        }
+
+        final List<String> functions = classifier.calculateClassifiers( (HttpUriRequest) request, basePath );
+        return functions.contains( ClientMetricConstants.CLIENT_CONTENT ) || functions.contains(
+                ClientMetricConstants.CLIENT_FOLO_CONTENT );
+    }
+
+    /**
+     * @return the pending attempt, or null when the executor turned the task down and the attempt was not sent
+     */
+    private CompletableFuture<CloseableHttpResponse> submit( final HttpHost target, final HttpRequestBase request,
+                                                              final HttpContext context, final Race race )
+    {
+        final CompletableFuture<CloseableHttpResponse> result = new CompletableFuture<>();
+        race.entered();
+
+        final Runnable task = () -> {
+            final long start = System.nanoTime();
+            try
+            {
+                final CloseableHttpResponse response = delegate.execute( target, request, context );
+                hedger.recordLatency( System.nanoTime() - start );
+                result.complete( response );
+            }
+            catch ( final IOException | RuntimeException e )
+            {
+                result.completeExceptionally( e );
+            }
+        };
+
+        try
+        {
+            executor.get().submit( BlockingExecutors.withCallerContext( () -> {
+                task.run();
+                return null;
+            } ) );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            race.withdrawn();
+            return null;
+        }
+
+        result.whenComplete( race::finished );
+        return result;
+    }
+
+    private CloseableHttpResponse unwrap( final CompletableFuture<CloseableHttpResponse> future )
+            throws IOException
+    {
+        try
+        {
+            return unwrap( future, Deadline.cap( Long.MAX_VALUE, TimeUnit.NANOSECONDS ) );
+        }
+        catch ( final TimeoutException e )
+        {
+            throw new DeadlineExceededException( "Deadline passed waiting for a response", e );
+        }
+    }
+
+    private CloseableHttpResponse unwrap( final CompletableFuture<CloseableHttpResponse> future,
+                                          final long timeoutNanos )
+            throws IOException, TimeoutException
+    {
+        try
+        {
+            return timeoutNanos == Long.MAX_VALUE ? future.get() : future.get( timeoutNanos, TimeUnit.NANOSECONDS );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for a response" );
+        }
+        catch ( final ExecutionException e )
+        {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException( cause );
+        }
+    }
+
+    /**
+     * Settles on the first successful response; a response arriving after that is closed. If every request fails,
+     * the first failure wins.
+     */
+    private static final class Race
+    {
+        private final CompletableFuture<CloseableHttpResponse> winner = new CompletableFuture<>();
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private volatile Throwable firstFailure;
+
+        void entered()
+        {
+            running.incrementAndGet();
+        }
+
+        void finished( final CloseableHttpResponse response, final Throwable error )
+        {
+            if ( response != null )
+            {
+                if ( !winner.complete( response ) )
+                {
+                    closeQuietly( response );
+                }
+            }
+            else if ( firstFailure == null )
+            {
+                firstFailure = error;
+            }
+
+            withdrawn();
+        }
+
+        /**
+         * Leaves the race without a result, for an attempt that was never sent.
+         */
+        void withdrawn()
+        {
+            if ( running.decrementAndGet() == 0 && firstFailure != null )
+            {
+                winner.completeExceptionally( firstFailure );
+            }
+        }
+
+        /**
+         * Closes the winning response, whether it has already arrived or not.
+         */
+        void abandon()
+        {
+            winner.cancel( false );
+            winner.thenAccept( response -> closeQuietly( response ) );
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.hedge;
+
+import org.commonjava.indy.client.core.retry.RetryBudget;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedging state shared by all requests of a client: recent latencies the hedge delay is derived from, the budget
+ * capping extra load, and hedge / win counters.
+ */
+public class RequestHedger
+{
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final HedgePolicy policy;
+
+    private final RetryBudget budget;
+
+    private final long minDelayNanos;
+
+    private final long[] latencies;
+
+    private final AtomicLong hedges = new AtomicLong();
+
+    private final AtomicLong wins = new AtomicLong();
+
+    private int next;
+
+    private int count;
+
+    private int sinceRecompute;
+
+    private volatile long delayNanos = -1;
+
+    public RequestHedger( final HedgePolicy policy )
+    {
+        if ( policy.getSampleSize() < 1 )
+        {
+            throw new IllegalArgumentException( "Hedge sample size must be positive: " + policy.getSampleSize() );
+        }
+
+        this.policy = policy;
+        this.budget = new RetryBudget( policy.getMaxExtraLoad(), policy.getMinHedgesPerSecond() );
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos( policy.getMinDelayMillis() );
+        this.latencies = new long[policy.getSampleSize()];
+    }
+
+    /**
+     * @return how long to wait before hedging, or -1 while there are too few samples to tell
+     */
+    public long getDelayNanos()
+    {
+        return delayNanos;
+    }
+
+    public synchronized void recordLatency( final long latencyNanos )
+    {
+        latencies[next] = latencyNanos;
+        next = ( next + 1 ) % latencies.length;
+        count = Math.min( count + 1, latencies.length );
+
+        if ( count >= Math.max( 1, policy.getMinSamples() ) && ( ++sinceRecompute >= RECOMPUTE_EVERY
+                || delayNanos < 0 ) )
+        {
+            sinceRecompute = 0;
+            final long[] sorted = Arrays.copyOf( latencies, count );
+            Arrays.sort( sorted );
+            final int index = (int) Math.min( count - 1, Math.ceil( policy.getPercentile() * count ) - 1 );
+            delayNanos = Math.max( minDelayNanos, sorted[Math.max( 0, index )] );
+        }
+    }
+
+    /**
+     * Counts an eligible request towards the hedge budget.
+     */
+    public void requestStarted()
+    {
+        budget.deposit();
+    }
+
+    public boolean tryHedge()
+    {
+        if ( !budget.tryWithdraw() )
+        {
+            return false;
+        }
+
+        hedges.incrementAndGet();
+        return true;
+    }
+
+    public void hedgeWon()
+    {
+        wins.incrementAndGet();
+    }
+
+    public long getHedges()
+    {
+        return hedges.get();
+    }
+
+    public long getHedgeWins()
+    {
+        return wins.get();
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limit on the connections one client may have leased at a time, adjusted between {@code min} and {@code max} once
+ * per sampling window:
+ * <ul>
+ *     <li>callers waited for a lease while latency stayed near its baseline: grow by a quarter</li>
+ *     <li>latency rose well above its baseline: shrink by a quarter, more connections won't help a busy server</li>
+ *     <li>less than half the limit was in use: shrink halfway towards the peak, and call the shrink listener so idle
+ *     sockets can be closed</li>
+ * </ul>
+ * The limit starts at {@code max}, matching a fixed pool, and only moves while requests complete; an idle client
+ * keeps its last limit.
+ * <br/>
+ * This is a gate in front of the pool, not a resize of it: the pool manager is created and owned by jHTTPc and is not
+ * reachable to call {@code setMaxTotal} or {@code setDefaultMaxPerRoute} on. The pool stays at its static
+ * {@link org.commonjava.util.jhttpc.model.SiteConfig#getMaxConnections() maximum}, and requests over the limit wait
+ * here instead of in the pool. Only the shrink listener reaches the pool, to close connections left idle.
+ */
+public class AdaptiveConnectionLimit
+{
+    public static final long DEFAULT_WINDOW_MILLIS = 1000;
+
+    static final long WAIT_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos( 5 );
+
+    static final double LATENCY_TOLERANCE = 2.0;
+
+    private static final double BASELINE_DECAY = 0.05;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition available = lock.newCondition();
+
+    private final int min;
+
+    private final int max;
+
+    private final long windowNanos;
+
+    private volatile int limit;
+
+    private volatile int inFlight;
+
+    private volatile Runnable shrinkListener;
+
+    private long windowStart = System.nanoTime();
+
+    private int samples;
+
+    private long waitNanosTotal;
+
+    private long latencyNanosTotal;
+
+    private int peakInFlight;
+
+    private double baselineLatencyNanos = -1;
+
+    public AdaptiveConnectionLimit( final int min, final int max )
+    {
+        this( min, max, DEFAULT_WINDOW_MILLIS );
+    }
+
+    public AdaptiveConnectionLimit( final int min, final int max, final long windowMillis )
+    {
+        if ( min < 1 || max < min )
+        {
+            throw new IllegalArgumentException( "Invalid connection limit bounds: " + min + ".." + max );
+        }
+
+        this.min = min;
+        this.max = max;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos( windowMillis );
+        this.limit = max;
+    }
+
+    /**
+     * Called (outside any lock) whenever the limit shrinks.
+     */
+    public void setShrinkListener( final Runnable shrinkListener )
+    {
+        this.shrinkListener = shrinkListener;
+    }
+
+    /**
+     * Blocks until a connection may be leased under the current limit.
+     *
+     * @return nanoseconds spent waiting, to be passed back to {@link #release(long, long)}
+     */
+    public long acquire( final long timeoutNanos )
+            throws InterruptedException, ConnectionPoolTimeoutException
+    {
+        final long start = System.nanoTime();
+        lock.lock();
+        try
+        {
+            long remaining = timeoutNanos;
+            while ( inFlight >= limit )
+            {
+                if ( remaining <= 0 )
+                {
+                    throw new ConnectionPoolTimeoutException(
+                            "Timeout waiting for connection, limit: " + limit + ", in flight: " + inFlight );
+                }
+                remaining = available.awaitNanos( remaining );
+            }
+
+            inFlight++;
+            peakInFlight = Math.max( peakInFlight, inFlight );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    public void release( final long waitNanos, final long latencyNanos )
+    {
+        lock.lock();
+        try
+        {
+            inFlight--;
+            available.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        record( waitNanos, latencyNanos, System.nanoTime() );
+    }
+
+    void record( final long waitNanos, final long latencyNanos, final long now )
+    {
+        boolean shrunk = false;
+        lock.lock();
+        try
+        {
+            samples++;
+            waitNanosTotal += waitNanos;
+            latencyNanosTotal += latencyNanos;
+
+            if ( now - windowStart < windowNanos )
+            {
+                return;
+            }
+
+            final int old = limit;
+            final int next = nextLimit( waitNanosTotal / samples, (double) latencyNanosTotal / samples );
+            if ( next != old )
+            {
+                logger.debug( "Adjusting connection limit: {} -> {} (peak in flight: {})", old, next, peakInFlight );
+                limit = next;
+                if ( next > old )
+                {
+                    available.signalAll();
+                }
+                shrunk = next < old;
+            }
+
+            windowStart = now;
+            samples = 0;
+            waitNanosTotal = 0;
+            latencyNanosTotal = 0;
+            peakInFlight = inFlight;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        final Runnable listener = shrinkListener;
+        if ( shrunk && listener != null )
+        {
+            listener.run();
+        }
+    }
+
+    private int nextLimit( final long avgWaitNanos, final double avgLatencyNanos )
+    {
+        if ( baselineLatencyNanos < 0 || avgLatencyNanos < baselineLatencyNanos )
+        {
+            baselineLatencyNanos = avgLatencyNanos;
+        }
+        else
+        {
+            baselineLatencyNanos += ( avgLatencyNanos - baselineLatencyNanos ) * BASELINE_DECAY;
+        }
+
+        final boolean latencyRising = avgLatencyNanos > baselineLatencyNanos * LATENCY_TOLERANCE;
+        final int step = Math.max( 1, limit / 4 );
+
+        if ( latencyRising )
+        {
+            return Math.max( min, limit - step );
+        }
+        if ( avgWaitNanos > WAIT_THRESHOLD_NANOS )
+        {
+            return Math.min( max, limit + step );
+        }
+        if ( peakInFlight <= limit / 2 )
+        {
+            return Math.max( min, limit - Math.max( 1, ( limit - peakInFlight ) / 2 ) );
+        }
+
+        return limit;
+    }
+
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    public int getInFlight()
+    {
+        return inFlight;
+    }
+
+    public int getMin()
+    {
+        return min;
+    }
+
+    public int getMax()
+    {
+        return max;
+    }
+}
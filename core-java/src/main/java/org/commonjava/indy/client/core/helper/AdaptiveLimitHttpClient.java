@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.deadline.Deadline;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Holds each request to an {@link AdaptiveConnectionLimit} lease. Like the pooled connection underneath, the lease is
+ * returned once the response body has been read or closed, or the response itself is closed. The pool itself keeps
+ * its configured size; the limit only decides how much of it is used.
+ */
+public class AdaptiveLimitHttpClient
+        extends CloseableHttpClient
+{
+    public static final String CONNECTION_LIMIT = "connection_limit";
+
+    public static final String CONNECTIONS_IN_FLIGHT = "connections_in_flight";
+
+    public static final String CONNECTION_WAIT_MS = "connection_wait_ms";
+
+    private final CloseableHttpClient delegate;
+
+    private final AdaptiveConnectionLimit limit;
+
+    private final long leaseTimeoutNanos;
+
+    public AdaptiveLimitHttpClient( final CloseableHttpClient delegate, final AdaptiveConnectionLimit limit,
+                                    final long leaseTimeoutMillis )
+    {
+        this.delegate = delegate;
+        this.limit = limit;
+        this.leaseTimeoutNanos = TimeUnit.MILLISECONDS.toNanos( leaseTimeoutMillis );
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        final long waitNanos;
+        try
+        {
+            waitNanos = limit.acquire( Deadline.cap( leaseTimeoutNanos, TimeUnit.NANOSECONDS ) );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for a connection" );
+        }
+
+        addFieldToCurrentSpan( CONNECTION_LIMIT, limit.getLimit() );
+        addFieldToCurrentSpan( CONNECTIONS_IN_FLIGHT, limit.getInFlight() );
+        addFieldToCurrentSpan( CONNECTION_WAIT_MS, TimeUnit.NANOSECONDS.toMillis( waitNanos ) );
+
+        final long start = System.nanoTime();
+        final CloseableHttpResponse response;
+        try
+        {
+            response = delegate.execute( target, request, context );
+        }
+        catch ( final IOException | RuntimeException e )
+        {
+            limit.release( waitNanos, System.nanoTime() - start );
+            throw e;
+        }
+
+        final long latencyNanos = System.nanoTime() - start;
+        return ReleasingHttpResponse.wrap( response, () -> limit.release( waitNanos, latencyNanos ) );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+
+/**
+ * Binary encodings of the Jackson data model that can be negotiated in place of JSON text. The Jackson dataformat
+ * module for each one is not a dependency of the client; an application that wants one adds it alongside.
+ */
+public enum BinaryJsonFormat
+{
+    SMILE( "application/x-jackson-smile", "com.fasterxml.jackson.dataformat.smile.SmileFactory" ),
+    CBOR( "application/cbor", "com.fasterxml.jackson.dataformat.cbor.CBORFactory" );
+
+    private final String mediaType;
+
+    private final String factoryClass;
+
+    BinaryJsonFormat( final String mediaType, final String factoryClass )
+    {
+        this.mediaType = mediaType;
+        this.factoryClass = factoryClass;
+    }
+
+    public String getMediaType()
+    {
+        return mediaType;
+    }
+
+    /**
+     * The value for {@code Accept} on JSON calls: this format first, with JSON for servers that can't produce it.
+     */
+    public String getAcceptHeader()
+    {
+        return mediaType + ", application/json;q=0.9";
+    }
+
+    public boolean matches( final String contentType )
+    {
+        return contentType != null && mediaType.equalsIgnoreCase( contentType.split( ";", 2 )[0].trim() );
+    }
+
+    /**
+     * @return a parser factory for this format, or empty if its dataformat module is not on the classpath
+     */
+    public Optional<JsonFactory> createFactory()
+    {
+        final Logger logger = LoggerFactory.getLogger( getClass() );
+        try
+        {
+            final Class<?> type = Class.forName( factoryClass, true, BinaryJsonFormat.class.getClassLoader() );
+            return Optional.of( (JsonFactory) type.getDeclaredConstructor().newInstance() );
+        }
+        catch ( final ClassNotFoundException | LinkageError e )
+        {
+            logger.trace( "{} parser factory {} not available: {}", this, factoryClass, e.toString() );
+        }
+        catch ( final ReflectiveOperationException | ClassCastException e )
+        {
+            logger.warn( "Cannot create {} parser factory {}: {}", this, factoryClass, e.toString() );
+        }
+        return Optional.empty();
+    }
+}
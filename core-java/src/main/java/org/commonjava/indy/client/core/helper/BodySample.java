@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Keeps the first {@code limit} bytes written to it and counts the rest, for logging a body that is being read
+ * elsewhere (e.g. through a {@link org.apache.commons.io.input.TeeInputStream}).
+ */
+public final class BodySample
+        extends OutputStream
+{
+    private final int limit;
+
+    private final ByteArrayOutputStream head;
+
+    private long total;
+
+    public BodySample( final int limit )
+    {
+        this.limit = limit;
+        this.head = new ByteArrayOutputStream( Math.min( limit, 8192 ) );
+    }
+
+    @Override
+    public void write( final int b )
+    {
+        if ( total++ < limit )
+        {
+            head.write( b );
+        }
+    }
+
+    @Override
+    public void write( final byte[] b, final int off, final int len )
+    {
+        final int kept = (int) Math.max( 0, Math.min( len, limit - total ) );
+        head.write( b, off, kept );
+        total += len;
+    }
+
+    public long getTotal()
+    {
+        return total;
+    }
+
+    public String toString( final Charset charset )
+    {
+        final String text = new String( head.toByteArray(), charset );
+        return total > limit ? text + "... (" + ( total - limit ) + " more bytes)" : text;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool controls of a client that spreads requests over several underlying clients, each with its own pool. Only
+ * the housekeeping calls are supported; they are applied to every pool.
+ */
+@SuppressWarnings( "deprecation" )
+public final class CompositeConnectionManager
+        implements ClientConnectionManager
+{
+    private final Collection<CloseableHttpClient> clients;
+
+    public CompositeConnectionManager( final Collection<CloseableHttpClient> clients )
+    {
+        this.clients = clients;
+    }
+
+    @Override
+    public void closeIdleConnections( final long idletime, final TimeUnit unit )
+    {
+        clients.forEach( c -> c.getConnectionManager().closeIdleConnections( idletime, unit ) );
+    }
+
+    @Override
+    public void closeExpiredConnections()
+    {
+        clients.forEach( c -> c.getConnectionManager().closeExpiredConnections() );
+    }
+
+    @Override
+    public void shutdown()
+    {
+        clients.forEach( c -> c.getConnectionManager().shutdown() );
+    }
+
+    @Override
+    public SchemeRegistry getSchemeRegistry()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ClientConnectionRequest requestConnection( final HttpRoute route, final Object state )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void releaseConnection( final ManagedClientConnection conn, final long validDuration,
+                                   final TimeUnit timeUnit )
+    {
+        throw new UnsupportedOperationException();
+    }
+}
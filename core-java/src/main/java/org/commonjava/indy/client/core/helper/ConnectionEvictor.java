@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Daemon that closes pooled connections once they have been idle for {@code idleMillis}, or have been open for more
+ * than {@code ttlMillis} (when positive), along with any the server's keep-alive has expired.
+ * <br/>
+ * The pool itself belongs to jHTTPc and takes no connection TTL, so every connection is closed through the pool, which
+ * only ever closes connections that are not leased. A connection past its TTL is closed by closing the pool's idle
+ * connections that have been idle at least as long as it has; connections released before it go along with it.
+ * <br/>
+ * For the same reason the pool can't validate connections after inactivity itself; {@link #needsValidation()} tells
+ * {@link EvictingHttpClient} when to have the lease check its connection instead. Eviction counts are the tracked
+ * connections found closed after each sweep.
+ */
+public class ConnectionEvictor
+        implements Closeable
+{
+    private static final long MIN_SWEEP_MILLIS = 1000;
+
+    /**
+     * Quiet time after which the next lease checks its connection, as the pool's {@code validateAfterInactivity}
+     * would.
+     */
+    static final long VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final long idleMillis;
+
+    private final long ttlMillis;
+
+    private final Supplier<ClientConnectionManager> connectionManager;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Tracked> connections = new ConcurrentHashMap<>();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong staleFailures = new AtomicLong();
+
+    private volatile long lastActivity = System.currentTimeMillis();
+
+    public ConnectionEvictor( final long idleMillis, final long ttlMillis,
+                              final Supplier<ClientConnectionManager> connectionManager )
+    {
+        if ( idleMillis <= 0 )
+        {
+            throw new IllegalArgumentException( "Idle connection threshold must be positive: " + idleMillis );
+        }
+
+        this.idleMillis = idleMillis;
+        this.ttlMillis = ttlMillis;
+        this.connectionManager = connectionManager;
+
+        final long shortest = ttlMillis > 0 ? Math.min( idleMillis, ttlMillis ) : idleMillis;
+        final long sweep = Math.max( MIN_SWEEP_MILLIS, shortest / 2 );
+        this.scheduler = Executors.newSingleThreadScheduledExecutor( r -> {
+            Thread t = new Thread( r, "indy-client-evictor" );
+            t.setDaemon( true );
+            return t;
+        } );
+        this.scheduler.scheduleWithFixedDelay( this::evict, sweep, sweep, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Sweeps first if nothing has been sent for longer than the idle threshold, so connections past it are gone before
+     * the lease. This does not validate the connection the lease gets; see {@link #needsValidation()}.
+     */
+    public void beforeLease()
+    {
+        if ( System.currentTimeMillis() - lastActivity > idleMillis )
+        {
+            evict();
+        }
+    }
+
+    /**
+     * Whether the pool has been quiet for longer than {@link #VALIDATE_AFTER_INACTIVITY_MILLIS}. The pool hands out
+     * its most recently released connection first, so after a quiet spell that one has been idle at least as long,
+     * and the next lease should check it is still usable before sending on it.
+     */
+    public boolean needsValidation()
+    {
+        return System.currentTimeMillis() - lastActivity > VALIDATE_AFTER_INACTIVITY_MILLIS;
+    }
+
+    /**
+     * Records that a call holds this connection until {@link #connectionReleased(String)}. The first time a
+     * connection is seen its TTL starts.
+     */
+    public void connectionLeased( final String connectionId, final Socket socket )
+    {
+        final long now = System.currentTimeMillis();
+        lastActivity = now;
+        if ( connectionId != null && socket != null )
+        {
+            connections.computeIfAbsent( connectionId, id -> new Tracked( now, socket ) ).leased = true;
+        }
+    }
+
+    public void connectionReleased( final String connectionId )
+    {
+        final long now = System.currentTimeMillis();
+        lastActivity = now;
+        final Tracked tracked = connectionId == null ? null : connections.get( connectionId );
+        if ( tracked != null )
+        {
+            tracked.releasedAt = now;
+            tracked.leased = false;
+        }
+    }
+
+    /**
+     * Records a request that failed on a reused connection the server had already closed, and drops every idle
+     * connection, since those were most likely closed along with it.
+     */
+    public void staleConnectionFailed()
+    {
+        staleFailures.incrementAndGet();
+        final ClientConnectionManager cm = connectionManager.get();
+        if ( cm != null )
+        {
+            cm.closeIdleConnections( 0, TimeUnit.MILLISECONDS );
+        }
+        evictions.addAndGet( untrackClosed() );
+    }
+
+    public void evict()
+    {
+        try
+        {
+            final ClientConnectionManager cm = connectionManager.get();
+            if ( cm != null )
+            {
+                cm.closeExpiredConnections();
+                cm.closeIdleConnections( idleMillis, TimeUnit.MILLISECONDS );
+                if ( ttlMillis > 0 )
+                {
+                    closeExpired( cm );
+                }
+            }
+
+            final int evicted = untrackClosed();
+            if ( evicted > 0 )
+            {
+                evictions.addAndGet( evicted );
+                logger.debug( "Evicted {} idle or expired connections", evicted );
+            }
+        }
+        catch ( final RuntimeException e )
+        {
+            logger.warn( "Connection eviction failed: {}", e.getMessage(), e );
+        }
+    }
+
+    /**
+     * The pool marks a connection idle from its release, before this evictor hears of it, so an idle time measured
+     * from {@link #connectionReleased(String)} is never longer than the pool's. A connection leased again since then
+     * is not idle in the pool and stays open; it is closed by a later sweep.
+     */
+    private void closeExpired( final ClientConnectionManager cm )
+    {
+        final long now = System.currentTimeMillis();
+        connections.values()
+                   .stream()
+                   .filter( tracked -> !tracked.leased && now - tracked.opened >= ttlMillis )
+                   .mapToLong( tracked -> now - tracked.releasedAt )
+                   .min()
+                   .ifPresent( idle -> cm.closeIdleConnections( Math.max( 0, idle ), TimeUnit.MILLISECONDS ) );
+    }
+
+    private int untrackClosed()
+    {
+        final int before = connections.size();
+        connections.values().removeIf( tracked -> tracked.socket.isClosed() );
+        return before - connections.size();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    public long getStaleFailures()
+    {
+        return staleFailures.get();
+    }
+
+    @Override
+    public void close()
+    {
+        scheduler.shutdownNow();
+        connections.clear();
+    }
+
+    private static final class Tracked
+    {
+        private final long opened;
+
+        private final Socket socket;
+
+        private volatile boolean leased;
+
+        private volatile long releasedAt;
+
+        private Tracked( final long opened, final Socket socket )
+        {
+            this.opened = opened;
+            this.socket = socket;
+            this.releasedAt = opened;
+        }
+    }
+}
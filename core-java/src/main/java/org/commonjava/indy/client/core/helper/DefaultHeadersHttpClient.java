@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Adds the client's default headers to each request that doesn't set them itself. The collection is read on every
+ * request, so headers added later apply without building a new client.
+ */
+public class DefaultHeadersHttpClient
+        extends CloseableHttpClient
+{
+    private final CloseableHttpClient delegate;
+
+    private final Collection<Header> headers;
+
+    public DefaultHeadersHttpClient( final CloseableHttpClient delegate, final Collection<Header> headers )
+    {
+        this.delegate = delegate;
+        this.headers = headers;
+    }
+
+    public static void addDefaultHeaders( final HttpRequest request, final Collection<Header> headers )
+    {
+        for ( final Header header : headers )
+        {
+            if ( !request.containsHeader( header.getName() ) )
+            {
+                request.addHeader( header );
+            }
+        }
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        addDefaultHeaders( request, headers );
+        return delegate.execute( target, request, context );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
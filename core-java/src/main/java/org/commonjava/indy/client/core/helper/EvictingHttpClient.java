@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Reports each connection's lease and release to a {@link ConnectionEvictor}, adds its eviction and stale failure
+ * counts to the span, and replays an idempotent request once on a fresh connection when it fails because the pooled
+ * one had gone stale. After a quiet spell the request's lease checks its connection before sending on it (the
+ * request config's stale connection check, which is what the pool's {@code validateAfterInactivity} does).
+ */
+public class EvictingHttpClient
+        extends CloseableHttpClient
+{
+    public static final String STALE_CONNECTION_FAILURES = "stale_connection_failures";
+
+    public static final String CONNECTION_EVICTIONS = "connection_evictions";
+
+    private static final Set<String> IDEMPOTENT_METHODS =
+            new HashSet<>( Arrays.asList( "GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE" ) );
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final CloseableHttpClient delegate;
+
+    private final ConnectionEvictor evictor;
+
+    private final int defaultTimeoutMillis;
+
+    /**
+     * @param defaultTimeoutMillis the site's timeouts, used for requests without a config of their own
+     */
+    public EvictingHttpClient( final CloseableHttpClient delegate, final ConnectionEvictor evictor,
+                               final int defaultTimeoutMillis )
+    {
+        this.delegate = delegate;
+        this.evictor = evictor;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        final HttpClientContext ctx = context == null ? HttpClientContext.create() : HttpClientContext.adapt( context );
+
+        evictor.beforeLease();
+
+        final HttpRequestBase validated =
+                request instanceof HttpRequestBase && evictor.needsValidation() ? (HttpRequestBase) request : null;
+        final RequestConfig config = validated == null ? null : validated.getConfig();
+        if ( validated != null )
+        {
+            validated.setConfig( withStaleCheck( RequestConfigs.configOf( validated, defaultTimeoutMillis ) ) );
+        }
+
+        CloseableHttpResponse response;
+        try
+        {
+            response = delegate.execute( target, request, ctx );
+        }
+        catch ( final NoHttpResponseException | SocketException e )
+        {
+            if ( e instanceof ConnectException )
+            {
+                throw e;
+            }
+
+            evictor.staleConnectionFailed();
+            if ( !isReplayable( request ) )
+            {
+                throw e;
+            }
+
+            logger.debug( "Retrying {} on a new connection after stale connection failure: {}",
+                          request.getRequestLine(), e.getMessage() );
+            response = delegate.execute( target, request, ctx );
+        }
+        finally
+        {
+            if ( validated != null )
+            {
+                // the lease has read it by now; callers above may resend the same request
+                validated.setConfig( config );
+            }
+        }
+
+        addFieldToCurrentSpan( CONNECTION_EVICTIONS, evictor.getEvictions() );
+        addFieldToCurrentSpan( STALE_CONNECTION_FAILURES, evictor.getStaleFailures() );
+
+        final ManagedHttpClientConnection conn = connection( ctx );
+        final String id = conn == null ? null : conn.getId();
+        evictor.connectionLeased( id, conn == null ? null : conn.getSocket() );
+        return id == null ? response : ReleasingHttpResponse.wrap( response, () -> evictor.connectionReleased( id ) );
+    }
+
+    @SuppressWarnings( "deprecation" )
+    private static RequestConfig withStaleCheck( final RequestConfig.Builder config )
+    {
+        return config.setStaleConnectionCheckEnabled( true ).build();
+    }
+
+    private boolean isReplayable( final HttpRequest request )
+    {
+        if ( !IDEMPOTENT_METHODS.contains( request.getRequestLine().getMethod() ) )
+        {
+            return false;
+        }
+
+        if ( request instanceof HttpEntityEnclosingRequest )
+        {
+            final HttpEntity entity = ( (HttpEntityEnclosingRequest) request ).getEntity();
+            return entity == null || entity.isRepeatable();
+        }
+
+        return true;
+    }
+
+    /**
+     * Connections are handed back to the pool as soon as a response without a body is read, after which they can no
+     * longer be looked up; those are simply not tracked.
+     */
+    private ManagedHttpClientConnection connection( final HttpClientContext context )
+    {
+        try
+        {
+            final ManagedHttpClientConnection conn = context.getConnection( ManagedHttpClientConnection.class );
+            return conn == null || !conn.isOpen() ? null : conn;
+        }
+        catch ( final RuntimeException e )
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
@@ -18,11 +18,13 @@ package org.commonjava.indy.client.core.helper;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.ParseException;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.AbstractExecutionAwareRequest;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.util.EntityUtils;
 import org.commonjava.indy.client.core.o11y.metric.ClientMetrics;
@@ -131,7 +133,7 @@ public class HttpResources
             stream = response.getEntity()
                              .getContent();
 
-            return IOUtils.toString( stream, Charset.defaultCharset() );
+            return IOUtils.toString( stream, responseCharset( response, Charset.defaultCharset() ) );
         }
         finally
         {
@@ -139,6 +141,24 @@ public class HttpResources
         }
     }
 
+    /**
+     * The charset declared by the response's {@code Content-Type}, or {@code defaultCharset} if there is none or it
+     * is not supported.
+     */
+    public static Charset responseCharset( final HttpResponse response, final Charset defaultCharset )
+    {
+        try
+        {
+            final ContentType contentType = ContentType.get( response.getEntity() );
+            final Charset charset = contentType == null ? null : contentType.getCharset();
+            return charset == null ? defaultCharset : charset;
+        }
+        catch ( final ParseException | IllegalArgumentException e )
+        {
+            return defaultCharset;
+        }
+    }
+
     public HttpClient getClient()
     {
         return client;
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds a Jackson module that replaces reflective property access with generated code: Blackbird if
+ * {@code jackson-module-blackbird} is on the classpath, otherwise Afterburner from {@code jackson-module-afterburner}.
+ * Neither is a dependency of the client; an application that wants one adds it alongside.
+ */
+public final class JacksonAccelerator
+{
+    static final List<String> MODULE_CLASSES =
+            Arrays.asList( "com.fasterxml.jackson.module.blackbird.BlackbirdModule",
+                           "com.fasterxml.jackson.module.afterburner.AfterburnerModule" );
+
+    private static final Logger logger = LoggerFactory.getLogger( JacksonAccelerator.class );
+
+    private JacksonAccelerator()
+    {
+    }
+
+    public static Optional<Module> load()
+    {
+        return load( MODULE_CLASSES, JacksonAccelerator.class.getClassLoader() );
+    }
+
+    static Optional<Module> load( final List<String> classNames, final ClassLoader loader )
+    {
+        for ( final String className : classNames )
+        {
+            try
+            {
+                final Class<?> type = Class.forName( className, true, loader );
+                return Optional.of( (Module) type.getDeclaredConstructor().newInstance() );
+            }
+            catch ( final ClassNotFoundException | LinkageError e )
+            {
+                logger.trace( "Jackson accelerator {} not available: {}", className, e.toString() );
+            }
+            catch ( final ReflectiveOperationException | ClassCastException e )
+            {
+                logger.warn( "Cannot create Jackson accelerator {}: {}", className, e.toString() );
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Registers the accelerator on {@code mapper}, before any (de)serializer is cached so all of them use it.
+     *
+     * @return whether an accelerator was found
+     */
+    public static boolean register( final ObjectMapper mapper )
+    {
+        final Optional<Module> module = load();
+        if ( module.isPresent() )
+        {
+            mapper.registerModule( module.get() );
+            logger.debug( "Registered Jackson accelerator {}", module.get().getModuleName() );
+            return true;
+        }
+
+        logger.warn( "JSON acceleration requested, but neither jackson-module-blackbird nor "
+                             + "jackson-module-afterburner is on the classpath; using plain Jackson" );
+        return false;
+    }
+}
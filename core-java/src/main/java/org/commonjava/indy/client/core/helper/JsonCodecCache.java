@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link ObjectReader} per target type and one {@link ObjectWriter} per value class, so a call does not resolve
+ * its type and look up its (de)serializer again. Types are keyed by their {@link Type}, which is equal for every
+ * {@code new TypeReference<StoreListingDTO<Group>>(){}} however many anonymous instances there are.
+ * <br/>
+ * Readers and writers capture the mapper's configuration when they are made, so the cache starts over whenever the
+ * mapper is reconfigured: {@code configure()}, {@code enable()}/{@code disable()} and the other setters replace its
+ * {@link DeserializationConfig} or {@link SerializationConfig}, which are compared by identity, and modules and
+ * mix-ins are compared by count.
+ */
+public final class JsonCodecCache
+{
+    private final ObjectMapper mapper;
+
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private volatile DeserializationConfig deserializationConfig;
+
+    private volatile SerializationConfig serializationConfig;
+
+    private volatile int modules;
+
+    private volatile int mixIns;
+
+    public JsonCodecCache( final ObjectMapper mapper )
+    {
+        this.mapper = mapper;
+        this.deserializationConfig = mapper.getDeserializationConfig();
+        this.serializationConfig = mapper.getSerializationConfig();
+        this.modules = mapper.getRegisteredModuleIds().size();
+        this.mixIns = mapper.mixInCount();
+    }
+
+    public ObjectReader reader( final Type type )
+    {
+        checkConfig();
+        return readers.computeIfAbsent( type, t -> mapper.readerFor( mapper.getTypeFactory().constructType( t ) ) );
+    }
+
+    public ObjectWriter writer( final Class<?> type )
+    {
+        checkConfig();
+        return writers.computeIfAbsent( type, mapper::writerFor );
+    }
+
+    /**
+     * Resolves the types and fetches their deserializers ahead of the first call that needs them.
+     */
+    public void warm( final Iterable<? extends Type> types )
+    {
+        types.forEach( this::reader );
+    }
+
+    private void checkConfig()
+    {
+        final DeserializationConfig deserialization = mapper.getDeserializationConfig();
+        final SerializationConfig serialization = mapper.getSerializationConfig();
+        final int registered = mapper.getRegisteredModuleIds().size();
+        final int mixed = mapper.mixInCount();
+        if ( deserialization != deserializationConfig || serialization != serializationConfig
+                || registered != modules || mixed != mixIns )
+        {
+            readers.clear();
+            writers.clear();
+            deserializationConfig = deserialization;
+            serializationConfig = serialization;
+            modules = registered;
+            mixIns = mixed;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A request body serialized by Jackson straight to UTF-8 bytes, without building it as a String first. Bodies up to
+ * {@code bufferLimit} bytes are serialized once, up front, and sent with a Content-Length. Larger ones are not held at
+ * all: they are serialized again into the connection's output stream each time they are written (so retries still
+ * work), and sent chunked.
+ * <br/>
+ * Transports that read a body through {@link #getContent()} rather than {@link #writeTo(OutputStream)} (the async and
+ * HTTP/2 ones) get the serialized bytes of a large body in one array.
+ */
+public final class JsonEntity
+        extends AbstractHttpEntity
+{
+    public static final int DEFAULT_BUFFER_LIMIT_BYTES = 256 * 1024;
+
+    private final ObjectWriter writer;
+
+    private final Object value;
+
+    private final byte[] buffered;
+
+    private JsonEntity( final ObjectWriter writer, final Object value, final byte[] buffered )
+    {
+        this.writer = writer;
+        this.value = value;
+        this.buffered = buffered;
+        setContentType( ContentType.APPLICATION_JSON.toString() );
+    }
+
+    /**
+     * Serializes up to {@code bufferLimit} bytes of {@code value} right away, so a value that can't be serialized
+     * fails here rather than part way through sending it.
+     */
+    public static JsonEntity of( final ObjectWriter writer, final Object value, final int bufferLimit )
+            throws IOException
+    {
+        final LimitedBuffer buffer = new LimitedBuffer( bufferLimit );
+        try
+        {
+            writer.writeValue( buffer, value );
+        }
+        catch ( final LimitExceeded e )
+        {
+            return new JsonEntity( writer, value, null );
+        }
+
+        return new JsonEntity( writer, value, buffer.toByteArray() );
+    }
+
+    public boolean isBuffered()
+    {
+        return buffered != null;
+    }
+
+    @Override
+    public boolean isRepeatable()
+    {
+        return true;
+    }
+
+    @Override
+    public long getContentLength()
+    {
+        return buffered == null ? -1 : buffered.length;
+    }
+
+    @Override
+    public InputStream getContent()
+            throws IOException
+    {
+        return new ByteArrayInputStream( buffered == null ? writer.writeValueAsBytes( value ) : buffered );
+    }
+
+    @Override
+    public void writeTo( final OutputStream out )
+            throws IOException
+    {
+        if ( buffered != null )
+        {
+            out.write( buffered );
+        }
+        else
+        {
+            writer.writeValue( new NonClosingOutputStream( out ), value );
+        }
+        out.flush();
+    }
+
+    @Override
+    public boolean isStreaming()
+    {
+        return false;
+    }
+
+    private static final class LimitedBuffer
+            extends OutputStream
+    {
+        private final ByteArrayOutputStream bytes;
+
+        private final int limit;
+
+        private LimitedBuffer( final int limit )
+        {
+            this.bytes = new ByteArrayOutputStream( Math.min( limit, 8192 ) );
+            this.limit = limit;
+        }
+
+        @Override
+        public void write( final int b )
+                throws LimitExceeded
+        {
+            checkLimit( 1 );
+            bytes.write( b );
+        }
+
+        @Override
+        public void write( final byte[] b, final int off, final int len )
+                throws LimitExceeded
+        {
+            checkLimit( len );
+            bytes.write( b, off, len );
+        }
+
+        private void checkLimit( final int len )
+                throws LimitExceeded
+        {
+            if ( bytes.size() + len > limit )
+            {
+                throw new LimitExceeded();
+            }
+        }
+
+        private byte[] toByteArray()
+        {
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * An IOException, which Jackson passes through unwrapped, unlike a RuntimeException thrown inside a serializer.
+     */
+    private static final class LimitExceeded
+            extends IOException
+    {
+        private LimitExceeded()
+        {
+            super( "Body exceeds buffer limit" );
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace()
+        {
+            return this;
+        }
+    }
+
+    /**
+     * Jackson closes the target stream when it is done; the connection's stream must stay open for the client.
+     */
+    private static final class NonClosingOutputStream
+            extends OutputStream
+    {
+        private final OutputStream out;
+
+        private NonClosingOutputStream( final OutputStream out )
+        {
+            this.out = out;
+        }
+
+        @Override
+        public void write( final int b )
+                throws IOException
+        {
+            out.write( b );
+        }
+
+        @Override
+        public void write( final byte[] b, final int off, final int len )
+                throws IOException
+        {
+            out.write( b, off, len );
+        }
+
+        @Override
+        public void flush()
+                throws IOException
+        {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Reads the elements of one array field of a JSON object (e.g. the {@code items} of a listing DTO) one at a time, so
+ * only the current element is held in memory. Other fields are skipped; a top-level array is read as it is.
+ * <br/>
+ * The iterator closes itself once the array has been read. Closing it before then calls {@code abandon} first, so
+ * the caller can abort the transfer instead of draining the rest of the body.
+ */
+public final class JsonItemIterator<T>
+        implements Iterator<T>, Closeable
+{
+    private final JsonParser parser;
+
+    private final ObjectReader reader;
+
+    private final Runnable abandon;
+
+    private final Runnable release;
+
+    private boolean exhausted;
+
+    private boolean closed;
+
+    private T next;
+
+    public JsonItemIterator( final JsonParser parser, final ObjectReader reader, final String field,
+                             final Runnable abandon, final Runnable release )
+            throws IOException
+    {
+        this.parser = parser;
+        this.reader = reader;
+        this.abandon = abandon;
+        this.release = release;
+        this.exhausted = !seekArray( field );
+    }
+
+    private boolean seekArray( final String field )
+            throws IOException
+    {
+        JsonToken token = parser.nextToken();
+        if ( token == JsonToken.START_ARRAY )
+        {
+            return true;
+        }
+        if ( token != JsonToken.START_OBJECT )
+        {
+            return false;
+        }
+
+        while ( parser.nextToken() == JsonToken.FIELD_NAME )
+        {
+            final String name = parser.currentName();
+            token = parser.nextToken();
+            if ( field.equals( name ) && token == JsonToken.START_ARRAY )
+            {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( next != null )
+        {
+            return true;
+        }
+        if ( exhausted || closed )
+        {
+            close();
+            return false;
+        }
+
+        try
+        {
+            // null elements are skipped
+            while ( next == null )
+            {
+                final JsonToken token = parser.nextToken();
+                if ( token == null || token == JsonToken.END_ARRAY )
+                {
+                    exhausted = true;
+                    close();
+                    return false;
+                }
+
+                next = reader.readValue( parser );
+            }
+            return true;
+        }
+        catch ( final IOException e )
+        {
+            close();
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    @Override
+    public T next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+
+        final T result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+
+        closed = true;
+        try
+        {
+            if ( !exhausted )
+            {
+                abandon.run();
+            }
+            closeQuietly( parser );
+        }
+        finally
+        {
+            release.run();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderIterator;
+import org.apache.http.HttpEntity;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.params.HttpParams;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a callback once the connection behind a response goes back to the pool: when its body has been read to the
+ * end or closed, or the response is closed, whichever comes first.
+ */
+public final class ReleasingHttpResponse
+        implements CloseableHttpResponse
+{
+    private final CloseableHttpResponse delegate;
+
+    private final Runnable release;
+
+    private ReleasingHttpResponse( final CloseableHttpResponse delegate, final Runnable release )
+    {
+        this.delegate = delegate;
+        this.release = release;
+    }
+
+    /**
+     * Wraps {@code response} so {@code onRelease} runs exactly once. A response without a streamed body has already
+     * given its connection back, so the callback runs right away and the response is returned as is.
+     */
+    public static CloseableHttpResponse wrap( final CloseableHttpResponse response, final Runnable onRelease )
+    {
+        final AtomicBoolean released = new AtomicBoolean();
+        final Runnable once = () -> {
+            if ( released.compareAndSet( false, true ) )
+            {
+                onRelease.run();
+            }
+        };
+
+        final HttpEntity entity = response.getEntity();
+        if ( entity == null || !entity.isStreaming() )
+        {
+            once.run();
+            return response;
+        }
+
+        response.setEntity( new ReleasingEntity( entity, once ) );
+        return new ReleasingHttpResponse( response, once );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        try
+        {
+            delegate.close();
+        }
+        finally
+        {
+            release.run();
+        }
+    }
+
+    @Override
+    public StatusLine getStatusLine()
+    {
+        return delegate.getStatusLine();
+    }
+
+    @Override
+    public void setStatusLine( final StatusLine statusLine )
+    {
+        delegate.setStatusLine( statusLine );
+    }
+
+    @Override
+    public void setStatusLine( final ProtocolVersion protocolVersion, final int code )
+    {
+        delegate.setStatusLine( protocolVersion, code );
+    }
+
+    @Override
+    public void setStatusLine( final ProtocolVersion protocolVersion, final int code, final String reason )
+    {
+        delegate.setStatusLine( protocolVersion, code, reason );
+    }
+
+    @Override
+    public void setStatusCode( final int code )
+    {
+        delegate.setStatusCode( code );
+    }
+
+    @Override
+    public void setReasonPhrase( final String reason )
+    {
+        delegate.setReasonPhrase( reason );
+    }
+
+    @Override
+    public HttpEntity getEntity()
+    {
+        return delegate.getEntity();
+    }
+
+    @Override
+    public void setEntity( final HttpEntity entity )
+    {
+        delegate.setEntity( entity );
+    }
+
+    @Override
+    public Locale getLocale()
+    {
+        return delegate.getLocale();
+    }
+
+    @Override
+    public void setLocale( final Locale locale )
+    {
+        delegate.setLocale( locale );
+    }
+
+    @Override
+    public ProtocolVersion getProtocolVersion()
+    {
+        return delegate.getProtocolVersion();
+    }
+
+    @Override
+    public boolean containsHeader( final String name )
+    {
+        return delegate.containsHeader( name );
+    }
+
+    @Override
+    public Header[] getHeaders( final String name )
+    {
+        return delegate.getHeaders( name );
+    }
+
+    @Override
+    public Header getFirstHeader( final String name )
+    {
+        return delegate.getFirstHeader( name );
+    }
+
+    @Override
+    public Header getLastHeader( final String name )
+    {
+        return delegate.getLastHeader( name );
+    }
+
+    @Override
+    public Header[] getAllHeaders()
+    {
+        return delegate.getAllHeaders();
+    }
+
+    @Override
+    public void addHeader( final Header header )
+    {
+        delegate.addHeader( header );
+    }
+
+    @Override
+    public void addHeader( final String name, final String value )
+    {
+        delegate.addHeader( name, value );
+    }
+
+    @Override
+    public void setHeader( final Header header )
+    {
+        delegate.setHeader( header );
+    }
+
+    @Override
+    public void setHeader( final String name, final String value )
+    {
+        delegate.setHeader( name, value );
+    }
+
+    @Override
+    public void setHeaders( final Header[] headers )
+    {
+        delegate.setHeaders( headers );
+    }
+
+    @Override
+    public void removeHeader( final Header header )
+    {
+        delegate.removeHeader( header );
+    }
+
+    @Override
+    public void removeHeaders( final String name )
+    {
+        delegate.removeHeaders( name );
+    }
+
+    @Override
+    public HeaderIterator headerIterator()
+    {
+        return delegate.headerIterator();
+    }
+
+    @Override
+    public HeaderIterator headerIterator( final String name )
+    {
+        return delegate.headerIterator( name );
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public void setParams( final HttpParams params )
+    {
+        delegate.setParams( params );
+    }
+
+    private static final class ReleasingEntity
+            extends HttpEntityWrapper
+    {
+        private final Runnable release;
+
+        private ReleasingEntity( final HttpEntity entity, final Runnable release )
+        {
+            super( entity );
+            this.release = release;
+        }
+
+        @Override
+        public InputStream getContent()
+                throws IOException
+        {
+            final InputStream content = super.getContent();
+            return content == null ? null : new FilterInputStream( content )
+            {
+                @Override
+                public int read()
+                        throws IOException
+                {
+                    return releasedAtEnd( super.read() );
+                }
+
+                @Override
+                public int read( final byte[] b, final int off, final int len )
+                        throws IOException
+                {
+                    return releasedAtEnd( super.read( b, off, len ) );
+                }
+
+                @Override
+                public void close()
+                        throws IOException
+                {
+                    try
+                    {
+                        super.close();
+                    }
+                    finally
+                    {
+                        release.run();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void writeTo( final OutputStream out )
+                throws IOException
+        {
+            try
+            {
+                super.writeTo( out );
+            }
+            finally
+            {
+                release.run();
+            }
+        }
+
+        /**
+         * The pool takes the connection back as soon as the body's last byte is read, without waiting for a close.
+         */
+        private int releasedAtEnd( final int read )
+        {
+            if ( read == -1 )
+            {
+                release.run();
+            }
+            return read;
+        }
+    }
+}
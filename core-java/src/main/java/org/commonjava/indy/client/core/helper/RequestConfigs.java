@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Setting a {@link RequestConfig} on a request replaces the client's default one entirely; client layers that tweak
+ * a request's config start from here, so the site's timeouts survive.
+ */
+public final class RequestConfigs
+{
+    private RequestConfigs()
+    {
+    }
+
+    /**
+     * @return a builder with the request's own config, or the site's timeouts if it has none
+     */
+    public static RequestConfig.Builder configOf( final HttpRequestBase request, final int defaultTimeoutMillis )
+    {
+        final RequestConfig config = request.getConfig();
+        if ( config != null )
+        {
+            return RequestConfig.copy( config );
+        }
+
+        return RequestConfig.custom()
+                            .setConnectTimeout( defaultTimeoutMillis )
+                            .setConnectionRequestTimeout( defaultTimeoutMillis )
+                            .setSocketTimeout( defaultTimeoutMillis );
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.http2;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.auth.IndyClientAuthenticator;
+import org.commonjava.indy.client.core.deadline.Deadline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Adapts a shared JDK {@link HttpClient} to the Apache {@link CloseableHttpClient} API used by
+ * {@link org.commonjava.indy.client.core.IndyClientHttp}. Closing this client only drops the adapter; the
+ * connections belong to {@link Http2HttpFactory}.
+ */
+public class Http2HttpClient
+        extends CloseableHttpClient
+{
+    // the JDK client manages these itself and rejects them on requests
+    private static final Set<String> RESTRICTED_HEADERS =
+            asList( "connection", "content-length", "expect", "host", "upgrade", "transfer-encoding" ).stream()
+                                                                                                      .collect( toSet() );
+
+    private static final Set<Integer> REDIRECT_CODES =
+            new HashSet<>( asList( HttpStatus.SC_MOVED_PERMANENTLY, HttpStatus.SC_MOVED_TEMPORARILY,
+                                   HttpStatus.SC_TEMPORARY_REDIRECT, 308 ) );
+
+    // Apache's default limit
+    private static final int MAX_REDIRECTS = 50;
+
+    private final HttpClient client;
+
+    private final Duration requestTimeout;
+
+    private final List<Header> defaultHeaders;
+
+    private final IndyClientAuthenticator authenticator;
+
+    Http2HttpClient( final HttpClient client, final Duration requestTimeout, final List<Header> defaultHeaders,
+                     final IndyClientAuthenticator authenticator )
+    {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+        this.defaultHeaders = defaultHeaders;
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        // decorations go on a copy, so a request sent again by a retry or replay doesn't collect them twice
+        final HttpRequest attempt = new BasicHttpRequest( request.getRequestLine() );
+        attempt.setHeaders( request.getAllHeaders() );
+        if ( authenticator != null )
+        {
+            authenticator.decorateRequest( attempt );
+        }
+
+        URI uri = resolveUri( target, request );
+        addPreemptiveBasicAuth( uri, attempt, context );
+
+        String method = request.getRequestLine().getMethod();
+        java.net.http.HttpRequest.BodyPublisher body = bodyPublisher( request );
+        for ( int redirects = 0; ; redirects++ )
+        {
+            final HttpResponse<InputStream> response = send( uri, method, attempt, body );
+            final URI location = redirects < MAX_REDIRECTS ? redirectTarget( uri, method, response ) : null;
+            if ( location == null )
+            {
+                return toApacheResponse( response );
+            }
+
+            response.body().close();
+            if ( !"HEAD".equals( method ) && !"GET".equals( method ) )
+            {
+                method = "GET";
+                body = java.net.http.HttpRequest.BodyPublishers.noBody();
+            }
+            uri = location;
+        }
+    }
+
+    private HttpResponse<InputStream> send( final URI uri, final String method, final HttpRequest headers,
+                                            final java.net.http.HttpRequest.BodyPublisher body )
+            throws IOException
+    {
+        final java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder( uri );
+        final Deadline deadline = Deadline.current();
+        if ( requestTimeout != null || deadline != null )
+        {
+            final long timeoutNanos =
+                    Deadline.cap( requestTimeout == null ? Long.MAX_VALUE : requestTimeout.toNanos(),
+                                  TimeUnit.NANOSECONDS );
+            builder.timeout( Duration.ofNanos( Math.max( 1, timeoutNanos ) ) );
+        }
+
+        for ( final Header header : headers.getAllHeaders() )
+        {
+            if ( !RESTRICTED_HEADERS.contains( header.getName().toLowerCase() ) )
+            {
+                builder.header( header.getName(), header.getValue() );
+            }
+        }
+        for ( final Header header : defaultHeaders )
+        {
+            if ( !headers.containsHeader( header.getName() ) )
+            {
+                builder.header( header.getName(), header.getValue() );
+            }
+        }
+
+        builder.method( method, body );
+
+        try
+        {
+            return client.send( builder.build(), HttpResponse.BodyHandlers.ofInputStream() );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for: " + uri );
+        }
+        catch ( final UncheckedIOException e )
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Follows redirects the way Apache's default strategy does on the jHTTPc transport: a 303 for any method, the
+     * other redirect codes for GET and HEAD only.
+     *
+     * @return where to send the request next, or null if the response is to be returned as is
+     */
+    private URI redirectTarget( final URI uri, final String method, final HttpResponse<InputStream> response )
+    {
+        final int status = response.statusCode();
+        final boolean redirected = status == HttpStatus.SC_SEE_OTHER
+                || ( REDIRECT_CODES.contains( status ) && ( "GET".equals( method ) || "HEAD".equals( method ) ) );
+        if ( !redirected )
+        {
+            return null;
+        }
+
+        return response.headers().firstValue( HttpHeaders.LOCATION ).map( uri::resolve ).orElse( null );
+    }
+
+    private URI resolveUri( final HttpHost target, final HttpRequest request )
+    {
+        final URI uri = request instanceof HttpUriRequest ?
+                ( (HttpUriRequest) request ).getURI() :
+                URI.create( request.getRequestLine().getUri() );
+
+        if ( uri.isAbsolute() || target == null )
+        {
+            return uri;
+        }
+
+        return URI.create( target.toURI() ).resolve( uri );
+    }
+
+    /**
+     * jHTTPc puts site credentials on the context; without Apache's challenge handling, send them up front.
+     */
+    private void addPreemptiveBasicAuth( final URI uri, final HttpRequest request, final HttpContext context )
+    {
+        if ( !( context instanceof HttpClientContext ) || request.containsHeader( HttpHeaders.AUTHORIZATION ) )
+        {
+            return;
+        }
+
+        final CredentialsProvider provider = ( (HttpClientContext) context ).getCredentialsProvider();
+        if ( provider == null )
+        {
+            return;
+        }
+
+        final Credentials credentials = provider.getCredentials( new AuthScope( uri.getHost(), uri.getPort() ) );
+        if ( credentials != null && credentials.getUserPrincipal() != null )
+        {
+            final String userPass = credentials.getUserPrincipal().getName() + ":" + credentials.getPassword();
+            request.addHeader( HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                                                                           .encodeToString( userPass.getBytes(
+                                                                                   StandardCharsets.UTF_8 ) ) );
+        }
+    }
+
+    private java.net.http.HttpRequest.BodyPublisher bodyPublisher( final HttpRequest request )
+    {
+        if ( !( request instanceof HttpEntityEnclosingRequest ) )
+        {
+            return java.net.http.HttpRequest.BodyPublishers.noBody();
+        }
+
+        final HttpEntity entity = ( (HttpEntityEnclosingRequest) request ).getEntity();
+        if ( entity == null )
+        {
+            return java.net.http.HttpRequest.BodyPublishers.noBody();
+        }
+
+        final java.net.http.HttpRequest.BodyPublisher publisher =
+                java.net.http.HttpRequest.BodyPublishers.ofInputStream( () -> {
+                    try
+                    {
+                        return entity.getContent();
+                    }
+                    catch ( final IOException e )
+                    {
+                        throw new UncheckedIOException( e );
+                    }
+                } );
+
+        final long length = entity.getContentLength();
+        return length < 0 ? publisher : java.net.http.HttpRequest.BodyPublishers.fromPublisher( publisher, length );
+    }
+
+    private CloseableHttpResponse toApacheResponse( final HttpResponse<InputStream> response )
+    {
+        final ProtocolVersion version = response.version() == HttpClient.Version.HTTP_2 ?
+                new ProtocolVersion( "HTTP", 2, 0 ) :
+                new ProtocolVersion( "HTTP", 1, 1 );
+
+        final Http2HttpResponse result = new Http2HttpResponse( version, response.statusCode() );
+        for ( final Map.Entry<String, List<String>> header : response.headers().map().entrySet() )
+        {
+            if ( header.getKey().startsWith( ":" ) )
+            {
+                continue;
+            }
+            header.getValue().forEach( value -> result.addHeader( header.getKey(), value ) );
+        }
+
+        final BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent( response.body() );
+        entity.setContentLength( response.headers().firstValueAsLong( HttpHeaders.CONTENT_LENGTH ).orElse( -1 ) );
+        response.headers().firstValue( HttpHeaders.CONTENT_TYPE ).ifPresent( entity::setContentType );
+        response.headers().firstValue( HttpHeaders.CONTENT_ENCODING ).ifPresent( entity::setContentEncoding );
+        result.setEntity( entity );
+
+        return result;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        throw new UnsupportedOperationException( "HTTP/2 client has no HttpParams" );
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        throw new UnsupportedOperationException( "HTTP/2 client has no connection manager" );
+    }
+}
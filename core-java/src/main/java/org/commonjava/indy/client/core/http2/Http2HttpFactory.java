@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.http2;
+
+import org.apache.http.Header;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.commonjava.indy.client.core.auth.IndyClientAuthenticator;
+import org.commonjava.indy.client.core.util.SiteSslContexts;
+import org.commonjava.util.jhttpc.HttpFactory;
+import org.commonjava.util.jhttpc.HttpFactoryIfc;
+import org.commonjava.util.jhttpc.JHttpCException;
+import org.commonjava.util.jhttpc.auth.PasswordManager;
+import org.commonjava.util.jhttpc.model.SiteConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link HttpFactoryIfc} that sends requests over the JDK {@link HttpClient} with HTTP/2 preferred, so concurrent
+ * calls to the same Indy front end are multiplexed over a single connection instead of holding one pooled socket
+ * each. Servers that don't negotiate HTTP/2 are still served over HTTP/1.1.
+ * <br/>
+ * One JDK client is kept per {@link SiteConfig} and shared by every {@link CloseableHttpClient} handed out, so it
+ * can be wrapped by {@link org.commonjava.indy.client.core.o11y.trace.SpanningHttpFactory} like the jHTTPc factory.
+ * Contexts (and so credentials) still come from jHTTPc; builder-level authenticator decorations are applied per
+ * request through {@link IndyClientAuthenticator#decorateRequest}. The site's client certificate, trusted server
+ * certificates and trust policy are applied as jHTTPc applies them, and so is its proxy, except that the JDK client
+ * can't authenticate to one: sites with a proxy user are rejected. Redirects are followed for GET and HEAD only, as
+ * on the Apache transport.
+ */
+public class Http2HttpFactory
+        implements HttpFactoryIfc
+{
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final HttpFactory contextFactory;
+
+    private final PasswordManager passwordManager;
+
+    private final IndyClientAuthenticator authenticator;
+
+    private final Map<SiteConfig, HttpClient> clients = new IdentityHashMap<>();
+
+    private HttpClient defaultClient;
+
+    private volatile boolean shutdown;
+
+    public Http2HttpFactory( final PasswordManager passwordManager )
+    {
+        this.contextFactory = new HttpFactory( passwordManager );
+        this.passwordManager = passwordManager;
+        this.authenticator = null;
+    }
+
+    public Http2HttpFactory( final IndyClientAuthenticator authenticator )
+    {
+        this.contextFactory = new HttpFactory( authenticator );
+        this.passwordManager = null;
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    public CloseableHttpClient createClient()
+            throws JHttpCException
+    {
+        return createClient( null, null );
+    }
+
+    @Override
+    public CloseableHttpClient createClient( final SiteConfig location )
+            throws JHttpCException
+    {
+        return createClient( location, null );
+    }
+
+    @Override
+    public CloseableHttpClient createClient( final SiteConfig location, final List<Header> defaultHeaders )
+            throws JHttpCException
+    {
+        if ( shutdown )
+        {
+            throw new JHttpCException( "HTTP/2 factory is shut down" );
+        }
+
+        final Duration requestTimeout =
+                location == null ? null : Duration.ofSeconds( location.getRequestTimeoutSeconds() );
+
+        final HttpClient client;
+        synchronized ( clients )
+        {
+            if ( location == null )
+            {
+                if ( defaultClient == null )
+                {
+                    defaultClient = newBuilder( null ).build();
+                }
+                client = defaultClient;
+            }
+            else if ( clients.containsKey( location ) )
+            {
+                client = clients.get( location );
+            }
+            else
+            {
+                logger.debug( "Creating HTTP/2 client for: {}", location.getUri() );
+                client = newBuilder( location ).build();
+                clients.put( location, client );
+            }
+        }
+
+        return new Http2HttpClient( client, requestTimeout,
+                                    defaultHeaders == null ? Collections.emptyList() : defaultHeaders,
+                                    authenticator );
+    }
+
+    private HttpClient.Builder newBuilder( final SiteConfig location )
+            throws JHttpCException
+    {
+        // redirects are followed by Http2HttpClient, for the same methods Apache's default strategy follows
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                                                     .version( HttpClient.Version.HTTP_2 )
+                                                     .followRedirects( HttpClient.Redirect.NEVER );
+        if ( location == null )
+        {
+            return builder;
+        }
+
+        builder.connectTimeout( Duration.ofSeconds( location.getRequestTimeoutSeconds() ) );
+
+        final SSLContext sslContext = SiteSslContexts.fromSite( location, passwordManager );
+        if ( sslContext != null )
+        {
+            builder.sslContext( sslContext );
+        }
+
+        if ( location.getProxyHost() != null )
+        {
+            if ( location.getProxyUser() != null )
+            {
+                throw new JHttpCException( "Site: %s uses an authenticating proxy, which the HTTP/2 transport does not "
+                                                   + "support. Use the default transport for this site.",
+                                           location.getId() );
+            }
+            builder.proxy( ProxySelector.of(
+                    new InetSocketAddress( location.getProxyHost(), location.getProxyPort() ) ) );
+        }
+
+        return builder;
+    }
+
+    @Override
+    public HttpClientContext createContext()
+            throws JHttpCException
+    {
+        return contextFactory.createContext();
+    }
+
+    @Override
+    public HttpClientContext createContext( final SiteConfig location )
+            throws JHttpCException
+    {
+        return contextFactory.createContext( location );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    /**
+     * The JDK client has no explicit shutdown before Java 21; its connections are released once the client is
+     * no longer referenced.
+     */
+    @Override
+    public boolean shutdownNow()
+    {
+        shutdown = true;
+        dropClients();
+        return contextFactory.shutdownNow();
+    }
+
+    @Override
+    public boolean shutdownGracefully( final long timeoutMillis )
+            throws InterruptedException
+    {
+        shutdown = true;
+        dropClients();
+        return contextFactory.shutdownGracefully( timeoutMillis );
+    }
+
+    private void dropClients()
+    {
+        synchronized ( clients )
+        {
+            clients.clear();
+            defaultClient = null;
+        }
+    }
+}
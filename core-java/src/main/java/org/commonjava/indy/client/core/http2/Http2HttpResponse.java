@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.http2;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.message.BasicHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Response returned by {@link Http2HttpClient}; closing it releases the HTTP/2 stream behind the entity.
+ */
+class Http2HttpResponse
+        extends BasicHttpResponse
+        implements CloseableHttpResponse
+{
+    Http2HttpResponse( final ProtocolVersion version, final int statusCode )
+    {
+        super( version, statusCode, null );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        final HttpEntity entity = getEntity();
+        if ( entity != null && entity.isStreaming() )
+        {
+            entity.getContent().close();
+        }
+    }
+}
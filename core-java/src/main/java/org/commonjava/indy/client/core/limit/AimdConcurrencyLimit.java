@@ -0,0 +1,246 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.limit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limit on the Indy calls one client has in flight, adjusted from every completed call (AIMD):
+ * <ul>
+ *     <li>a call that failed (I/O error, 429 or 5xx), or took more than {@code LATENCY_TOLERANCE} times the lowest
+ *     round-trip time seen, cuts the limit by {@code BACKOFF_RATIO}; at most once per round trip</li>
+ *     <li>otherwise, while at least half the limit is in use, the limit grows by one per round trip: by one per call
+ *     until the first cut (slow start), then by {@code 1 / limit} per call</li>
+ * </ul>
+ * Calls over the limit wait in a queue of at most {@code maxQueue}; beyond that, or after waiting too long, they are
+ * rejected with {@link ConcurrencyLimitExceededException}.
+ */
+public class AimdConcurrencyLimit
+{
+    static final double LATENCY_TOLERANCE = 2.0;
+
+    static final double BACKOFF_RATIO = 0.75;
+
+    private static final int RTT_RESET_SAMPLES = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition available = lock.newCondition();
+
+    private final int min;
+
+    private final int max;
+
+    private final int maxQueue;
+
+    private volatile double limit;
+
+    private boolean slowStart = true;
+
+    private long lastCutNanos;
+
+    private long minRttNanos = Long.MAX_VALUE;
+
+    private int samplesSinceRttReset;
+
+    private volatile int inFlight;
+
+    private volatile int queued;
+
+    private volatile long rejections;
+
+    public AimdConcurrencyLimit( final int min, final int max, final int maxQueue )
+    {
+        if ( min < 1 || max < min || maxQueue < 0 )
+        {
+            throw new IllegalArgumentException(
+                    "Invalid concurrency limit bounds: " + min + ".." + max + ", queue: " + maxQueue );
+        }
+
+        this.min = min;
+        this.max = max;
+        this.maxQueue = maxQueue;
+        this.limit = min;
+        this.lastCutNanos = System.nanoTime() - TimeUnit.HOURS.toNanos( 1 );
+    }
+
+    /**
+     * Blocks until the call may be sent, for at most {@code timeoutNanos} and only if the queue has room.
+     */
+    public void acquire( final long timeoutNanos )
+            throws InterruptedException, ConcurrencyLimitExceededException
+    {
+        lock.lock();
+        try
+        {
+            if ( inFlight < (int) limit )
+            {
+                inFlight++;
+                return;
+            }
+
+            if ( queued >= maxQueue )
+            {
+                rejections++;
+                throw new ConcurrencyLimitExceededException(
+                        "Concurrency limit reached, limit: " + (int) limit + ", queued: " + queued );
+            }
+
+            queued++;
+            try
+            {
+                long remaining = timeoutNanos;
+                while ( inFlight >= (int) limit )
+                {
+                    if ( remaining <= 0 )
+                    {
+                        rejections++;
+                        throw new ConcurrencyLimitExceededException(
+                                "Timeout waiting under concurrency limit: " + (int) limit + ", queued: " + queued );
+                    }
+                    remaining = available.awaitNanos( remaining );
+                }
+            }
+            finally
+            {
+                queued--;
+            }
+
+            inFlight++;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the call's slot, and adjusts the limit from its round-trip time and outcome.
+     */
+    public void release( final long rttNanos, final boolean failed )
+    {
+        lock.lock();
+        try
+        {
+            inFlight--;
+            onSample( rttNanos, failed, System.nanoTime() );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot of a call that never reached Indy, without adjusting the limit.
+     */
+    public void cancel()
+    {
+        lock.lock();
+        try
+        {
+            inFlight--;
+            available.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called with the lock held.
+     */
+    void onSample( final long rttNanos, final boolean failed, final long now )
+    {
+        if ( ++samplesSinceRttReset >= RTT_RESET_SAMPLES )
+        {
+            // let the baseline follow a server whose normal latency has moved up
+            samplesSinceRttReset = 0;
+            minRttNanos = rttNanos;
+        }
+        minRttNanos = Math.min( minRttNanos, rttNanos );
+
+        final int old = (int) limit;
+        if ( failed || rttNanos > minRttNanos * LATENCY_TOLERANCE )
+        {
+            if ( now - lastCutNanos >= minRttNanos )
+            {
+                lastCutNanos = now;
+                slowStart = false;
+                limit = Math.max( min, limit * BACKOFF_RATIO );
+            }
+        }
+        else if ( inFlight + 1 >= limit / 2 )
+        {
+            limit = Math.min( max, limit + ( slowStart ? 1 : 1 / limit ) );
+        }
+
+        final int next = (int) limit;
+        if ( next != old )
+        {
+            logger.debug( "Adjusting concurrency limit: {} -> {} (rtt: {}ms, min rtt: {}ms, failed: {})", old, next,
+                          TimeUnit.NANOSECONDS.toMillis( rttNanos ), TimeUnit.NANOSECONDS.toMillis( minRttNanos ),
+                          failed );
+        }
+
+        if ( next > old )
+        {
+            available.signalAll();
+        }
+        else
+        {
+            available.signal();
+        }
+    }
+
+    public int getLimit()
+    {
+        return (int) limit;
+    }
+
+    public int getInFlight()
+    {
+        return inFlight;
+    }
+
+    public int getQueueDepth()
+    {
+        return queued;
+    }
+
+    public long getRejections()
+    {
+        return rejections;
+    }
+
+    public int getMin()
+    {
+        return min;
+    }
+
+    public int getMax()
+    {
+        return max;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.limit;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request when the {@link AimdConcurrencyLimit} is reached and its queue is full, or the
+ * request waited in the queue for too long.
+ */
+public class ConcurrencyLimitExceededException
+        extends IOException
+{
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrencyLimitExceededException( final String message )
+    {
+        super( message );
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.limit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.deadline.Deadline;
+import org.commonjava.indy.client.core.helper.ReleasingHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Holds each attempt to an {@link AimdConcurrencyLimit} slot until its response has been read or closed. The limit
+ * adapts to the round-trip time to the response headers, and counts I/O errors, 429 and 5xx responses as failures.
+ * It sits below the retries and circuit breakers, so every attempt is measured on its own, without the backoff
+ * between attempts, and calls failed fast by an open breaker never take a slot.
+ */
+public class ConcurrencyLimitingHttpClient
+        extends CloseableHttpClient
+{
+    public static final String CONCURRENCY_LIMIT = "concurrency_limit";
+
+    public static final String CONCURRENCY_QUEUE_DEPTH = "concurrency_queue_depth";
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final CloseableHttpClient delegate;
+
+    private final AimdConcurrencyLimit limit;
+
+    private final long queueTimeoutNanos;
+
+    public ConcurrencyLimitingHttpClient( final CloseableHttpClient delegate, final AimdConcurrencyLimit limit,
+                                          final long queueTimeoutMillis )
+    {
+        this.delegate = delegate;
+        this.limit = limit;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos( queueTimeoutMillis );
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        addFieldToCurrentSpan( CONCURRENCY_QUEUE_DEPTH, limit.getQueueDepth() );
+        try
+        {
+            limit.acquire( Deadline.cap( queueTimeoutNanos, TimeUnit.NANOSECONDS ) );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting under the concurrency limit" );
+        }
+        addFieldToCurrentSpan( CONCURRENCY_LIMIT, limit.getLimit() );
+
+        final long start = System.nanoTime();
+        final CloseableHttpResponse response;
+        try
+        {
+            response = delegate.execute( target, request, context );
+        }
+        catch ( final IOException | RuntimeException e )
+        {
+            limit.release( System.nanoTime() - start, true );
+            throw e;
+        }
+
+        final long rttNanos = System.nanoTime() - start;
+        final int status = response.getStatusLine().getStatusCode();
+        final boolean failed = status == TOO_MANY_REQUESTS || status >= 500;
+        return ReleasingHttpResponse.wrap( response, () -> limit.release( rttNanos, failed ) );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
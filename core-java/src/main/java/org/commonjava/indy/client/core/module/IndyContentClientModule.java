@@ -16,6 +16,7 @@
 package org.commonjava.indy.client.core.module;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpStatus;
 import org.commonjava.indy.IndyContentConstants;
 import org.commonjava.indy.client.core.IndyClientException;
 import org.commonjava.indy.client.core.IndyClientModule;
@@ -31,6 +32,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.commonjava.indy.client.core.util.UrlUtils.buildUrl;
 import static org.commonjava.indy.pkg.maven.model.MavenPackageTypeDescriptor.MAVEN_PKG_KEY;
@@ -39,7 +41,7 @@ public class IndyContentClientModule
     extends IndyClientModule
 {
 
-    private static final String CONTENT_BASE = "content";
+    public static final String CONTENT_BASE = "content";
 
     @Deprecated
     public String contentUrl( final StoreType type, final String name, final String... path )
@@ -126,6 +128,19 @@ public class IndyContentClientModule
                                                                             Boolean.toString( cacheOnly ) ) );
     }
 
+    public CompletableFuture<Boolean> existsAsync( final StoreKey key, final String path )
+    {
+        return http.existsAsync( contentPath( key, path ) );
+    }
+
+    public CompletableFuture<Boolean> existsAsync( final StoreKey key, final String path, final boolean cacheOnly )
+    {
+        return http.existsAsync( contentPath( key, path ),
+                                 () -> Collections.<String, String>singletonMap( IndyContentConstants.CHECK_CACHE_ONLY,
+                                                                                 Boolean.toString( cacheOnly ) ),
+                                 HttpStatus.SC_OK );
+    }
+
     @Deprecated
     public boolean exists( final StoreType type, final String name, final String path )
             throws IndyClientException
@@ -146,6 +161,11 @@ public class IndyContentClientModule
         http.putWithStream( contentPath( key, path ), stream );
     }
 
+    public CompletableFuture<Void> storeAsync( final StoreKey key, final String path, final InputStream stream )
+    {
+        return http.putWithStreamAsync( contentPath( key, path ), stream );
+    }
+
     @Deprecated
     public void store( final StoreType type, final String name, final String path, final InputStream stream )
             throws IndyClientException
@@ -160,6 +180,11 @@ public class IndyContentClientModule
         return new PathInfo( headers );
     }
 
+    public CompletableFuture<PathInfo> getInfoAsync( final StoreKey key, final String path )
+    {
+        return http.headAsync( contentPath( key, path ) ).thenApply( PathInfo::new );
+    }
+
     @Deprecated
     public PathInfo getInfo( final StoreType type, final String name, final String path )
             throws IndyClientException
@@ -198,6 +223,15 @@ public class IndyContentClientModule
         }
     }
 
+    /**
+     * Runs {@link #get(StoreKey, String)} on the client's blocking executor (virtual threads when enabled on the
+     * builder). The caller owns the returned stream, which is null if the path doesn't exist.
+     */
+    public CompletableFuture<InputStream> getAsync( final StoreKey key, final String path )
+    {
+        return http.submit( () -> get( key, path ) );
+    }
+
     @Deprecated
     public InputStream get( final StoreType type, final String name, final String path )
             throws IndyClientException
@@ -32,11 +32,16 @@ import org.commonjava.indy.pkg.PackageTypeConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class IndyStoreQueryClientModule
         extends IndyClientModule
@@ -45,12 +50,51 @@ public class IndyStoreQueryClientModule
 
     public static final String STORE_QUERY_BASEPATH = "admin/stores/query";
 
+    private static final List<Type> JSON_TYPES =
+            Arrays.asList( SimpleBooleanResultDTO.class,
+                           new TypeReference<StoreListingDTO<ArtifactStore>>(){}.getType(),
+                           new TypeReference<StoreListingDTO<RemoteRepository>>(){}.getType(),
+                           new TypeReference<StoreListingDTO<Group>>(){}.getType() );
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
+    @Override
+    public Iterable<Type> getJsonTypes()
+    {
+        return JSON_TYPES;
+    }
+
     public <T extends ArtifactStore> StoreListingDTO<T> getAllStores( final String packageType,
                                                                       final Set<StoreType> types,
                                                                       final Boolean enabled )
             throws IndyClientException
+    {
+        return http.get( allStoresPath( packageType, types, enabled ), new TypeReference<StoreListingDTO<T>>()
+        {
+        } );
+    }
+
+    public <T extends ArtifactStore> CompletableFuture<StoreListingDTO<T>> getAllStoresAsync( final String packageType,
+                                                                                              final Set<StoreType> types,
+                                                                                              final Boolean enabled )
+    {
+        return http.getAsync( allStoresPath( packageType, types, enabled ), new TypeReference<StoreListingDTO<T>>()
+        {
+        } );
+    }
+
+    /**
+     * Like {@link #getAllStores(String, Set, Boolean)}, but streams the stores as they arrive. Close the stream when
+     * done; see {@link org.commonjava.indy.client.core.IndyClientHttp#streamItems(String, Class)}.
+     */
+    public Stream<ArtifactStore> streamAllStores( final String packageType, final Set<StoreType> types,
+                                                  final Boolean enabled )
+            throws IndyClientException
+    {
+        return http.streamItems( allStoresPath( packageType, types, enabled ), ArtifactStore.class );
+    }
+
+    private String allStoresPath( final String packageType, final Set<StoreType> types, final Boolean enabled )
     {
         final StringBuilder queryPath = new StringBuilder();
         if ( PackageTypeConstants.isValidPackageType( packageType ) )
@@ -82,10 +126,7 @@ public class IndyStoreQueryClientModule
                 queryPath.append( "&enabled=" ).append( enabled );
             }
         }
-        String path = UrlUtils.buildUrl( STORE_QUERY_BASEPATH, "all/" + queryPath );
-        return http.get( path, new TypeReference<StoreListingDTO<T>>()
-        {
-        } );
+        return UrlUtils.buildUrl( STORE_QUERY_BASEPATH, "all/" + queryPath );
     }
 
     public <T extends ArtifactStore> StoreListingDTO<T> getAllByDefaultPkgTypes()
@@ -107,6 +148,32 @@ public class IndyStoreQueryClientModule
 
     public StoreListingDTO<Group> getGroupContaining( final StoreKey storeKey, final String enabled )
             throws IndyClientException
+    {
+        return http.get( groupContainingPath( storeKey, enabled ), new TypeReference<StoreListingDTO<Group>>()
+        {
+        } );
+    }
+
+    public CompletableFuture<StoreListingDTO<Group>> getGroupContainingAsync( final StoreKey storeKey,
+                                                                              final String enabled )
+    {
+        final String path;
+        try
+        {
+            path = groupContainingPath( storeKey, enabled );
+        }
+        catch ( final IndyClientException e )
+        {
+            return CompletableFuture.failedFuture( e );
+        }
+
+        return http.getAsync( path, new TypeReference<StoreListingDTO<Group>>()
+        {
+        } );
+    }
+
+    private String groupContainingPath( final StoreKey storeKey, final String enabled )
+            throws IndyClientException
     {
         if ( storeKey == null )
         {
@@ -118,11 +185,7 @@ public class IndyStoreQueryClientModule
         {
             queryPath.append( "&enabled=" ).append( enabled );
         }
-        String path = UrlUtils.buildUrl( STORE_QUERY_BASEPATH, "groups/contains" + queryPath );
-
-        return http.get( path, new TypeReference<StoreListingDTO<Group>>()
-        {
-        } );
+        return UrlUtils.buildUrl( STORE_QUERY_BASEPATH, "groups/contains" + queryPath );
     }
 
     public StoreListingDTO<RemoteRepository> getRemoteRepositoryByUrl( final String packageType, final String url,
@@ -162,6 +225,15 @@ public class IndyStoreQueryClientModule
                          } );
     }
 
+    public CompletableFuture<StoreListingDTO<Group>> getGroupsAffectedByAsync( final Set<StoreKey> storeKeys )
+    {
+        final String keys = storeKeys.stream().map( StoreKey::toString ).collect( Collectors.joining( "," ) );
+        return http.getAsync( UrlUtils.buildUrl( STORE_QUERY_BASEPATH, "affectedBy/?keys=" + keys ),
+                              new TypeReference<StoreListingDTO<Group>>()
+                              {
+                              } );
+    }
+
     public StoreListingDTO<ArtifactStore> getOrderedConcreteStoresInGroup( final String packageType,
                                                                            final String groupName,
                                                                            final String enabled )
@@ -219,9 +291,61 @@ public class IndyStoreQueryClientModule
         return getAllSubStores( packageType, enabled, "groups/all/" );
     }
 
+    /**
+     * Like {@link #getAllRemoteRepositories(String, String)}, but streams the remotes as they arrive. Close the
+     * stream when done.
+     */
+    public Stream<RemoteRepository> streamAllRemoteRepositories( final String packageType, final String enabled )
+            throws IndyClientException
+    {
+        return http.streamItems( subStoresPath( packageType, enabled, "remotes/all/" ), RemoteRepository.class );
+    }
+
+    /**
+     * Like {@link #getAllHostedRepositories(String, String)}, but streams the hosted repositories as they arrive.
+     * Close the stream when done.
+     */
+    public Stream<HostedRepository> streamAllHostedRepositories( final String packageType, final String enabled )
+            throws IndyClientException
+    {
+        return http.streamItems( subStoresPath( packageType, enabled, "hosteds/all/" ), HostedRepository.class );
+    }
+
+    public CompletableFuture<StoreListingDTO<RemoteRepository>> getAllRemoteRepositoriesAsync( final String packageType,
+                                                                                                final String enabled )
+    {
+        return getAllSubStoresAsync( packageType, enabled, "remotes/all/" );
+    }
+
+    public CompletableFuture<StoreListingDTO<HostedRepository>> getAllHostedRepositoriesAsync( final String packageType,
+                                                                                                final String enabled )
+    {
+        return getAllSubStoresAsync( packageType, enabled, "hosteds/all/" );
+    }
+
+    public CompletableFuture<StoreListingDTO<Group>> getAllGroupsAsync( final String packageType, final String enabled )
+    {
+        return getAllSubStoresAsync( packageType, enabled, "groups/all/" );
+    }
+
     private <T extends ArtifactStore> StoreListingDTO<T> getAllSubStores( final String packageType,
                                                                           final String enabled, final String apiPath )
             throws IndyClientException
+    {
+        return http.get( subStoresPath( packageType, enabled, apiPath ), new TypeReference<StoreListingDTO<T>>()
+        {
+        } );
+    }
+
+    private <T extends ArtifactStore> CompletableFuture<StoreListingDTO<T>> getAllSubStoresAsync(
+            final String packageType, final String enabled, final String apiPath )
+    {
+        return http.getAsync( subStoresPath( packageType, enabled, apiPath ), new TypeReference<StoreListingDTO<T>>()
+        {
+        } );
+    }
+
+    private String subStoresPath( final String packageType, final String enabled, final String apiPath )
     {
         final String pkgType = PackageTypeConstants.isValidPackageType( packageType ) ?
                 packageType :
@@ -232,10 +356,7 @@ public class IndyStoreQueryClientModule
         {
             queryPath.append( "&enabled=" ).append( enabled );
         }
-        return http.get( UrlUtils.buildUrl( STORE_QUERY_BASEPATH, apiPath + queryPath ),
-                         new TypeReference<StoreListingDTO<T>>()
-                         {
-                         } );
+        return UrlUtils.buildUrl( STORE_QUERY_BASEPATH, apiPath + queryPath );
     }
 
     public SimpleBooleanResultDTO getStoreEmptyResult()
@@ -247,4 +368,9 @@ public class IndyStoreQueryClientModule
                          } );
     }
 
+    public CompletableFuture<SimpleBooleanResultDTO> getStoreEmptyResultAsync()
+    {
+        return http.getAsync( UrlUtils.buildUrl( STORE_QUERY_BASEPATH, "isEmpty" ), SimpleBooleanResultDTO.class );
+    }
+
 }
@@ -29,6 +29,12 @@ import org.commonjava.indy.model.core.dto.StoreListingDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
 import static org.commonjava.indy.client.core.util.UrlUtils.encode;
 import static org.commonjava.indy.pkg.maven.model.MavenPackageTypeDescriptor.MAVEN_PKG_KEY;
 
@@ -41,8 +47,20 @@ public class IndyStoresClientModule
 
     public static final String ADD_CONSTITUENT = "addConstituent";
 
+    private static final List<Type> JSON_TYPES =
+            Arrays.asList( HostedRepository.class, RemoteRepository.class, Group.class,
+                           new TypeReference<StoreListingDTO<HostedRepository>>(){}.getType(),
+                           new TypeReference<StoreListingDTO<RemoteRepository>>(){}.getType(),
+                           new TypeReference<StoreListingDTO<Group>>(){}.getType() );
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
+    @Override
+    public Iterable<Type> getJsonTypes()
+    {
+        return JSON_TYPES;
+    }
+
     public <T extends ArtifactStore> T create( final T value, final String changelog, final Class<T> type )
         throws IndyClientException
     {
@@ -52,6 +70,15 @@ public class IndyStoresClientModule
                                       value, type );
     }
 
+    public <T extends ArtifactStore> CompletableFuture<T> createAsync( final T value, final String changelog,
+                                                                      final Class<T> type )
+    {
+        value.setMetadata( ArtifactStore.METADATA_CHANGELOG, changelog );
+        return http.postWithResponseAsync( UrlUtils.buildUrl( STORE_BASEPATH, value.getPackageType(), value.getType()
+                                                                                .singularEndpointName() ),
+                                           value, type );
+    }
+
     @Deprecated
     public boolean exists( final StoreType type, final String name )
         throws IndyClientException
@@ -65,6 +92,11 @@ public class IndyStoresClientModule
         return http.exists( UrlUtils.buildUrl( STORE_BASEPATH, key.getPackageType(), key.getType().singularEndpointName(), encode( key.getName() ) ) );
     }
 
+    public CompletableFuture<Boolean> existsAsync( final StoreKey key )
+    {
+        return http.existsAsync( UrlUtils.buildUrl( STORE_BASEPATH, key.getPackageType(), key.getType().singularEndpointName(), encode( key.getName() ) ) );
+    }
+
     @Deprecated
     public void delete( final StoreType type, final String name, final String changelog )
         throws IndyClientException
@@ -95,6 +127,14 @@ public class IndyStoresClientModule
                          store );
     }
 
+    public CompletableFuture<Boolean> updateAsync( final ArtifactStore store, final String changelog )
+    {
+        store.setMetadata( ArtifactStore.METADATA_CHANGELOG, changelog );
+        return http.putAsync( UrlUtils.buildUrl( STORE_BASEPATH, store.getPackageType(), store.getType()
+                                                                                .singularEndpointName(), store.getName() ),
+                              store );
+    }
+
     @Deprecated
     public <T extends ArtifactStore> T load( StoreType type, String name, final Class<T> cls )
             throws IndyClientException
@@ -108,6 +148,11 @@ public class IndyStoresClientModule
         return http.get( UrlUtils.buildUrl( STORE_BASEPATH, key.getPackageType(), key.getType().singularEndpointName(), encode( key.getName() ) ), cls );
     }
 
+    public <T extends ArtifactStore> CompletableFuture<T> loadAsync( StoreKey key, final Class<T> cls )
+    {
+        return http.getAsync( UrlUtils.buildUrl( STORE_BASEPATH, key.getPackageType(), key.getType().singularEndpointName(), encode( key.getName() ) ), cls );
+    }
+
     public StoreListingDTO<HostedRepository> listHostedRepositories()
         throws IndyClientException
     {
@@ -126,6 +171,24 @@ public class IndyStoresClientModule
                          } );
     }
 
+    /**
+     * Like {@link #listRemoteRepositories()}, but streams the remotes as they arrive. Close the stream when done; see
+     * {@link org.commonjava.indy.client.core.IndyClientHttp#streamItems(String, Class)}.
+     */
+    public Stream<RemoteRepository> streamRemoteRepositories()
+            throws IndyClientException
+    {
+        return streamRemoteRepositories( ALL_PACKAGE_TYPES );
+    }
+
+    public Stream<RemoteRepository> streamRemoteRepositories( String packageType )
+            throws IndyClientException
+    {
+        return http.streamItems( UrlUtils.buildUrl( STORE_BASEPATH, packageType,
+                                                    StoreType.remote.singularEndpointName() ),
+                                 RemoteRepository.class );
+    }
+
     public StoreListingDTO<Group> listGroups()
         throws IndyClientException
     {
@@ -163,6 +226,30 @@ public class IndyStoresClientModule
                          } );
     }
 
+    public CompletableFuture<StoreListingDTO<HostedRepository>> listHostedRepositoriesAsync( String packageType )
+    {
+        return http.getAsync( UrlUtils.buildUrl( STORE_BASEPATH, packageType, StoreType.hosted.singularEndpointName() ),
+                              new TypeReference<StoreListingDTO<HostedRepository>>()
+                              {
+                              } );
+    }
+
+    public CompletableFuture<StoreListingDTO<RemoteRepository>> listRemoteRepositoriesAsync( String packageType )
+    {
+        return http.getAsync( UrlUtils.buildUrl( STORE_BASEPATH, packageType, StoreType.remote.singularEndpointName() ),
+                              new TypeReference<StoreListingDTO<RemoteRepository>>()
+                              {
+                              } );
+    }
+
+    public CompletableFuture<StoreListingDTO<Group>> listGroupsAsync( String packageType )
+    {
+        return http.getAsync( UrlUtils.buildUrl( STORE_BASEPATH, packageType, StoreType.group.singularEndpointName() ),
+                              new TypeReference<StoreListingDTO<Group>>()
+                              {
+                              } );
+    }
+
     public StoreListingDTO<RemoteRepository> getRemoteByUrl( final String url, final String packageType )
             throws IndyClientException
     {
@@ -34,8 +34,20 @@ public class ClientMetrics
         extends ClientMetricManager
         implements Closeable
 {
+    /**
+     * {@link org.apache.http.protocol.HttpContext} attribute under which the request's metrics are passed down to the
+     * client layers.
+     */
+    public static final String CONTEXT_KEY = ClientMetrics.class.getName();
+
     private static final String REQUEST_ERROR = "request-error";
 
+    private static final String RETRY_COUNT = "retry_count";
+
+    private static final String RETRY_REASON = "retry_reason";
+
+    private static final String RETRY_BUDGET_EXHAUSTED = "retry_budget_exhausted";
+
     private static final String RESPONSE_ERROR = "response-error";
 
     private static final double NANOS_PER_MILLISECOND = 1E6;
@@ -100,6 +112,36 @@ public class ClientMetrics
         }
     }
 
+    public void registerRetry( int attempt, Object reason )
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+
+        logger.debug( "Client trace registerRetry {}: {}", attempt, request.getURI().getPath() );
+        addFieldToCurrentSpan( RETRY_COUNT, attempt );
+        if ( reason instanceof Throwable )
+        {
+            String reasonMsg = reason.getClass().getSimpleName() + ": " + ( (Throwable) reason ).getMessage();
+            addFieldToCurrentSpan( RETRY_REASON, reasonMsg );
+        }
+        else
+        {
+            addFieldToCurrentSpan( RETRY_REASON, String.valueOf( reason ) );
+        }
+    }
+
+    public void registerRetryBudgetExhausted()
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+
+        addFieldToCurrentSpan( RETRY_BUDGET_EXHAUSTED, true );
+    }
+
     public void registerEnd( HttpResponse response )
     {
         if ( !enabled || response == null )
@@ -47,6 +47,28 @@ public class ClientTrafficClassifier
         return calculateCachedFunctionClassifiers( request.getURI().getPath(), request.getMethod(), headers );
     }
 
+    /**
+     * Classifies a request by its path below {@code basePath}, the path of the Indy base URL (e.g. {@code /api}).
+     */
+    public List<String> calculateClassifiers( HttpUriRequest request, String basePath ) {
+        String path = relativePath( request, basePath );
+        if ( path == null ) {
+            return new ArrayList<>();
+        }
+        return calculateCachedFunctionClassifiers( path, request.getMethod(), new HashMap<>() );
+    }
+
+    /**
+     * The request path below {@code basePath}, starting with a slash, or null if the request has no path.
+     */
+    public static String relativePath( HttpUriRequest request, String basePath ) {
+        String path = request.getURI().getPath();
+        if ( path != null && basePath != null && !basePath.isEmpty() && path.startsWith( basePath + "/" ) ) {
+            path = path.substring( basePath.length() );
+        }
+        return path;
+    }
+
     protected List<String> calculateCachedFunctionClassifiers( String restPath, String method, Map<String, String> headers ) {
         List<String> result = new ArrayList<>();
         String[] pathParts = restPath.split( "/" );
@@ -30,11 +30,11 @@ import java.util.List;
 public class SpanningHttpFactory
         implements HttpFactoryIfc
 {
-    private final HttpFactory delegate;
+    private final HttpFactoryIfc delegate;
 
     private final TraceManager traceManager;
 
-    public SpanningHttpFactory( HttpFactory httpFactory, TraceManager traceManager )
+    public SpanningHttpFactory( HttpFactoryIfc httpFactory, TraceManager traceManager )
     {
         super();
         delegate = httpFactory;
@@ -43,7 +43,7 @@ public class SpanningHttpFactory
 
     public PasswordManager getPasswordManager()
     {
-        return delegate.getPasswordManager();
+        return delegate instanceof HttpFactory ? ( (HttpFactory) delegate ).getPasswordManager() : null;
     }
 
     @Override
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.retry;
+
+/**
+ * Token bucket shared by all requests of a client. Every original request deposits {@code ratio} of a token, time
+ * adds {@code minPerSecond} tokens a second, and each retry takes a whole one. Once the bucket is empty, failures
+ * surface to callers instead of being retried, so retries stay a bounded fraction of the load during an outage.
+ */
+public class RetryBudget
+{
+    private final double ratio;
+
+    private final int minPerSecond;
+
+    private final double capacity;
+
+    private double balance;
+
+    private long lastRefill = System.nanoTime();
+
+    public RetryBudget( final double ratio, final int minPerSecond )
+    {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        // allow a burst of one second's reserve plus the deposits of 100 requests
+        this.capacity = minPerSecond + ratio * 100;
+        this.balance = capacity;
+    }
+
+    public synchronized void deposit()
+    {
+        balance = Math.min( capacity, balance + ratio );
+    }
+
+    public synchronized boolean tryWithdraw()
+    {
+        final long now = System.nanoTime();
+        balance = Math.min( capacity, balance + ( now - lastRefill ) / 1E9 * minPerSecond );
+        lastRefill = now;
+
+        if ( balance >= 1 )
+        {
+            balance -= 1;
+            return true;
+        }
+
+        return false;
+    }
+}
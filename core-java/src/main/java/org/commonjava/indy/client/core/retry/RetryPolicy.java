@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.retry;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Settings for {@link RetryingHttpClient}. The defaults retry GET, HEAD and DELETE (so {@code get}, {@code head},
+ * {@code exists} and {@code delete} calls) up to 3 times on 502/503/504 responses and connection failures.
+ */
+public class RetryPolicy
+{
+    private int maxRetries = 3;
+
+    private long baseDelayMillis = 100;
+
+    private long maxDelayMillis = 5000;
+
+    private Set<String> methods = new HashSet<>( Arrays.asList( "GET", "HEAD", "DELETE" ) );
+
+    private Set<Integer> statuses = new HashSet<>( Arrays.asList( 502, 503, 504 ) );
+
+    private double budgetRatio = 0.2;
+
+    private int minRetriesPerSecond = 10;
+
+    public int getMaxRetries()
+    {
+        return maxRetries;
+    }
+
+    public void setMaxRetries( int maxRetries )
+    {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Upper bound of the first backoff; it doubles with each retry, and the actual delay is drawn at random below it.
+     */
+    public long getBaseDelayMillis()
+    {
+        return baseDelayMillis;
+    }
+
+    public void setBaseDelayMillis( long baseDelayMillis )
+    {
+        this.baseDelayMillis = baseDelayMillis;
+    }
+
+    /**
+     * Cap on any single backoff. A {@code Retry-After} asking for longer than this ends retrying.
+     */
+    public long getMaxDelayMillis()
+    {
+        return maxDelayMillis;
+    }
+
+    public void setMaxDelayMillis( long maxDelayMillis )
+    {
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public Set<String> getMethods()
+    {
+        return methods;
+    }
+
+    public void setMethods( Set<String> methods )
+    {
+        this.methods = methods;
+    }
+
+    public Set<Integer> getStatuses()
+    {
+        return statuses;
+    }
+
+    public void setStatuses( Set<Integer> statuses )
+    {
+        this.statuses = statuses;
+    }
+
+    /**
+     * Retries allowed per original request, on top of {@link #getMinRetriesPerSecond()}; see {@link RetryBudget}.
+     */
+    public double getBudgetRatio()
+    {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio( double budgetRatio )
+    {
+        this.budgetRatio = budgetRatio;
+    }
+
+    public int getMinRetriesPerSecond()
+    {
+        return minRetriesPerSecond;
+    }
+
+    public void setMinRetriesPerSecond( int minRetriesPerSecond )
+    {
+        this.minRetriesPerSecond = minRetriesPerSecond;
+    }
+}
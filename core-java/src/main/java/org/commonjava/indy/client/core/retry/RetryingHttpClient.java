@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.retry;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.commonjava.indy.client.core.deadline.Deadline;
+import org.commonjava.indy.client.core.limit.ConcurrencyLimitExceededException;
+import org.commonjava.indy.client.core.o11y.metric.ClientMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Retries requests allowed by a {@link RetryPolicy} after a retryable status or an I/O failure, with exponential
+ * backoff and full jitter, honouring {@code Retry-After} and drawing each retry from a shared {@link RetryBudget}.
+ * Timeouts and calls shed by the concurrency limit are not retried. When retrying stops, the last response (or
+ * failure) goes to the caller as before.
+ */
+public class RetryingHttpClient
+        extends CloseableHttpClient
+{
+    /**
+     * {@link HttpContext} attribute that, when {@link Boolean#TRUE}, sends the request once without retrying.
+     */
+    public static final String NO_RETRY = RetryingHttpClient.class.getName() + ".noRetry";
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final CloseableHttpClient delegate;
+
+    private final RetryPolicy policy;
+
+    private final RetryBudget budget;
+
+    public RetryingHttpClient( final CloseableHttpClient delegate, final RetryPolicy policy, final RetryBudget budget )
+    {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.budget = budget;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        budget.deposit();
+        final boolean retryable =
+                isRetryable( request ) && ( context == null || !Boolean.TRUE.equals( context.getAttribute( NO_RETRY ) ) );
+        final ClientMetrics metrics =
+                context == null ? null : (ClientMetrics) context.getAttribute( ClientMetrics.CONTEXT_KEY );
+
+        for ( int attempt = 0; ; attempt++ )
+        {
+            final boolean mayRetry = retryable && attempt < policy.getMaxRetries();
+
+            final CloseableHttpResponse response;
+            try
+            {
+                response = delegate.execute( target, request, context );
+            }
+            catch ( final InterruptedIOException | ConcurrencyLimitExceededException e )
+            {
+                throw e;
+            }
+            catch ( final IOException e )
+            {
+                final long delay = backoffMillis( attempt );
+                if ( !mayRetry || pastDeadline( delay ) || !withdraw( metrics ) )
+                {
+                    throw e;
+                }
+
+                backoff( attempt, delay, request, e, metrics );
+                continue;
+            }
+
+            final int status = response.getStatusLine().getStatusCode();
+            if ( !mayRetry || !policy.getStatuses().contains( status ) )
+            {
+                return response;
+            }
+
+            final long delay = retryAfterMillis( response, attempt );
+            if ( delay > policy.getMaxDelayMillis() || pastDeadline( delay ) || !withdraw( metrics ) )
+            {
+                return response;
+            }
+
+            EntityUtils.consumeQuietly( response.getEntity() );
+            closeQuietly( response );
+            backoff( attempt, delay, request, response.getStatusLine(), metrics );
+        }
+    }
+
+    private boolean isRetryable( final HttpRequest request )
+    {
+        if ( !policy.getMethods().contains( request.getRequestLine().getMethod() ) )
+        {
+            return false;
+        }
+
+        if ( request instanceof HttpEntityEnclosingRequest )
+        {
+            final HttpEntity entity = ( (HttpEntityEnclosingRequest) request ).getEntity();
+            return entity == null || entity.isRepeatable();
+        }
+
+        return true;
+    }
+
+    /**
+     * A retry that would start after the call's {@link Deadline} is not worth a retry token.
+     */
+    private boolean pastDeadline( final long delayMillis )
+    {
+        final Deadline deadline = Deadline.current();
+        return deadline != null && deadline.remainingMillis() <= delayMillis;
+    }
+
+    private boolean withdraw( final ClientMetrics metrics )
+    {
+        if ( budget.tryWithdraw() )
+        {
+            return true;
+        }
+
+        logger.debug( "Retry budget exhausted; not retrying" );
+        if ( metrics != null )
+        {
+            metrics.registerRetryBudgetExhausted();
+        }
+        return false;
+    }
+
+    private void backoff( final int attempt, final long delayMillis, final HttpRequest request, final Object reason,
+                          final ClientMetrics metrics )
+            throws InterruptedIOException
+    {
+        logger.debug( "Retrying {} in {}ms (retry {} of {}) after: {}", request.getRequestLine(), delayMillis,
+                      attempt + 1, policy.getMaxRetries(), reason );
+        if ( metrics != null )
+        {
+            metrics.registerRetry( attempt + 1, reason );
+        }
+
+        try
+        {
+            Thread.sleep( delayMillis );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while backing off before retry" );
+        }
+    }
+
+    /**
+     * Full jitter: a random delay below {@code min( max, base * 2^attempt )}.
+     */
+    private long backoffMillis( final int attempt )
+    {
+        final long ceiling = Math.min( policy.getMaxDelayMillis(),
+                                       policy.getBaseDelayMillis() << Math.min( attempt, 30 ) );
+        return ThreadLocalRandom.current().nextLong( ceiling + 1 );
+    }
+
+    private long retryAfterMillis( final CloseableHttpResponse response, final int attempt )
+    {
+        final Header header = response.getFirstHeader( HttpHeaders.RETRY_AFTER );
+        if ( header == null )
+        {
+            return backoffMillis( attempt );
+        }
+
+        final String value = header.getValue().trim();
+        try
+        {
+            return Math.max( 0, Long.parseLong( value ) * 1000 );
+        }
+        catch ( final NumberFormatException e )
+        {
+            final Date date = DateUtils.parseDate( value );
+            return date == null ? backoffMillis( attempt ) : Math.max( 0, date.getTime() - System.currentTimeMillis() );
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.schedule;
+
+import org.apache.commons.lang3.Strings;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.indy.client.core.deadline.Deadline;
+import org.commonjava.indy.client.core.helper.ReleasingHttpResponse;
+import org.commonjava.indy.client.core.o11y.metric.ClientTrafficClassifier;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Queues each call for a connection slot from a {@link RequestScheduler}, in the lane given by the current thread's
+ * {@link RequestPriority} or else by the {@link SchedulingPolicy}. The slot is held until the response has been read
+ * or closed. Calls matched by the {@code unscheduled} filter (those routed to a bulkhead pool, whose connections the
+ * scheduler's capacity does not cover) are sent straight away.
+ */
+public class PrioritySchedulingHttpClient
+        extends CloseableHttpClient
+{
+    public static final String REQUEST_PRIORITY = "request_priority";
+
+    public static final String SCHEDULE_WAIT_MS = "schedule_wait_ms";
+
+    private final CloseableHttpClient delegate;
+
+    private final RequestScheduler scheduler;
+
+    private final SchedulingPolicy policy;
+
+    private final long timeoutNanos;
+
+    private final ClientTrafficClassifier classifier = new ClientTrafficClassifier();
+
+    private final String basePath;
+
+    private final Predicate<HttpRequest> unscheduled;
+
+    public PrioritySchedulingHttpClient( final CloseableHttpClient delegate, final String baseUrl,
+                                         final RequestScheduler scheduler, final SchedulingPolicy policy,
+                                         final long timeoutMillis )
+    {
+        this( delegate, baseUrl, scheduler, policy, timeoutMillis, request -> false );
+    }
+
+    public PrioritySchedulingHttpClient( final CloseableHttpClient delegate, final String baseUrl,
+                                         final RequestScheduler scheduler, final SchedulingPolicy policy,
+                                         final long timeoutMillis, final Predicate<HttpRequest> unscheduled )
+    {
+        this.delegate = delegate;
+        this.unscheduled = unscheduled;
+        this.scheduler = scheduler;
+        this.policy = policy;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+        this.basePath = Strings.CS.removeEnd( URI.create( baseUrl ).getPath(), "/" );
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        if ( unscheduled.test( request ) )
+        {
+            return delegate.execute( target, request, context );
+        }
+
+        final RequestPriority priority = priorityOf( request );
+        final long waitNanos;
+        try
+        {
+            waitNanos = scheduler.acquire( priority, Deadline.cap( timeoutNanos, TimeUnit.NANOSECONDS ) );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for a connection slot" );
+        }
+
+        addFieldToCurrentSpan( REQUEST_PRIORITY, priority.name() );
+        addFieldToCurrentSpan( SCHEDULE_WAIT_MS, TimeUnit.NANOSECONDS.toMillis( waitNanos ) );
+
+        final CloseableHttpResponse response;
+        try
+        {
+            response = delegate.execute( target, request, context );
+        }
+        catch ( final IOException | RuntimeException e )
+        {
+            scheduler.release();
+            throw e;
+        }
+
+        return ReleasingHttpResponse.wrap( response, scheduler::release );
+    }
+
+    private RequestPriority priorityOf( final HttpRequest request )
+    {
+        final RequestPriority current = RequestPriority.current();
+        if ( current != null || !( request instanceof HttpUriRequest ) )
+        {
+            return current == null ? RequestPriority.NORMAL : current;
+        }
+
+        final HttpUriRequest req = (HttpUriRequest) request;
+        final String path = Strings.CS.removeStart( ClientTrafficClassifier.relativePath( req, basePath ), "/" );
+        final List<String> functions = classifier.calculateClassifiers( req, basePath );
+        return policy.priorityOf( path == null ? "" : path, functions.isEmpty() ? null : functions.get( 0 ) );
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.schedule;
+
+/**
+ * Lanes of the {@link RequestScheduler}, highest first. A priority can be set for the calls made on the current
+ * thread (and the async calls it starts):
+ * <pre>
+ * try ( RequestPriority.Scope scope = RequestPriority.LOW.apply() )
+ * {
+ *     indy.stores().listStores( StoreType.remote );
+ * }
+ * </pre>
+ * which takes precedence over the {@link SchedulingPolicy}.
+ */
+public enum RequestPriority
+{
+    HIGH, NORMAL, LOW;
+
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Applies this priority to calls from the current thread until the returned scope is closed.
+     */
+    public Scope apply()
+    {
+        final RequestPriority previous = CURRENT.get();
+        CURRENT.set( this );
+        return () -> setCurrent( previous );
+    }
+
+    /**
+     * @return the priority applied to the current thread, or null
+     */
+    public static RequestPriority current()
+    {
+        return CURRENT.get();
+    }
+
+    public static void setCurrent( final RequestPriority priority )
+    {
+        if ( priority == null )
+        {
+            CURRENT.remove();
+        }
+        else
+        {
+            CURRENT.set( priority );
+        }
+    }
+
+    public interface Scope
+            extends AutoCloseable
+    {
+        @Override
+        void close();
+    }
+}
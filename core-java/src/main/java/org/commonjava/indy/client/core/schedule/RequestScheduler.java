@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.schedule;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Hands out connection slots to waiting calls by priority lane, first come first served within a lane. A call that
+ * has waited longer than {@code maxWaitMillis} is served before any lane, so low priority work always moves.
+ */
+public class RequestScheduler
+{
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<RequestPriority, ArrayDeque<Waiter>> lanes = new EnumMap<>( RequestPriority.class );
+
+    private final IntSupplier capacity;
+
+    private final long maxWaitNanos;
+
+    private int inFlight;
+
+    private int waiting;
+
+    /**
+     * @param capacity the number of slots, read whenever one is handed out, so it may follow an adaptive limit
+     */
+    public RequestScheduler( final IntSupplier capacity, final long maxWaitMillis )
+    {
+        this.capacity = capacity;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos( maxWaitMillis );
+        for ( final RequestPriority priority : RequestPriority.values() )
+        {
+            lanes.put( priority, new ArrayDeque<>() );
+        }
+    }
+
+    /**
+     * Blocks until the call is given a slot.
+     *
+     * @return nanoseconds spent waiting
+     */
+    public long acquire( final RequestPriority priority, final long timeoutNanos )
+            throws InterruptedException, ConnectionPoolTimeoutException
+    {
+        return acquire( priority, timeoutNanos, System.nanoTime() );
+    }
+
+    long acquire( final RequestPriority priority, final long timeoutNanos, final long now )
+            throws InterruptedException, ConnectionPoolTimeoutException
+    {
+        lock.lock();
+        try
+        {
+            if ( waiting == 0 && inFlight < capacity.getAsInt() )
+            {
+                inFlight++;
+                return 0;
+            }
+
+            final Waiter waiter = new Waiter( lock.newCondition(), now );
+            lanes.get( priority ).addLast( waiter );
+            waiting++;
+            dispatch( now );
+
+            long remaining = timeoutNanos;
+            while ( !waiter.granted )
+            {
+                if ( remaining <= 0 )
+                {
+                    abandon( priority, waiter, now + timeoutNanos - remaining );
+                    throw new ConnectionPoolTimeoutException(
+                            "Timeout waiting for a " + priority + " priority slot, in flight: " + inFlight );
+                }
+
+                try
+                {
+                    remaining = waiter.condition.awaitNanos( remaining );
+                }
+                catch ( final InterruptedException e )
+                {
+                    abandon( priority, waiter, now + timeoutNanos - remaining );
+                    throw e;
+                }
+            }
+
+            return System.nanoTime() - now;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a waiter out of its lane, or if it was given a slot in the meantime, hands that to the next one. Called
+     * with the lock held.
+     */
+    private void abandon( final RequestPriority priority, final Waiter waiter, final long now )
+    {
+        if ( waiter.granted )
+        {
+            inFlight--;
+            dispatch( now );
+        }
+        else
+        {
+            lanes.get( priority ).remove( waiter );
+            waiting--;
+        }
+    }
+
+    public void release()
+    {
+        release( System.nanoTime() );
+    }
+
+    void release( final long now )
+    {
+        lock.lock();
+        try
+        {
+            inFlight--;
+            dispatch( now );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called with the lock held.
+     */
+    private void dispatch( final long now )
+    {
+        while ( waiting > 0 && inFlight < capacity.getAsInt() )
+        {
+            final Waiter next = next( now );
+            next.granted = true;
+            waiting--;
+            inFlight++;
+            next.condition.signal();
+        }
+    }
+
+    private Waiter next( final long now )
+    {
+        ArrayDeque<Waiter> oldest = null;
+        ArrayDeque<Waiter> highest = null;
+        for ( final ArrayDeque<Waiter> lane : lanes.values() )
+        {
+            final Waiter head = lane.peekFirst();
+            if ( head == null )
+            {
+                continue;
+            }
+            if ( highest == null )
+            {
+                highest = lane;
+            }
+            if ( oldest == null || head.enqueued - oldest.peekFirst().enqueued < 0 )
+            {
+                oldest = lane;
+            }
+        }
+
+        // starvation guard
+        if ( now - oldest.peekFirst().enqueued >= maxWaitNanos )
+        {
+            return oldest.pollFirst();
+        }
+        return highest.pollFirst();
+    }
+
+    /**
+     * @return the number of slots at the moment
+     */
+    public int getCapacity()
+    {
+        return capacity.getAsInt();
+    }
+
+    public int getInFlight()
+    {
+        lock.lock();
+        try
+        {
+            return inFlight;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting( final RequestPriority priority )
+    {
+        lock.lock();
+        try
+        {
+            return lanes.get( priority ).size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter
+    {
+        private final Condition condition;
+
+        private final long enqueued;
+
+        private boolean granted;
+
+        private Waiter( final Condition condition, final long enqueued )
+        {
+            this.condition = condition;
+            this.enqueued = enqueued;
+        }
+    }
+}
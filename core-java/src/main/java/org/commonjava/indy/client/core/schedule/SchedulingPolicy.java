@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.schedule;
+
+import org.apache.commons.lang3.Strings;
+import org.commonjava.indy.client.core.o11y.metric.ClientMetricConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for {@link PrioritySchedulingHttpClient}. Without path priorities, content reads run {@code HIGH}, store
+ * administration and folo reports {@code LOW}, and everything else {@code NORMAL}. Path prefixes are relative to the
+ * base URL; a module's base path, e.g. {@code IndyStoresClientModule.STORE_BASEPATH}, sets the priority for all of
+ * its calls. The longest matching prefix wins.
+ */
+public class SchedulingPolicy
+{
+    private static final Map<String, RequestPriority> FUNCTION_PRIORITIES = new HashMap<>();
+
+    static
+    {
+        FUNCTION_PRIORITIES.put( ClientMetricConstants.CLIENT_CONTENT, RequestPriority.HIGH );
+        FUNCTION_PRIORITIES.put( ClientMetricConstants.CLIENT_FOLO_CONTENT, RequestPriority.HIGH );
+        FUNCTION_PRIORITIES.put( ClientMetricConstants.CLIENT_REPO_MGMT, RequestPriority.LOW );
+        FUNCTION_PRIORITIES.put( ClientMetricConstants.CLIENT_FOLO_ADMIN, RequestPriority.LOW );
+    }
+
+    private Map<String, RequestPriority> pathPriorities = new HashMap<>();
+
+    private long maxWaitMillis = 2000;
+
+    public Map<String, RequestPriority> getPathPriorities()
+    {
+        return pathPriorities;
+    }
+
+    public void setPathPriorities( Map<String, RequestPriority> pathPriorities )
+    {
+        this.pathPriorities = pathPriorities;
+    }
+
+    public SchedulingPolicy setPriority( String pathPrefix, RequestPriority priority )
+    {
+        this.pathPriorities.put( pathPrefix, priority );
+        return this;
+    }
+
+    /**
+     * Starvation guard: a call that has waited this long goes next, whatever its lane.
+     */
+    public long getMaxWaitMillis()
+    {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis( long maxWaitMillis )
+    {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * @param path the request path below the base URL, without a leading slash
+     * @param function the client function of the request, or null
+     */
+    public RequestPriority priorityOf( final String path, final String function )
+    {
+        String match = null;
+        for ( final String prefix : pathPriorities.keySet() )
+        {
+            if ( path.startsWith( Strings.CS.removeStart( prefix, "/" ) ) && ( match == null
+                    || prefix.length() > match.length() ) )
+            {
+                match = prefix;
+            }
+        }
+
+        if ( match != null )
+        {
+            return pathPriorities.get( match );
+        }
+
+        final RequestPriority byFunction = function == null ? null : FUNCTION_PRIORITIES.get( function );
+        return byFunction == null ? RequestPriority.NORMAL : byFunction;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.tls;
+
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.function.Consumer;
+
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * The TLS socket factory of the blocking client, set up like {@link HandshakeTimingStrategy} ({@code https.protocols},
+ * {@code https.cipherSuites} and the site's {@link SSLContext}, or the JVM's default one), with each handshake timed
+ * and reported to {@link TlsSessionStats}.
+ */
+public class HandshakeTimingSocketFactory
+        extends SSLConnectionSocketFactory
+{
+    private final TlsSessionStats stats;
+
+    private final Consumer<Socket> timed;
+
+    /**
+     * @param sslContext the site's TLS context, or null for the JVM default
+     * @param timed told about each socket whose handshake was reported
+     */
+    public HandshakeTimingSocketFactory( final SSLContext sslContext, final TlsSessionStats stats,
+                                         final Consumer<Socket> timed )
+    {
+        super( sslContext != null ? sslContext : SSLContexts.createSystemDefault(),
+               HandshakeTimingStrategy.split( System.getProperty( "https.protocols" ) ),
+               HandshakeTimingStrategy.split( System.getProperty( "https.cipherSuites" ) ),
+               getDefaultHostnameVerifier() );
+        this.stats = stats;
+        this.timed = timed;
+    }
+
+    @Override
+    public Socket createLayeredSocket( final Socket socket, final String target, final int port,
+                                       final HttpContext context )
+            throws IOException
+    {
+        final long startedMillis = System.currentTimeMillis();
+        final long start = System.nanoTime();
+        final Socket layered = super.createLayeredSocket( socket, target, port, context );
+        if ( layered instanceof SSLSocket )
+        {
+            final boolean resumed = stats.handshakeCompleted( ( (SSLSocket) layered ).getSession(), startedMillis,
+                                                              System.nanoTime() - start );
+            addFieldToCurrentSpan( TlsSessionHttpClient.TLS_HANDSHAKE, resumed ? "resumed" : "full" );
+            timed.accept( layered );
+        }
+        return layered;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.tls;
+
+import org.apache.http.HttpHost;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.nio.reactor.ssl.SSLIOSession;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.TextUtils;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The TLS setup of the non-blocking client ({@code https.protocols}, {@code https.cipherSuites} and the site's
+ * {@link SSLContext}, or the JVM's default one, whose session cache all clients in the JVM share), with each
+ * handshake timed and reported to {@link TlsSessionStats}.
+ */
+public class HandshakeTimingStrategy
+        extends SSLIOSessionStrategy
+{
+    private final TlsSessionStats stats;
+
+    private final Map<IOSession, long[]> started = Collections.synchronizedMap( new WeakHashMap<>() );
+
+    public HandshakeTimingStrategy( final TlsSessionStats stats )
+    {
+        this( null, stats );
+    }
+
+    /**
+     * @param sslContext the site's TLS context, or null for the JVM default
+     */
+    public HandshakeTimingStrategy( final SSLContext sslContext, final TlsSessionStats stats )
+    {
+        super( sslContext != null ? sslContext : SSLContexts.createSystemDefault(),
+               split( System.getProperty( "https.protocols" ) ), split( System.getProperty( "https.cipherSuites" ) ),
+               getDefaultHostnameVerifier() );
+        this.stats = stats;
+    }
+
+    @Override
+    public SSLIOSession upgrade( final HttpHost host, final IOSession iosession )
+            throws IOException
+    {
+        started.put( iosession, new long[] { System.currentTimeMillis(), System.nanoTime() } );
+        return super.upgrade( host, iosession );
+    }
+
+    @Override
+    protected void verifySession( final HttpHost host, final IOSession iosession, final SSLSession sslsession )
+            throws SSLException
+    {
+        final long[] start = started.remove( iosession );
+        if ( start != null )
+        {
+            stats.handshakeCompleted( sslsession, start[0], System.nanoTime() - start[1] );
+        }
+        super.verifySession( host, iosession, sslsession );
+    }
+
+    static String[] split( final String s )
+    {
+        return TextUtils.isBlank( s ) ? null : s.split( " *, *" );
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.tls;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Lookup;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import static org.commonjava.indy.client.core.o11y.trace.TraceManager.addFieldToCurrentSpan;
+
+/**
+ * Reports the TLS handshake of each pooled connection. Each request carries a socket factory registry in its context
+ * (which the pool's connection operator prefers over the one jHTTPc registered), so new TLS connections are made by a
+ * {@link HandshakeTimingSocketFactory} that times the handshake. Connections made some other way, e.g. when the
+ * caller's context brings its own registry, are reported untimed, as full or resumed, the first time a request runs
+ * on them.
+ */
+public class TlsSessionHttpClient
+        extends CloseableHttpClient
+{
+    public static final String TLS_HANDSHAKE = "tls_handshake";
+
+    /**
+     * The context attribute {@link org.apache.http.impl.conn.DefaultHttpClientConnectionOperator} looks up first.
+     */
+    static final String SOCKET_FACTORY_REGISTRY = "http.socket-factory-registry";
+
+    private final CloseableHttpClient delegate;
+
+    private final TlsSessionStats stats;
+
+    private final Set<Socket> seen = Collections.synchronizedSet( Collections.newSetFromMap( new WeakHashMap<>() ) );
+
+    private final Lookup<ConnectionSocketFactory> socketFactories;
+
+    /**
+     * @param sslContext the site's TLS context, or null for the JVM default
+     */
+    public TlsSessionHttpClient( final CloseableHttpClient delegate, final TlsSessionStats stats,
+                                 final SSLContext sslContext )
+    {
+        this.delegate = delegate;
+        this.stats = stats;
+        this.socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                                              .register( "http", PlainConnectionSocketFactory.getSocketFactory() )
+                                              .register( "https", new HandshakeTimingSocketFactory( sslContext, stats,
+                                                                                                    seen::add ) )
+                                              .build();
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                               final HttpContext context )
+            throws IOException
+    {
+        final HttpClientContext ctx = context == null ? HttpClientContext.create() : HttpClientContext.adapt( context );
+        if ( ctx.getAttribute( SOCKET_FACTORY_REGISTRY ) == null )
+        {
+            ctx.setAttribute( SOCKET_FACTORY_REGISTRY, socketFactories );
+        }
+        final long start = System.currentTimeMillis();
+        final CloseableHttpResponse response = delegate.execute( target, request, ctx );
+
+        final ManagedHttpClientConnection conn = connection( ctx );
+        final SSLSession session = conn == null ? null : conn.getSSLSession();
+        if ( session != null && seen.add( conn.getSocket() ) )
+        {
+            final boolean resumed = stats.handshakeCompleted( session, start, -1 );
+            addFieldToCurrentSpan( TLS_HANDSHAKE, resumed ? "resumed" : "full" );
+        }
+        return response;
+    }
+
+    /**
+     * As in {@link org.commonjava.indy.client.core.helper.EvictingHttpClient}, a connection already handed back to
+     * the pool can't be looked at; it will be seen on its next use.
+     */
+    private ManagedHttpClientConnection connection( final HttpClientContext context )
+    {
+        try
+        {
+            return context.getConnection( ManagedHttpClientConnection.class );
+        }
+        catch ( final RuntimeException e )
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams()
+    {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager()
+    {
+        return delegate.getConnectionManager();
+    }
+}
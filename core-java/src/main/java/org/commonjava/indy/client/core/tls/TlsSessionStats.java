@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.tls;
+
+import javax.net.ssl.SSLSession;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TLS handshakes made by one client's connections. A handshake whose session is older than the connection attempt
+ * resumed a cached session; anything else was a full handshake. Handshake time is only known where the client's own
+ * socket factory made the connection (see {@link HandshakeTimingSocketFactory} and {@link HandshakeTimingStrategy}).
+ */
+public class TlsSessionStats
+{
+    private final AtomicLong fullHandshakes = new AtomicLong();
+
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+
+    private final AtomicLong timedHandshakes = new AtomicLong();
+
+    private final AtomicLong handshakeNanos = new AtomicLong();
+
+    /**
+     * @param startedMillis wall-clock time at which the connection attempt started
+     * @param durationNanos time taken by the handshake, or a negative value if not measured
+     * @return whether the session was resumed
+     */
+    public boolean handshakeCompleted( final SSLSession session, final long startedMillis, final long durationNanos )
+    {
+        final boolean resumed = session.getCreationTime() < startedMillis;
+        ( resumed ? resumedHandshakes : fullHandshakes ).incrementAndGet();
+        if ( durationNanos >= 0 )
+        {
+            timedHandshakes.incrementAndGet();
+            handshakeNanos.addAndGet( durationNanos );
+        }
+        return resumed;
+    }
+
+    public long getFullHandshakes()
+    {
+        return fullHandshakes.get();
+    }
+
+    public long getResumedHandshakes()
+    {
+        return resumedHandshakes.get();
+    }
+
+    /**
+     * Mean time of the measured handshakes, or zero if none were.
+     */
+    public double getMeanHandshakeMillis()
+    {
+        final long timed = timedHandshakes.get();
+        return timed == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros( handshakeNanos.get() ) / timed / 1000;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.util;
+
+import io.opentelemetry.context.Context;
+import org.commonjava.indy.client.core.deadline.Deadline;
+import org.commonjava.indy.client.core.schedule.RequestPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used to run blocking client calls off the caller's thread.
+ */
+public final class BlockingExecutors
+{
+    private BlockingExecutors()
+    {
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when the running JVM provides one (Java 21+). The client is built
+     * for Java 11, so the factory is looked up reflectively; on older runtimes this falls back to
+     * {@link #newPlatformThreadExecutor()}.
+     */
+    public static ExecutorService newVirtualThreadExecutor()
+    {
+        try
+        {
+            Method factory = Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" );
+            return (ExecutorService) factory.invoke( null );
+        }
+        catch ( ReflectiveOperationException e )
+        {
+            Logger logger = LoggerFactory.getLogger( BlockingExecutors.class );
+            logger.warn( "Virtual threads are not available in this JVM ({}); using platform threads instead.",
+                         System.getProperty( "java.version" ) );
+            return newPlatformThreadExecutor();
+        }
+    }
+
+    public static ExecutorService newPlatformThreadExecutor()
+    {
+        final AtomicInteger counter = new AtomicInteger( 0 );
+        return Executors.newCachedThreadPool( r -> {
+            Thread t = new Thread( r, "indy-client-blocking-" + counter.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        } );
+    }
+
+    /**
+     * Wraps a task so that it runs with the submitting thread's {@link ThreadContext}, logging MDC, tracing
+     * {@link Context}, {@link RequestPriority} and {@link Deadline}. These are all thread-local, and new (virtual or
+     * pooled) threads don't inherit them.
+     */
+    public static <T> Callable<T> withCallerContext( final Callable<T> task )
+    {
+        final ThreadContext threadContext = ThreadContext.getContext( false );
+        final Map<String, String> mdc = MDC.getCopyOfContextMap();
+        final RequestPriority priority = RequestPriority.current();
+        final Deadline deadline = Deadline.current();
+        final Callable<T> traced = Context.current().wrap( task );
+
+        return () -> {
+            final Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            ThreadContext.setContext( threadContext );
+            setMdc( mdc );
+            RequestPriority.setCurrent( priority );
+            Deadline.setCurrent( deadline );
+            try
+            {
+                return traced.call();
+            }
+            finally
+            {
+                RequestPriority.setCurrent( null );
+                Deadline.setCurrent( null );
+                ThreadContext.clearContext();
+                setMdc( previousMdc );
+            }
+        };
+    }
+
+    /**
+     * Pooled threads keep their MDC between tasks, so a null map clears it rather than leaving the last task's.
+     */
+    private static void setMdc( final Map<String, String> mdc )
+    {
+        if ( mdc == null )
+        {
+            MDC.clear();
+        }
+        else
+        {
+            MDC.setContextMap( mdc );
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.util;
+
+import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.SSLContexts;
+import org.commonjava.util.jhttpc.JHttpCException;
+import org.commonjava.util.jhttpc.auth.PasswordKey;
+import org.commonjava.util.jhttpc.auth.PasswordManager;
+import org.commonjava.util.jhttpc.auth.PasswordType;
+import org.commonjava.util.jhttpc.model.SiteConfig;
+import org.commonjava.util.jhttpc.model.SiteTrustType;
+import org.commonjava.util.jhttpc.util.SSLUtils;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+/**
+ * Builds the TLS context a {@link SiteConfig} describes (client key and certificate, trusted server certificates,
+ * trust policy) the same way jHTTPc does for its pooled client, for the transports that don't go through jHTTPc.
+ */
+public final class SiteSslContexts
+{
+    private SiteSslContexts()
+    {
+    }
+
+    /**
+     * @return the site's TLS context, or null when the site configures none and the JVM defaults apply
+     */
+    public static SSLContext fromSite( final SiteConfig site, final PasswordManager passwords )
+            throws JHttpCException
+    {
+        final String keyCertPem = site.getKeyCertPem();
+        final String serverCertPem = site.getServerCertPem();
+        final boolean trustSelfSigned = site.getTrustType() == SiteTrustType.TRUST_SELF_SIGNED;
+        if ( keyCertPem == null && serverCertPem == null && !trustSelfSigned )
+        {
+            return null;
+        }
+
+        try
+        {
+            final SSLContextBuilder builder = SSLContexts.custom();
+            if ( keyCertPem != null )
+            {
+                final String keyPass =
+                        passwords == null ? null : passwords.lookup( new PasswordKey( site, PasswordType.KEY ) );
+                final KeyStore keys = SSLUtils.readKeyAndCert( keyCertPem, keyPass );
+                builder.loadKeyMaterial( keys, keyPass == null ? new char[0] : keyPass.toCharArray() );
+            }
+
+            final KeyStore trusted = serverCertPem == null ?
+                    null :
+                    SSLUtils.decodePEMTrustStore( serverCertPem, URI.create( site.getUri() ).getHost() );
+            builder.loadTrustMaterial( trusted, trustSelfSigned ? new TrustSelfSignedStrategy() : null );
+            return builder.build();
+        }
+        catch ( final IOException | GeneralSecurityException e )
+        {
+            throw new JHttpCException( "Failed to set up TLS for site: %s. Reason: %s", e, site.getId(),
+                                       e.getMessage() );
+        }
+    }
+}
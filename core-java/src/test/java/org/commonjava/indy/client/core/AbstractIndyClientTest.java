@@ -32,21 +32,28 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.commonjava.indy.client.core.util.UrlUtils.normalizePath;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 public abstract class AbstractIndyClientTest
 {
     private static final String BASE_STORE_PATH = "/api/admin/stores";
 
+    private static final String CONTENT_PATH = "/api/content/maven/hosted/local-deployments/org/foo/1/foo-1.pom";
+
     @Rule
     public ExpectationServer server = new ExpectationServer();
 
@@ -99,6 +106,72 @@ public abstract class AbstractIndyClientTest
         assertThat( group.getType(), equalTo( StoreType.group ) );
     }
 
+    @Test
+    public void testLoadStoreAsync()
+            throws Exception
+    {
+        String path = normalizePath( BASE_STORE_PATH, "maven/remote/central" );
+        server.expect( path, 200, readResource( "repo-service/remote-central.json" ) );
+        StoreKey key = StoreKey.fromString( "maven:remote:central" );
+        RemoteRepository remote = client.module( IndyStoresClientModule.class )
+                                        .loadAsync( key, RemoteRepository.class )
+                                        .get( 30, TimeUnit.SECONDS );
+        assertNotNull( remote );
+        assertThat( remote.getKey(), equalTo( key ) );
+        assertThat( remote.getType(), equalTo( StoreType.remote ) );
+    }
+
+    @Test
+    public void testLoadStoreAsyncServerError()
+            throws Exception
+    {
+        String path = normalizePath( BASE_STORE_PATH, "maven/remote/broken" );
+        server.expect( path, 500, "broken" );
+        StoreKey key = StoreKey.fromString( "maven:remote:broken" );
+        try
+        {
+            client.module( IndyStoresClientModule.class )
+                  .loadAsync( key, RemoteRepository.class )
+                  .get( 30, TimeUnit.SECONDS );
+            fail( "500 response should complete the load exceptionally" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertThat( ( (IndyClientException) e.getCause() ).getStatusCode(), equalTo( 500 ) );
+        }
+    }
+
+    @Test
+    public void testStoreContentAsync()
+            throws Exception
+    {
+        server.expect( "PUT", CONTENT_PATH, 201, "" );
+        client.content()
+              .storeAsync( StoreKey.fromString( "maven:hosted:local-deployments" ), "org/foo/1/foo-1.pom",
+                           new ByteArrayInputStream( "<project/>".getBytes( StandardCharsets.UTF_8 ) ) )
+              .get( 30, TimeUnit.SECONDS );
+        assertThat( server.getAccessesFor( "PUT", CONTENT_PATH ), equalTo( 1 ) );
+    }
+
+    @Test
+    public void testStoreContentAsyncErrorStatus()
+            throws Exception
+    {
+        server.expect( "PUT", CONTENT_PATH, 404, "no such repository" );
+        try
+        {
+            client.content()
+                  .storeAsync( StoreKey.fromString( "maven:hosted:local-deployments" ), "org/foo/1/foo-1.pom",
+                               new ByteArrayInputStream( "<project/>".getBytes( StandardCharsets.UTF_8 ) ) )
+                  .get( 30, TimeUnit.SECONDS );
+            fail( "404 response should complete the store exceptionally" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertThat( ( (IndyClientException) e.getCause() ).getStatusCode(), equalTo( 404 ) );
+        }
+    }
+
     static String readResource( final String resourcePath )
             throws IOException
     {
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core;
+
+import com.sun.net.httpserver.HttpServer;
+import org.commonjava.indy.client.core.balance.IndyNode;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.util.jhttpc.auth.MemoryPasswordManager;
+import org.commonjava.util.jhttpc.model.SiteConfig;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IndyClientHttpHealthCheckTest
+{
+    private static final String PROBE = "GET /api/stats/version-info";
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch release = new CountDownLatch( 1 );
+
+    private HttpServer server;
+
+    private IndyClientHttp http;
+
+    @Before
+    public void start()
+            throws IOException
+    {
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        server.createContext( "/api", exchange -> {
+            requests.add( exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() );
+            if ( exchange.getRequestURI().getPath().endsWith( "/slow" ) )
+            {
+                try
+                {
+                    release.await( 10, TimeUnit.SECONDS );
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders( 200, -1 );
+            exchange.close();
+        } );
+        server.setExecutor( Executors.newCachedThreadPool() );
+        server.start();
+    }
+
+    @After
+    public void stop()
+    {
+        release.countDown();
+        if ( http != null )
+        {
+            http.close();
+        }
+        server.stop( 0 );
+    }
+
+    @Test
+    public void probesSkipTheLimitersAboveThePool()
+            throws Exception
+    {
+        final SiteConfig node = new SiteConfigBuilder( "node", baseUrl() ).withMaxConnections( 4 ).build();
+        http = IndyClientHttp.builder()
+                             .setLocation( node )
+                             .setNodes( Collections.singletonList( node ) )
+                             .setHealthCheckInterval( 500 )
+                             .setConcurrencyLimit( 1, 1, 0 )
+                             .setObjectMapper( new IndyObjectMapper( Collections.emptySet() ) )
+                             .setPasswordManager( new MemoryPasswordManager() )
+                             .setApiVersion( "1" )
+                             .setHttp2Transport( true )
+                             .build();
+
+        // start the slow call between two probes, so it is the one holding the only permit
+        assertThat( http.exists( "fast" ), equalTo( true ) );
+        awaitRequests( PROBE, 1 );
+        Thread.sleep( 50 );
+        final ExecutorService caller = Executors.newSingleThreadExecutor();
+        final Future<Boolean> slow = caller.submit( () -> http.exists( "slow" ) );
+        awaitRequests( "HEAD /api/slow", 1 );
+        awaitRequests( PROBE, 2 );
+        Thread.sleep( 100 );
+
+        final IndyNode indyNode = http.getNodes().get( 0 );
+        assertThat( requests, hasItem( "HEAD /api/slow" ) );
+        assertThat( indyNode.isHealthy(), equalTo( true ) );
+
+        release.countDown();
+        assertThat( slow.get( 10, TimeUnit.SECONDS ), equalTo( true ) );
+        caller.shutdown();
+    }
+
+    private void awaitRequests( final String request, final int count )
+            throws InterruptedException
+    {
+        final long until = System.currentTimeMillis() + 5000;
+        while ( requests.stream().filter( request::equals ).count() < count && System.currentTimeMillis() < until )
+        {
+            Thread.sleep( 10 );
+        }
+    }
+
+    private String baseUrl()
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+}
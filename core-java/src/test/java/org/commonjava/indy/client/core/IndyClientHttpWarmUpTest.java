@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core;
+
+import com.sun.net.httpserver.HttpServer;
+import org.commonjava.indy.client.core.retry.RetryPolicy;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.util.jhttpc.auth.MemoryPasswordManager;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.everyItem;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IndyClientHttpWarmUpTest
+{
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private volatile int status = 200;
+
+    private HttpServer server;
+
+    private IndyClientHttp http;
+
+    @Before
+    public void start()
+            throws IOException
+    {
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        server.createContext( "/api", exchange -> {
+            requests.add( exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() );
+            exchange.sendResponseHeaders( status, -1 );
+            exchange.close();
+        } );
+        server.setExecutor( Executors.newCachedThreadPool() );
+        server.start();
+    }
+
+    @After
+    public void stop()
+    {
+        if ( http != null )
+        {
+            http.close();
+        }
+        server.stop( 0 );
+    }
+
+    @Test
+    public void warmUpIsCappedByThePoolSize()
+            throws Exception
+    {
+        http = newClient( 3 ).build();
+
+        http.warmUp( 10, "stats/version-info" );
+
+        assertThat( requests.size(), equalTo( 3 ) );
+        assertThat( requests, everyItem( equalTo( "GET /api/stats/version-info" ) ) );
+    }
+
+    @Test
+    public void warmUpWithoutPathSendsHeadOfTheBaseUrl()
+            throws Exception
+    {
+        http = newClient( 2 ).build();
+
+        http.warmUp( 2, null );
+
+        assertThat( requests.size(), equalTo( 2 ) );
+        assertThat( requests, everyItem( equalTo( "HEAD /api" ) ) );
+    }
+
+    @Test
+    public void warmUpIsNotRetried()
+            throws Exception
+    {
+        status = 503;
+        final RetryPolicy retries = new RetryPolicy();
+        retries.setBaseDelayMillis( 1 );
+        http = newClient( 2 ).setRetryPolicy( retries ).build();
+
+        http.warmUp( 2, "stats/version-info" );
+
+        assertThat( requests.size(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void warmUpIsCappedByTheConcurrencyLimit()
+            throws Exception
+    {
+        http = newClient( 8 ).setConcurrencyLimit( 2, 2, 0 ).build();
+
+        http.warmUp( 8, "stats/version-info" );
+
+        assertThat( requests.size(), equalTo( 2 ) );
+    }
+
+    private IndyClientHttp.Builder newClient( final int maxConnections )
+    {
+        return IndyClientHttp.builder()
+                             .setLocation( new SiteConfigBuilder( "indy", baseUrl() ).withMaxConnections(
+                                     maxConnections ).build() )
+                             .setObjectMapper( new IndyObjectMapper( Collections.emptySet() ) )
+                             .setPasswordManager( new MemoryPasswordManager() )
+                             .setApiVersion( "1" )
+                             .setHttp2Transport( true );
+    }
+
+    private String baseUrl()
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+}
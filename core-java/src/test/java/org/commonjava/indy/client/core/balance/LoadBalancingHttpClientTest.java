@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.balance;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.util.jhttpc.HttpFactoryIfc;
+import org.commonjava.util.jhttpc.model.SiteConfig;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.everyItem;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoadBalancingHttpClientTest
+{
+    private static final String BASE_URL = "http://indy.example.com/api";
+
+    private final IndyNode nodeA = new IndyNode( new SiteConfigBuilder( "a", "http://node-a:8080/api/" ).build() );
+
+    private final IndyNode nodeB = new IndyNode( new SiteConfigBuilder( "b", "http://node-b:8080/api" ).build() );
+
+    private final NodeFactory factory = new NodeFactory();
+
+    @Test
+    public void failingNodeIsEjectedAndTrafficMovesToTheOthers()
+            throws Exception
+    {
+        factory.statuses.put( "b", 503 );
+        final LoadBalancingHttpClient client =
+                new LoadBalancingHttpClient( BASE_URL, Arrays.asList( nodeA, nodeB ), new RoundRobinStrategy(),
+                                             factory );
+
+        for ( int i = 0; i < 2 * IndyNode.EJECT_AFTER_FAILURES; i++ )
+        {
+            client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        }
+        assertThat( nodeA.isHealthy(), equalTo( true ) );
+        assertThat( nodeB.isHealthy(), equalTo( false ) );
+
+        factory.uris.clear();
+        for ( int i = 0; i < 4; i++ )
+        {
+            client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        }
+        assertThat( factory.uris, everyItem( equalTo( "http://node-a:8080/api/stats/version-info" ) ) );
+        assertThat( factory.uris.size(), equalTo( 4 ) );
+        assertThat( nodeA.getOutstanding(), equalTo( 0 ) );
+        assertThat( nodeB.getOutstanding(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void ejectedNodeIsReadmittedWithoutHealthChecks()
+            throws Exception
+    {
+        nodeB.setReadmitAfterMillis( 100 );
+        factory.statuses.put( "b", 503 );
+        final LoadBalancingHttpClient client =
+                new LoadBalancingHttpClient( BASE_URL, Arrays.asList( nodeA, nodeB ), new RoundRobinStrategy(),
+                                             factory );
+
+        for ( int i = 0; i < 2 * IndyNode.EJECT_AFTER_FAILURES; i++ )
+        {
+            client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        }
+        assertThat( nodeB.isHealthy(), equalTo( false ) );
+
+        Thread.sleep( 150 );
+        assertThat( nodeB.isHealthy(), equalTo( true ) );
+
+        // a failure on trial ejects the node for another spell
+        client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        assertThat( nodeB.isHealthy(), equalTo( false ) );
+
+        Thread.sleep( 150 );
+        factory.statuses.remove( "b" );
+        factory.uris.clear();
+        for ( int i = 0; i < 4; i++ )
+        {
+            client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        }
+        assertThat( factory.uris, hasItem( startsWith( "http://node-b:8080/api/" ) ) );
+
+        nodeB.setReadmitAfterMillis( 0 );
+        assertThat( nodeB.isHealthy(), equalTo( true ) );
+    }
+
+    @Test
+    public void allNodesAreTriedWhenNoneIsHealthy()
+            throws Exception
+    {
+        factory.statuses.put( "a", 503 );
+        factory.statuses.put( "b", 503 );
+        final LoadBalancingHttpClient client =
+                new LoadBalancingHttpClient( BASE_URL, Arrays.asList( nodeA, nodeB ), new RoundRobinStrategy(),
+                                             factory );
+
+        for ( int i = 0; i < 2 * IndyNode.EJECT_AFTER_FAILURES; i++ )
+        {
+            client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        }
+        assertThat( nodeA.isHealthy() || nodeB.isHealthy(), equalTo( false ) );
+
+        factory.uris.clear();
+        client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        client.execute( new HttpGet( BASE_URL + "/stats/version-info" ) ).close();
+        assertThat( factory.uris.get( 1 ), not( equalTo( factory.uris.get( 0 ) ) ) );
+    }
+
+    @Test
+    public void pinnedNodeBypassesTheStrategy()
+            throws Exception
+    {
+        final LoadBalancingHttpClient client =
+                new LoadBalancingHttpClient( BASE_URL, Arrays.asList( nodeA, nodeB ), new RoundRobinStrategy(),
+                                             factory );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            final HttpClientContext context = HttpClientContext.create();
+            context.setAttribute( LoadBalancingHttpClient.TARGET_NODE, nodeB );
+            client.execute( new HttpGet( BASE_URL + "/admin/stores/maven/remote/central" ), context ).close();
+        }
+        assertThat( factory.uris, everyItem( startsWith( "http://node-b:8080/api/admin/" ) ) );
+    }
+
+    private static final class NodeFactory
+            implements HttpFactoryIfc
+    {
+        private final Map<String, Integer> statuses = new HashMap<>();
+
+        private final List<String> uris = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CloseableHttpClient createClient()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CloseableHttpClient createClient( final SiteConfig location )
+        {
+            return new NodeClient( location.getId() );
+        }
+
+        @Override
+        public CloseableHttpClient createClient( final SiteConfig location, final List<Header> defaultHeaders )
+        {
+            return createClient( location );
+        }
+
+        @Override
+        public HttpClientContext createContext()
+        {
+            return HttpClientContext.create();
+        }
+
+        @Override
+        public HttpClientContext createContext( final SiteConfig location )
+        {
+            return HttpClientContext.create();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public boolean isShutdown()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean shutdownNow()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean shutdownGracefully( final long timeoutMillis )
+        {
+            return true;
+        }
+
+        private final class NodeClient
+                extends CloseableHttpClient
+        {
+            private final String id;
+
+            private NodeClient( final String id )
+            {
+                this.id = id;
+            }
+
+            @Override
+            protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                                       final HttpContext context )
+            {
+                uris.add( ( (HttpUriRequest) request ).getURI().toString() );
+                final Response response = new Response( statuses.getOrDefault( id, 200 ) );
+                response.setEntity( new StringEntity( "{}", "UTF-8" ) );
+                return response;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+
+            @Override
+            @Deprecated
+            public HttpParams getParams()
+            {
+                return null;
+            }
+
+            @Override
+            @Deprecated
+            public ClientConnectionManager getConnectionManager()
+            {
+                return null;
+            }
+        }
+    }
+
+    private static final class Response
+            extends BasicHttpResponse
+            implements CloseableHttpResponse
+    {
+        private Response( final int status )
+        {
+            super( HttpVersion.HTTP_1_1, status, "" );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
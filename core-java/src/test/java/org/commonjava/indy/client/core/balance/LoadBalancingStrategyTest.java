@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.balance;
+
+import org.apache.http.client.methods.HttpGet;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoadBalancingStrategyTest
+{
+    private final List<IndyNode> nodes = Arrays.asList( node( "a" ), node( "b" ), node( "c" ) );
+
+    @Test
+    public void roundRobinVisitsEveryNode()
+    {
+        RoundRobinStrategy strategy = new RoundRobinStrategy();
+        for ( int i = 0; i < 6; i++ )
+        {
+            assertThat( strategy.select( nodes, null ), sameInstance( nodes.get( i % 3 ) ) );
+        }
+    }
+
+    @Test
+    public void leastOutstandingPicksIdlestNode()
+    {
+        nodes.get( 0 ).requestStarted();
+        nodes.get( 0 ).requestStarted();
+        nodes.get( 2 ).requestStarted();
+
+        assertThat( new LeastOutstandingStrategy().select( nodes, null ), sameInstance( nodes.get( 1 ) ) );
+    }
+
+    @Test
+    public void nodeEjectedAfterRepeatedFailures()
+    {
+        IndyNode node = nodes.get( 0 );
+        for ( int i = 0; i < IndyNode.EJECT_AFTER_FAILURES; i++ )
+        {
+            assertThat( node.isHealthy(), equalTo( true ) );
+            node.failed();
+        }
+        assertThat( node.isHealthy(), equalTo( false ) );
+
+        node.restore();
+        assertThat( node.isHealthy(), equalTo( true ) );
+    }
+
+    @Test
+    public void consistentHashPinsContentPath()
+    {
+        ConsistentHashStrategy strategy = new ConsistentHashStrategy();
+        HttpGet get = new HttpGet( "http://indy.example.com/api/content/maven/hosted/build-1/org/foo/1/foo-1.jar" );
+
+        IndyNode owner = strategy.select( nodes, get );
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertThat( strategy.select( nodes, get ), sameInstance( owner ) );
+        }
+
+        HttpGet tracked =
+                new HttpGet( "http://indy.example.com/api/folo/track/abc/maven/hosted/build-1/org/foo/1/foo-1.jar" );
+        assertThat( strategy.select( nodes, tracked ), sameInstance( owner ) );
+    }
+
+    @Test
+    public void consistentHashMovesKeyOffOverloadedNode()
+    {
+        ConsistentHashStrategy strategy = new ConsistentHashStrategy();
+        HttpGet get = new HttpGet( "http://indy.example.com/api/content/maven/hosted/build-1/org/foo/1/foo-1.jar" );
+
+        IndyNode owner = strategy.select( nodes, get );
+        for ( int i = 0; i < 10; i++ )
+        {
+            owner.requestStarted();
+        }
+
+        assertThat( strategy.select( nodes, get ) == owner, equalTo( false ) );
+    }
+
+    @Test
+    public void consistentHashLeavesAdminTrafficToFallback()
+    {
+        HttpGet admin = new HttpGet( "http://indy.example.com/api/admin/stores/maven/hosted/content" );
+        assertThat( ConsistentHashStrategy.routingKey( admin ), nullValue() );
+
+        HttpGet content = new HttpGet( "http://indy.example.com/api/content/maven/hosted/build-1/a.pom" );
+        assertThat( ConsistentHashStrategy.routingKey( content ), equalTo( "maven/hosted/build-1/a.pom" ) );
+    }
+
+    private static IndyNode node( String id )
+    {
+        return new IndyNode( new SiteConfigBuilder( id, "http://" + id + ".example.com/api" ).build() );
+    }
+}
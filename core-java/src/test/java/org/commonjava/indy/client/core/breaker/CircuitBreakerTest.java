@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.breaker;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest
+{
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+    private CircuitBreaker newBreaker()
+    {
+        CircuitBreakerConfig config = new CircuitBreakerConfig();
+        config.setWindowSize( 10 );
+        config.setMinimumCalls( 4 );
+        config.setFailureRateThreshold( 0.5 );
+        config.setSlowCallMillis( 100 );
+        config.setSlowCallRateThreshold( 0.75 );
+        config.setOpenMillis( 1000 );
+        config.setHalfOpenProbes( 2 );
+        return new CircuitBreaker( "client.promote", config );
+    }
+
+    @Test
+    public void opensOnFailureRateAndFailsFast()
+            throws Exception
+    {
+        CircuitBreaker breaker = newBreaker();
+        for ( int i = 0; i < 4; i++ )
+        {
+            breaker.record( breaker.acquire( 0 ), i % 2 == 0, MS, 0 );
+        }
+
+        assertThat( breaker.getState(), equalTo( CircuitBreaker.State.OPEN ) );
+        try
+        {
+            breaker.acquire( 500 * MS );
+            fail( "Open breaker let a call through" );
+        }
+        catch ( CircuitBreakerOpenException e )
+        {
+            assertThat( e.getTrafficClass(), equalTo( "client.promote" ) );
+        }
+    }
+
+    @Test
+    public void opensOnSlowCalls()
+            throws Exception
+    {
+        CircuitBreaker breaker = newBreaker();
+        for ( int i = 0; i < 3; i++ )
+        {
+            breaker.record( breaker.acquire( 0 ), false, 200 * MS, 0 );
+        }
+        assertThat( breaker.getState(), equalTo( CircuitBreaker.State.CLOSED ) );
+
+        breaker.record( breaker.acquire( 0 ), false, 200 * MS, 0 );
+        assertThat( breaker.getState(), equalTo( CircuitBreaker.State.OPEN ) );
+    }
+
+    @Test
+    public void halfOpenProbesCloseOrReopen()
+            throws Exception
+    {
+        CircuitBreaker breaker = newBreaker();
+        for ( int i = 0; i < 4; i++ )
+        {
+            breaker.record( breaker.acquire( 0 ), true, MS, 0 );
+        }
+
+        long now = 1000 * MS;
+        long probe = breaker.acquire( now );
+        assertThat( breaker.getState(), equalTo( CircuitBreaker.State.HALF_OPEN ) );
+        breaker.record( probe, true, MS, now );
+        assertThat( breaker.getState(), equalTo( CircuitBreaker.State.OPEN ) );
+
+        now += 1000 * MS;
+        long first = breaker.acquire( now );
+        long second = breaker.acquire( now );
+        try
+        {
+            breaker.acquire( now );
+            fail( "Half-open breaker let more than its probes through" );
+        }
+        catch ( CircuitBreakerOpenException e )
+        {
+            // expected
+        }
+
+        breaker.record( first, false, MS, now );
+        breaker.record( second, false, MS, now );
+        assertThat( breaker.getState(), equalTo( CircuitBreaker.State.CLOSED ) );
+    }
+
+    @Test
+    public void ignoresResultsFromAnEarlierState()
+            throws Exception
+    {
+        CircuitBreaker breaker = newBreaker();
+        long stale = breaker.acquire( 0 );
+        for ( int i = 0; i < 4; i++ )
+        {
+            breaker.record( breaker.acquire( 0 ), true, MS, 0 );
+        }
+
+        long now = 1000 * MS;
+        breaker.acquire( now );
+        breaker.record( stale, false, MS, now );
+        breaker.record( stale, false, MS, now );
+        assertThat( breaker.getState(), equalTo( CircuitBreaker.State.HALF_OPEN ) );
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.bulkhead;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.commonjava.util.jhttpc.HttpFactoryIfc;
+import org.commonjava.util.jhttpc.model.SiteConfig;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.commonjava.indy.client.core.o11y.metric.ClientMetricConstants.CLIENT_CONTENT;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BulkheadHttpClientTest
+{
+    private static final String BASE_URL = "http://indy.example.com/api";
+
+    private final SiteConfig folo = new SiteConfigBuilder( "indy-folo", BASE_URL ).withMaxConnections( 4 ).build();
+
+    private final SiteConfig content =
+            new SiteConfigBuilder( "indy-content", BASE_URL ).withMaxConnections( 16 ).build();
+
+    private final RecordingClient main = new RecordingClient( "main" );
+
+    private final PoolFactory factory = new PoolFactory();
+
+    private BulkheadHttpClient client;
+
+    @Before
+    public void setUp()
+            throws Exception
+    {
+        final BulkheadPolicy policy = new BulkheadPolicy().isolatePath( "folo/admin", folo )
+                                                          .isolatePath( "folo/track", folo )
+                                                          .isolateFunction( CLIENT_CONTENT, content );
+        client = new BulkheadHttpClient( main, BASE_URL + "/", policy, factory );
+    }
+
+    @Test
+    public void isolatedCallsGoThroughTheirOwnPools()
+            throws Exception
+    {
+        assertThat( route( BASE_URL + "/folo/admin/build-1/record" ), equalTo( "indy-folo" ) );
+        assertThat( route( BASE_URL + "/folo/track/build-1/maven/hosted/local/org/foo/1/foo-1.pom" ),
+                    equalTo( "indy-folo" ) );
+        assertThat( route( BASE_URL + "/content/maven/remote/central/org/foo/1/foo-1.pom" ),
+                    equalTo( "indy-content" ) );
+        assertThat( route( BASE_URL + "/admin/stores/maven/hosted/local" ), equalTo( "main" ) );
+        assertThat( route( "http://indy.example.com/folo/admin/build-1/record" ), equalTo( "main" ) );
+    }
+
+    @Test
+    public void pathsSharingASiteConfigShareOnePool()
+    {
+        assertThat( factory.created.size(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void isBulkheadedMatchesTheRouting()
+    {
+        assertThat( client.isBulkheaded( new HttpGet( BASE_URL + "/folo/admin/build-1/record" ) ), equalTo( true ) );
+        assertThat( client.isBulkheaded( new HttpGet( BASE_URL + "/admin/stores/maven/hosted/local" ) ),
+                    equalTo( false ) );
+    }
+
+    @Test
+    public void closeClosesEveryPool()
+            throws Exception
+    {
+        client.close();
+
+        assertThat( main.closed, equalTo( true ) );
+        for ( final RecordingClient pool : factory.created )
+        {
+            assertThat( pool.closed, equalTo( true ) );
+        }
+    }
+
+    private String route( final String url )
+            throws Exception
+    {
+        try (CloseableHttpResponse response = client.execute( new HttpGet( url ) ))
+        {
+            return response.getFirstHeader( "X-Pool" ).getValue();
+        }
+    }
+
+    private static final class PoolFactory
+            implements HttpFactoryIfc
+    {
+        private final List<RecordingClient> created = new ArrayList<>();
+
+        @Override
+        public CloseableHttpClient createClient()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CloseableHttpClient createClient( final SiteConfig location )
+        {
+            final RecordingClient pool = new RecordingClient( location.getId() );
+            created.add( pool );
+            return pool;
+        }
+
+        @Override
+        public CloseableHttpClient createClient( final SiteConfig location, final List<Header> defaultHeaders )
+        {
+            return createClient( location );
+        }
+
+        @Override
+        public HttpClientContext createContext()
+        {
+            return HttpClientContext.create();
+        }
+
+        @Override
+        public HttpClientContext createContext( final SiteConfig location )
+        {
+            return HttpClientContext.create();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public boolean isShutdown()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean shutdownNow()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean shutdownGracefully( final long timeoutMillis )
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Answers every call with an {@code X-Pool} header naming itself.
+     */
+    private static final class RecordingClient
+            extends CloseableHttpClient
+    {
+        private final String name;
+
+        private boolean closed;
+
+        private RecordingClient( final String name )
+        {
+            this.name = name;
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                                   final HttpContext context )
+        {
+            final Response response = new Response();
+            response.addHeader( "X-Pool", name );
+            return response;
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+
+        @Override
+        @Deprecated
+        public HttpParams getParams()
+        {
+            return null;
+        }
+
+        @Override
+        @Deprecated
+        public ClientConnectionManager getConnectionManager()
+        {
+            return null;
+        }
+    }
+
+    private static final class Response
+            extends BasicHttpResponse
+            implements CloseableHttpResponse
+    {
+        private Response()
+        {
+            super( HttpVersion.HTTP_1_1, 200, "OK" );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.bulkhead;
+
+import org.commonjava.util.jhttpc.model.SiteConfig;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.commonjava.indy.client.core.o11y.metric.ClientMetricConstants.CLIENT_CONTENT;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BulkheadPolicyTest
+{
+    private static final String URL = "http://indy.example.com/api";
+
+    @Test
+    public void longestPathPrefixThenFunction()
+    {
+        SiteConfig folo = new SiteConfigBuilder( "indy-folo", URL ).withMaxConnections( 4 ).build();
+        SiteConfig zips = new SiteConfigBuilder( "indy-zips", URL ).withMaxConnections( 2 ).build();
+        SiteConfig content = new SiteConfigBuilder( "indy-content", URL ).withMaxConnections( 16 ).build();
+        BulkheadPolicy policy = new BulkheadPolicy().isolatePath( "/folo/admin", folo )
+                                                    .isolatePath( "folo/admin/build-1/repo/zip", zips )
+                                                    .isolateFunction( CLIENT_CONTENT, content );
+
+        assertThat( policy.poolOf( "folo/admin/build-1/repo/zip", Collections.emptyList() ), equalTo( zips ) );
+        assertThat( policy.poolOf( "folo/admin/build-1/record", Collections.emptyList() ), equalTo( folo ) );
+        assertThat( policy.poolOf( "content/maven/hosted/local/org/foo/1/foo-1.pom",
+                                   Collections.singletonList( CLIENT_CONTENT ) ), equalTo( content ) );
+        assertThat( policy.poolOf( "admin/stores/maven/hosted/local", Collections.emptyList() ), nullValue() );
+    }
+}
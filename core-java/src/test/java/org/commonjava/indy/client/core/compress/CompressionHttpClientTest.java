@@ -0,0 +1,297 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.compress;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.commonjava.indy.client.core.helper.JsonEntity;
+import org.commonjava.indy.client.core.retry.RetryBudget;
+import org.commonjava.indy.client.core.retry.RetryPolicy;
+import org.commonjava.indy.client.core.retry.RetryingHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CompressionHttpClientTest
+{
+    private static final String JSON =
+            "{\"items\":[" + String.join( ",", Collections.nCopies( 200, "\"maven:hosted:build\"" ) ) + "]}";
+
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+
+    private HttpServer server;
+
+    @Before
+    public void start()
+            throws IOException
+    {
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        server.createContext( "/", this::gzipped );
+        server.createContext( "/api/flaky", exchange -> {
+            if ( flakyCalls.getAndIncrement() == 0 )
+            {
+                exchange.sendResponseHeaders( 503, -1 );
+                exchange.close();
+                return;
+            }
+            gzipped( exchange );
+        } );
+        server.createContext( "/api/promotion", exchange -> {
+            String encoding = exchange.getRequestHeaders().getFirst( HttpHeaders.CONTENT_ENCODING );
+            boolean refuse = exchange.getRequestURI().getPath().endsWith( "/rollback" ) && encoding != null;
+            try ( InputStream in = encoding == null ?
+                    exchange.getRequestBody() :
+                    ContentCodec.GZIP.decode( exchange.getRequestBody() ) )
+            {
+                received.add( encoding + " " + IOUtils.toString( in, StandardCharsets.UTF_8 ).length() );
+            }
+            boolean flaky =
+                    exchange.getRequestURI().getPath().endsWith( "/flaky" ) && flakyCalls.getAndIncrement() == 0;
+            exchange.sendResponseHeaders( refuse ? 415 : flaky ? 503 : 200, -1 );
+            exchange.close();
+        } );
+        server.start();
+    }
+
+    @After
+    public void stop()
+    {
+        server.stop( 0 );
+    }
+
+    @Test
+    public void codecsRoundTrip()
+            throws IOException
+    {
+        byte[] raw = JSON.getBytes( StandardCharsets.UTF_8 );
+        for ( ContentCodec codec : new ContentCodec[] { ContentCodec.GZIP, ContentCodec.DEFLATE } )
+        {
+            byte[] encoded = encode( codec, raw );
+            assertThat( encoded.length < raw.length, equalTo( true ) );
+            try ( InputStream in = codec.decode( new ByteArrayInputStream( encoded ) ) )
+            {
+                assertThat( IOUtils.toString( in, StandardCharsets.UTF_8 ), equalTo( JSON ) );
+            }
+        }
+    }
+
+    @Test
+    public void negotiatesAndDecodesJsonResponse()
+            throws IOException
+    {
+        CompressionStats stats = new CompressionStats();
+        try ( CloseableHttpClient client = new CompressionHttpClient( HttpClients.createDefault(), baseUrl(),
+                                                                      new CompressionPolicy(), stats, 5000 ) )
+        {
+            HttpGet get = new HttpGet( baseUrl() + "/admin/stores" );
+            get.setHeader( HttpHeaders.ACCEPT, "application/json" );
+            try ( CloseableHttpResponse response = client.execute( get ) )
+            {
+                assertThat( response.getFirstHeader( HttpHeaders.CONTENT_ENCODING ), nullValue() );
+                try ( InputStream in = response.getEntity().getContent() )
+                {
+                    assertThat( IOUtils.toString( in, StandardCharsets.UTF_8 ), equalTo( JSON ) );
+                }
+            }
+        }
+
+        assertThat( acceptEncoding.get(), equalTo( "gzip, deflate" ) );
+        assertThat( stats.getResponseDecodedBytes(), equalTo( (long) JSON.length() ) );
+        assertThat( stats.getResponseWireBytes() > 0
+                            && stats.getResponseWireBytes() < stats.getResponseDecodedBytes(), equalTo( true ) );
+    }
+
+    @Test
+    public void retryAboveNegotiatesAgainAndLeavesTheRequestAlone()
+            throws IOException
+    {
+        RetryPolicy retries = new RetryPolicy();
+        retries.setBaseDelayMillis( 1 );
+        CloseableHttpClient compression =
+                new CompressionHttpClient( HttpClients.createDefault(), baseUrl(), new CompressionPolicy(),
+                                           new CompressionStats(), 5000 );
+        try ( CloseableHttpClient client = new RetryingHttpClient( compression, retries, new RetryBudget( 1, 10 ) ) )
+        {
+            HttpGet get = new HttpGet( baseUrl() + "/flaky" );
+            get.setHeader( HttpHeaders.ACCEPT, "application/json" );
+            try ( CloseableHttpResponse response = client.execute( get ) )
+            {
+                assertThat( response.getStatusLine().getStatusCode(), equalTo( 200 ) );
+                try ( InputStream in = response.getEntity().getContent() )
+                {
+                    assertThat( IOUtils.toString( in, StandardCharsets.UTF_8 ), equalTo( JSON ) );
+                }
+            }
+
+            assertThat( flakyCalls.get(), equalTo( 2 ) );
+            assertThat( acceptEncoding.get(), equalTo( "gzip, deflate" ) );
+            assertThat( get.containsHeader( HttpHeaders.ACCEPT_ENCODING ), equalTo( false ) );
+            assertThat( get.getConfig(), nullValue() );
+        }
+    }
+
+    @Test
+    public void compressesLargeRequestBodiesUnlessRefused()
+            throws IOException
+    {
+        CompressionPolicy policy = new CompressionPolicy().compressRequestsTo( "promotion/paths" );
+        policy.setRequestCodec( ContentCodec.GZIP );
+        policy.setRequestThresholdBytes( 1024 );
+        CompressionStats stats = new CompressionStats();
+        try ( CloseableHttpClient client = new CompressionHttpClient( HttpClients.createDefault(), baseUrl(), policy,
+                                                                      stats, 5000 ) )
+        {
+            post( client, "/promotion/paths/promote", JSON );
+            post( client, "/promotion/paths/promote", "{}" );
+            post( client, "/promotion/groups/promote", JSON );
+            post( client, "/promotion/paths/rollback", JSON );
+            post( client, "/promotion/paths/rollback", JSON );
+        }
+
+        int len = JSON.length();
+        assertThat( received, equalTo( Arrays.asList( "gzip " + len, "null 2", "null " + len, "gzip " + len,
+                                                      "null " + len, "null " + len ) ) );
+        assertThat( stats.getRequestRawBytes(), equalTo( 2L * len ) );
+        assertThat( stats.getRequestWireBytes() < len, equalTo( true ) );
+    }
+
+    @Test
+    public void retryAboveCompressesAgainAndLeavesTheBodyAlone()
+            throws IOException
+    {
+        CompressionPolicy policy = new CompressionPolicy().compressRequestsTo( "promotion/paths" );
+        policy.setRequestCodec( ContentCodec.GZIP );
+        policy.setRequestThresholdBytes( 1024 );
+        RetryPolicy retries = new RetryPolicy();
+        retries.setBaseDelayMillis( 1 );
+        retries.setMethods( Collections.singleton( "POST" ) );
+        CloseableHttpClient compression =
+                new CompressionHttpClient( HttpClients.createDefault(), baseUrl(), policy, new CompressionStats(),
+                                           5000 );
+        try ( CloseableHttpClient client = new RetryingHttpClient( compression, retries, new RetryBudget( 1, 10 ) ) )
+        {
+            HttpPost post = new HttpPost( baseUrl() + "/promotion/paths/flaky" );
+            post.setHeader( HttpHeaders.CONTENT_TYPE, "application/json" );
+            StringEntity entity = new StringEntity( JSON );
+            post.setEntity( entity );
+            try ( CloseableHttpResponse response = client.execute( post ) )
+            {
+                assertThat( response.getStatusLine().getStatusCode(), equalTo( 200 ) );
+            }
+
+            assertThat( post.getEntity(), sameInstance( entity ) );
+            assertThat( entity.getContentEncoding(), nullValue() );
+        }
+
+        int len = JSON.length();
+        assertThat( received, equalTo( Arrays.asList( "gzip " + len, "gzip " + len ) ) );
+    }
+
+    @Test
+    public void streamsCompressionOfBodiesOfUnknownLength()
+            throws IOException
+    {
+        CompressionPolicy policy = new CompressionPolicy().compressRequestsTo( "promotion/paths" );
+        policy.setRequestCodec( ContentCodec.GZIP );
+        CompressionStats stats = new CompressionStats();
+        ObjectMapper mapper = new ObjectMapper();
+        JsonEntity entity = JsonEntity.of( mapper.writer(), mapper.readTree( JSON ), 64 );
+        assertThat( entity.getContentLength(), equalTo( -1L ) );
+        try ( CloseableHttpClient client = new CompressionHttpClient( HttpClients.createDefault(), baseUrl(), policy,
+                                                                      stats, 5000 ) )
+        {
+            HttpPost post = new HttpPost( baseUrl() + "/promotion/paths/promote" );
+            post.setHeader( HttpHeaders.CONTENT_TYPE, "application/json" );
+            post.setEntity( entity );
+            client.execute( post ).close();
+        }
+
+        assertThat( received, equalTo( Collections.singletonList( "gzip " + JSON.length() ) ) );
+        assertThat( stats.getRequestRawBytes(), equalTo( (long) JSON.length() ) );
+        assertThat( stats.getRequestWireBytes() < JSON.length(), equalTo( true ) );
+    }
+
+    private void gzipped( HttpExchange exchange )
+            throws IOException
+    {
+        acceptEncoding.set( exchange.getRequestHeaders().getFirst( HttpHeaders.ACCEPT_ENCODING ) );
+        byte[] body = encode( ContentCodec.GZIP, JSON.getBytes( StandardCharsets.UTF_8 ) );
+        exchange.getResponseHeaders().set( HttpHeaders.CONTENT_TYPE, "application/json" );
+        exchange.getResponseHeaders().set( HttpHeaders.CONTENT_ENCODING, "gzip" );
+        exchange.sendResponseHeaders( 200, body.length );
+        try ( OutputStream out = exchange.getResponseBody() )
+        {
+            out.write( body );
+        }
+    }
+
+    private void post( CloseableHttpClient client, String path, String body )
+            throws IOException
+    {
+        HttpPost post = new HttpPost( baseUrl() + path );
+        post.setHeader( HttpHeaders.CONTENT_TYPE, "application/json" );
+        post.setEntity( new StringEntity( body ) );
+        client.execute( post ).close();
+    }
+
+    private String baseUrl()
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+
+    private static byte[] encode( ContentCodec codec, byte[] raw )
+            throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( OutputStream out = codec.encode( bytes ) )
+        {
+            out.write( raw );
+        }
+        return bytes.toByteArray();
+    }
+}
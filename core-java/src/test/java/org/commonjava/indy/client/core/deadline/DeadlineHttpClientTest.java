@@ -0,0 +1,225 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.deadline;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class DeadlineHttpClientTest
+{
+    private static final String URL = "http://localhost/api/folo/admin/build-1/report";
+
+    private final StubClient delegate = new StubClient();
+
+    private final DeadlineHttpClient client = new DeadlineHttpClient( delegate, 30000 );
+
+    @After
+    public void tearDown()
+            throws Exception
+    {
+        client.close();
+    }
+
+    @Test
+    public void requestWithoutDeadlinePassesThrough()
+            throws Exception
+    {
+        final HttpGet get = new HttpGet( URL );
+        client.execute( get ).close();
+
+        assertThat( get.getConfig(), nullValue() );
+        assertThat( delegate.calls, equalTo( 1 ) );
+    }
+
+    @Test
+    public void timeoutsAreCappedByTheTimeLeft()
+            throws Exception
+    {
+        final HttpGet get = new HttpGet( URL );
+        get.setConfig( RequestConfig.custom().setSocketTimeout( 60000 ).setConnectTimeout( 500 ).build() );
+        try ( Deadline.Scope scope = Deadline.after( 2, TimeUnit.SECONDS ).apply() )
+        {
+            client.execute( get ).close();
+        }
+
+        assertThat( get.getConfig().getSocketTimeout() <= 2000, equalTo( true ) );
+        assertThat( get.getConfig().getSocketTimeout() > 0, equalTo( true ) );
+        assertThat( get.getConfig().getConnectTimeout(), equalTo( 500 ) );
+        assertThat( get.getConfig().getConnectionRequestTimeout() <= 2000, equalTo( true ) );
+    }
+
+    @Test
+    public void passedDeadlineFailsWithoutSending()
+            throws Exception
+    {
+        try ( Deadline.Scope scope = Deadline.after( -1, TimeUnit.MILLISECONDS ).apply() )
+        {
+            client.execute( new HttpGet( URL ) );
+            fail( "Expected the deadline to be exceeded" );
+        }
+        catch ( final DeadlineExceededException e )
+        {
+            assertThat( delegate.calls, equalTo( 0 ) );
+        }
+    }
+
+    @Test
+    public void requestIsAbortedWhenDeadlinePassesBeforeTheResponse()
+            throws Exception
+    {
+        delegate.waitForAbort = true;
+        final HttpGet get = new HttpGet( URL );
+        try ( Deadline.Scope scope = Deadline.after( 100, TimeUnit.MILLISECONDS ).apply() )
+        {
+            client.execute( get );
+            fail( "Expected the deadline to be exceeded" );
+        }
+        catch ( final DeadlineExceededException e )
+        {
+            assertThat( get.isAborted(), equalTo( true ) );
+        }
+    }
+
+    @Test
+    public void responseIsClosedWhenDeadlinePassesWhileReadingIt()
+            throws Exception
+    {
+        final CloseableHttpResponse response;
+        try ( Deadline.Scope scope = Deadline.after( 100, TimeUnit.MILLISECONDS ).apply() )
+        {
+            response = client.execute( new HttpGet( URL ) );
+        }
+
+        assertThat( delegate.response.closed.await( 5, TimeUnit.SECONDS ), equalTo( true ) );
+        response.close();
+    }
+
+    @Test
+    public void closingTheResponseCancelsTheExpiry()
+            throws Exception
+    {
+        try ( Deadline.Scope scope = Deadline.after( 100, TimeUnit.MILLISECONDS ).apply() )
+        {
+            client.execute( new HttpGet( URL ) ).close();
+        }
+        assertThat( delegate.response.closed.getCount(), equalTo( 0L ) );
+
+        Thread.sleep( 300 );
+        assertThat( delegate.response.closes, equalTo( 1 ) );
+    }
+
+    private static final class StubClient
+            extends CloseableHttpClient
+    {
+        private volatile boolean waitForAbort;
+
+        private volatile int calls;
+
+        private volatile Response response;
+
+        @Override
+        protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                                   final HttpContext context )
+                throws IOException
+        {
+            calls++;
+            if ( waitForAbort )
+            {
+                final long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos( 5 );
+                while ( !( (HttpRequestBase) request ).isAborted() && System.nanoTime() < giveUp )
+                {
+                    try
+                    {
+                        Thread.sleep( 5 );
+                    }
+                    catch ( final InterruptedException e )
+                    {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                throw new IOException( "Request aborted" );
+            }
+
+            response = new Response();
+            return response;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        @Deprecated
+        public HttpParams getParams()
+        {
+            return null;
+        }
+
+        @Override
+        @Deprecated
+        public ClientConnectionManager getConnectionManager()
+        {
+            return null;
+        }
+    }
+
+    private static final class Response
+            extends BasicHttpResponse
+            implements CloseableHttpResponse
+    {
+        private final CountDownLatch closed = new CountDownLatch( 1 );
+
+        private volatile int closes;
+
+        private Response()
+        {
+            super( HttpVersion.HTTP_1_1, 200, "OK" );
+            setEntity( new InputStreamEntity( new ByteArrayInputStream( "{\"uploads\":[]}".getBytes() ) ) );
+        }
+
+        @Override
+        public synchronized void close()
+        {
+            closes++;
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.deadline;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DeadlineTest
+{
+    @Test
+    public void capsTimeoutsOnlyWithinScope()
+    {
+        assertThat( Deadline.cap( 30, TimeUnit.SECONDS ), equalTo( 30L ) );
+
+        try ( Deadline.Scope scope = Deadline.after( 2, TimeUnit.SECONDS ).apply() )
+        {
+            long capped = Deadline.cap( 30000, TimeUnit.MILLISECONDS );
+            assertThat( capped > 1000 && capped <= 2000, equalTo( true ) );
+            assertThat( Deadline.cap( 500, TimeUnit.MILLISECONDS ), equalTo( 500L ) );
+        }
+
+        assertThat( Deadline.current(), nullValue() );
+    }
+
+    @Test
+    public void innerScopeCannotExtendOuterDeadline()
+    {
+        Deadline outer = Deadline.after( 1, TimeUnit.SECONDS );
+        try ( Deadline.Scope o = outer.apply() )
+        {
+            try ( Deadline.Scope i = Deadline.after( 1, TimeUnit.MINUTES ).apply() )
+            {
+                assertThat( Deadline.current(), equalTo( outer ) );
+            }
+
+            Deadline inner = Deadline.after( 10, TimeUnit.MILLISECONDS );
+            try ( Deadline.Scope i = inner.apply() )
+            {
+                assertThat( Deadline.current(), equalTo( inner ) );
+            }
+            assertThat( Deadline.current(), equalTo( outer ) );
+        }
+    }
+
+    @Test
+    public void expiredDeadlineCapsToZero()
+    {
+        try ( Deadline.Scope scope = Deadline.after( -1, TimeUnit.MILLISECONDS ).apply() )
+        {
+            assertThat( Deadline.current().isExpired(), equalTo( true ) );
+            assertThat( Deadline.cap( 30, TimeUnit.SECONDS ), equalTo( 0L ) );
+        }
+    }
+}
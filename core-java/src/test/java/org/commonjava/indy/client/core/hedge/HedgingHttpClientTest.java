@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.hedge;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class HedgingHttpClientTest
+{
+    @Test
+    public void saturatedExecutorSendsOnceWithoutHedging()
+            throws Exception
+    {
+        final HedgePolicy policy = new HedgePolicy();
+        policy.setMinSamples( 1 );
+        policy.setMinDelayMillis( 1 );
+        final RequestHedger hedger = new RequestHedger( policy );
+        hedger.recordLatency( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+
+        final RecordingClient delegate = new RecordingClient();
+        final HedgingHttpClient client =
+                new HedgingHttpClient( delegate, "http://localhost/api", hedger, () -> executor );
+
+        try ( CloseableHttpResponse response = client.execute(
+                new HttpGet( "http://localhost/api/content/maven/hosted/local/org/foo.pom" ) ) )
+        {
+            assertThat( response.getStatusLine().getStatusCode(), equalTo( 200 ) );
+        }
+
+        assertThat( delegate.threads, equalTo( List.of( Thread.currentThread() ) ) );
+        assertThat( hedger.getHedges(), equalTo( 0L ) );
+    }
+
+    private static final class RecordingClient
+            extends CloseableHttpClient
+    {
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                                   final HttpContext context )
+        {
+            threads.add( Thread.currentThread() );
+            return new Response();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        @Deprecated
+        public HttpParams getParams()
+        {
+            return null;
+        }
+
+        @Override
+        @Deprecated
+        public ClientConnectionManager getConnectionManager()
+        {
+            return null;
+        }
+    }
+
+    private static final class Response
+            extends BasicHttpResponse
+            implements CloseableHttpResponse
+    {
+        Response()
+        {
+            super( HttpVersion.HTTP_1_1, 200, "OK" );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
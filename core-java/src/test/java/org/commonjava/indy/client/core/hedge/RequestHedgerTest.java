@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.hedge;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RequestHedgerTest
+{
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+    @Test
+    public void delayFollowsLatencyPercentile()
+    {
+        HedgePolicy policy = new HedgePolicy();
+        policy.setMinSamples( 10 );
+        policy.setSampleSize( 100 );
+        policy.setPercentile( 0.9 );
+        policy.setMinDelayMillis( 1 );
+        RequestHedger hedger = new RequestHedger( policy );
+
+        for ( int i = 1; i < 10; i++ )
+        {
+            hedger.recordLatency( i * MS );
+        }
+        assertThat( hedger.getDelayNanos(), equalTo( -1L ) );
+
+        hedger.recordLatency( 10 * MS );
+        assertThat( hedger.getDelayNanos(), equalTo( 9 * MS ) );
+    }
+
+    @Test
+    public void delayNeverDropsBelowFloor()
+    {
+        HedgePolicy policy = new HedgePolicy();
+        policy.setMinSamples( 1 );
+        policy.setMinDelayMillis( 50 );
+        RequestHedger hedger = new RequestHedger( policy );
+
+        hedger.recordLatency( MS );
+        assertThat( hedger.getDelayNanos(), equalTo( 50 * MS ) );
+    }
+
+    @Test
+    public void hedgesAreCappedByExtraLoad()
+    {
+        HedgePolicy policy = new HedgePolicy();
+        policy.setMaxExtraLoad( 0.1 );
+        policy.setMinHedgesPerSecond( 0 );
+        RequestHedger hedger = new RequestHedger( policy );
+
+        int hedged = 0;
+        for ( int i = 0; i < 1000; i++ )
+        {
+            hedger.requestStarted();
+            if ( hedger.tryHedge() )
+            {
+                hedged++;
+            }
+        }
+
+        // the initial burst allowance plus (up to rounding) 10% of the requests
+        assertThat( hedged >= 109 && hedged <= 110, equalTo( true ) );
+        assertThat( hedger.getHedges(), equalTo( (long) hedged ) );
+    }
+}
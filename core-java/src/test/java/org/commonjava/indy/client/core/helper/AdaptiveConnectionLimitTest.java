@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AdaptiveConnectionLimitTest
+{
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+    @Test
+    public void shrinksWhenMostlyIdleAndNotifies()
+            throws Exception
+    {
+        AdaptiveConnectionLimit limit = new AdaptiveConnectionLimit( 2, 20, 0 );
+        AtomicInteger shrinks = new AtomicInteger();
+        limit.setShrinkListener( shrinks::incrementAndGet );
+
+        long wait = limit.acquire( MS );
+        limit.release( wait, 10 * MS );
+
+        assertThat( limit.getLimit() < 20, equalTo( true ) );
+        assertThat( shrinks.get(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void growsWhenCallersWaitAndLatencyHolds()
+    {
+        AdaptiveConnectionLimit limit = new AdaptiveConnectionLimit( 2, 20, 0 );
+        for ( int i = 0; i < 5; i++ )
+        {
+            limit.record( 0, 10 * MS, System.nanoTime() );
+        }
+        int shrunk = limit.getLimit();
+
+        limit.record( 50 * MS, 10 * MS, System.nanoTime() );
+
+        assertThat( limit.getLimit() > shrunk, equalTo( true ) );
+    }
+
+    @Test
+    public void shrinksWhenLatencyClimbs()
+    {
+        AdaptiveConnectionLimit limit = new AdaptiveConnectionLimit( 2, 20, 0 );
+        limit.record( 50 * MS, 10 * MS, System.nanoTime() );
+        assertThat( limit.getLimit(), equalTo( 20 ) );
+
+        limit.record( 50 * MS, 100 * MS, System.nanoTime() );
+
+        assertThat( limit.getLimit(), equalTo( 15 ) );
+    }
+
+    @Test( expected = ConnectionPoolTimeoutException.class )
+    public void acquireTimesOutAtLimit()
+            throws Exception
+    {
+        AdaptiveConnectionLimit limit = new AdaptiveConnectionLimit( 1, 1, 0 );
+        limit.acquire( MS );
+        limit.acquire( MS );
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BinaryJsonFormatTest
+{
+    @Test
+    public void matchesMediaTypeIgnoringParameters()
+    {
+        assertThat( BinaryJsonFormat.SMILE.matches( "application/x-jackson-smile" ), equalTo( true ) );
+        assertThat( BinaryJsonFormat.CBOR.matches( "Application/CBOR; charset=binary" ), equalTo( true ) );
+        assertThat( BinaryJsonFormat.SMILE.matches( "application/json" ), equalTo( false ) );
+        assertThat( BinaryJsonFormat.SMILE.matches( null ), equalTo( false ) );
+    }
+
+    @Test
+    public void acceptHeaderFallsBackToJson()
+    {
+        assertThat( BinaryJsonFormat.CBOR.getAcceptHeader(), equalTo( "application/cbor, application/json;q=0.9" ) );
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BodySampleTest
+{
+    @Test
+    public void keepsOnlyTheHeadOfTheBody()
+            throws IOException
+    {
+        String body = "{\"items\":[\"maven:hosted:one\",\"maven:hosted:two\"]}";
+        BodySample sample = new BodySample( 10 );
+        try ( InputStream in = new TeeInputStream( new ByteArrayInputStream( body.getBytes( StandardCharsets.UTF_8 ) ),
+                                                   sample ) )
+        {
+            assertThat( IOUtils.toString( in, StandardCharsets.UTF_8 ), equalTo( body ) );
+        }
+
+        assertThat( sample.getTotal(), equalTo( (long) body.length() ) );
+        assertThat( sample.toString( StandardCharsets.UTF_8 ),
+                    equalTo( "{\"items\":[... (" + ( body.length() - 10 ) + " more bytes)" ) );
+    }
+
+    @Test
+    public void shortBodyIsKeptWhole()
+    {
+        BodySample sample = new BodySample( 100 );
+        sample.write( "{}".getBytes( StandardCharsets.UTF_8 ), 0, 2 );
+        assertThat( sample.toString( StandardCharsets.UTF_8 ), equalTo( "{}" ) );
+    }
+}
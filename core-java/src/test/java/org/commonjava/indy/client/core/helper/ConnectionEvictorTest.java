@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ConnectionEvictorTest
+{
+    private static final long IDLE_MILLIS = 60000;
+
+    private static final long TTL_MILLIS = 200;
+
+    private final RecordingConnectionManager pool = new RecordingConnectionManager();
+
+    private final ConnectionEvictor evictor = new ConnectionEvictor( IDLE_MILLIS, TTL_MILLIS, () -> pool );
+
+    @After
+    public void tearDown()
+    {
+        evictor.close();
+    }
+
+    @Test
+    public void expiredConnectionsAreClosedThroughThePool()
+            throws Exception
+    {
+        final Socket old = new Socket();
+        evictor.connectionLeased( "old", old );
+        evictor.connectionReleased( "old" );
+
+        Thread.sleep( TTL_MILLIS + 50 );
+
+        final Socket young = new Socket();
+        evictor.connectionLeased( "young", young );
+        evictor.connectionReleased( "young" );
+
+        pool.idleCloses.clear();
+        evictor.evict();
+
+        // the usual idle sweep, then one sized to the expired connection's idle time, which spares the young one
+        assertThat( pool.idleCloses.size(), equalTo( 2 ) );
+        assertThat( pool.idleCloses.get( 0 ), equalTo( IDLE_MILLIS ) );
+        assertThat( pool.idleCloses.get( 1 ) >= TTL_MILLIS, equalTo( true ) );
+        assertThat( old.isClosed(), equalTo( false ) );
+    }
+
+    @Test
+    public void leasedConnectionPastTtlIsLeftAlone()
+            throws Exception
+    {
+        evictor.connectionLeased( "in-use", new Socket() );
+
+        Thread.sleep( TTL_MILLIS + 50 );
+
+        pool.idleCloses.clear();
+        evictor.evict();
+        assertThat( pool.idleCloses.size(), equalTo( 1 ) );
+
+        evictor.connectionReleased( "in-use" );
+        pool.idleCloses.clear();
+        evictor.evict();
+        assertThat( pool.idleCloses.size(), equalTo( 2 ) );
+        assertThat( pool.idleCloses.get( 1 ) < TTL_MILLIS, equalTo( true ) );
+    }
+
+    @Test
+    public void reuseDoesNotRestartTheTtl()
+            throws Exception
+    {
+        evictor.connectionLeased( "old", new Socket() );
+        evictor.connectionReleased( "old" );
+
+        Thread.sleep( TTL_MILLIS + 50 );
+
+        evictor.connectionLeased( "old", new Socket() );
+        evictor.connectionReleased( "old" );
+
+        pool.idleCloses.clear();
+        evictor.evict();
+        assertThat( pool.idleCloses.size(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void leaseAfterAQuietSpellNeedsValidation()
+            throws Exception
+    {
+        evictor.connectionLeased( "conn", new Socket() );
+        assertThat( evictor.needsValidation(), equalTo( false ) );
+
+        Thread.sleep( ConnectionEvictor.VALIDATE_AFTER_INACTIVITY_MILLIS + 100 );
+        assertThat( evictor.needsValidation(), equalTo( true ) );
+
+        evictor.connectionReleased( "conn" );
+        assertThat( evictor.needsValidation(), equalTo( false ) );
+    }
+
+    @Test
+    public void countsOnlyConnectionsActuallyClosed()
+    {
+        final Socket open = new Socket();
+        evictor.connectionLeased( "open", open );
+        evictor.connectionReleased( "open" );
+
+        evictor.staleConnectionFailed();
+
+        assertThat( open.isClosed(), equalTo( false ) );
+        assertThat( pool.idleCloses, equalTo( List.of( 0L ) ) );
+        assertThat( evictor.getStaleFailures(), equalTo( 1L ) );
+        assertThat( evictor.getEvictions(), equalTo( 0L ) );
+    }
+
+    @SuppressWarnings( "deprecation" )
+    private static final class RecordingConnectionManager
+            implements ClientConnectionManager
+    {
+        private final List<Long> idleCloses = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void closeIdleConnections( final long idletime, final TimeUnit unit )
+        {
+            idleCloses.add( unit.toMillis( idletime ) );
+        }
+
+        @Override
+        public void closeExpiredConnections()
+        {
+        }
+
+        @Override
+        public SchemeRegistry getSchemeRegistry()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection( final HttpRoute route, final Object state )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void releaseConnection( final ManagedClientConnection conn, final long validDuration,
+                                       final TimeUnit timeUnit )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+    }
+}
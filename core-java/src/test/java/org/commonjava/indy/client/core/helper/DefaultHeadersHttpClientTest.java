@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DefaultHeadersHttpClientTest
+{
+    @Test
+    public void headersAddedLaterApplyToTheSameClient()
+            throws Exception
+    {
+        final List<Header> defaults = new CopyOnWriteArrayList<>();
+        defaults.add( new BasicHeader( "User-Agent", "indy-client" ) );
+        final DefaultHeadersHttpClient client = new DefaultHeadersHttpClient( new NoResponseClient(), defaults );
+
+        final HttpGet first = new HttpGet( "http://localhost/api/stats/version-info" );
+        client.execute( first );
+        assertThat( first.getFirstHeader( "User-Agent" ).getValue(), equalTo( "indy-client" ) );
+        assertThat( first.containsHeader( "Indy-Component-Id" ), equalTo( false ) );
+
+        defaults.add( new BasicHeader( "Indy-Component-Id", "builder" ) );
+        final HttpGet second = new HttpGet( "http://localhost/api/stats/version-info" );
+        second.addHeader( "User-Agent", "custom" );
+        client.execute( second );
+        assertThat( second.getFirstHeader( "Indy-Component-Id" ).getValue(), equalTo( "builder" ) );
+        assertThat( second.getHeaders( "User-Agent" ).length, equalTo( 1 ) );
+        assertThat( second.getFirstHeader( "User-Agent" ).getValue(), equalTo( "custom" ) );
+    }
+
+    private static final class NoResponseClient
+            extends CloseableHttpClient
+    {
+        @Override
+        protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                                   final HttpContext context )
+        {
+            return null;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        @Deprecated
+        public HttpParams getParams()
+        {
+            return null;
+        }
+
+        @Override
+        @Deprecated
+        public ClientConnectionManager getConnectionManager()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class EvictingHttpClientTest
+{
+    private final ConnectionEvictor evictor = new ConnectionEvictor( 60000, 0, () -> null );
+
+    private final RecordingClient delegate = new RecordingClient();
+
+    private final EvictingHttpClient client = new EvictingHttpClient( delegate, evictor, 30000 );
+
+    @After
+    public void tearDown()
+    {
+        evictor.close();
+    }
+
+    @SuppressWarnings( "deprecation" )
+    @Test
+    public void leaseAfterAQuietSpellChecksTheConnectionWithoutKeepingTheChange()
+            throws Exception
+    {
+        final RequestConfig config = RequestConfig.custom().setSocketTimeout( 5000 ).build();
+        final HttpGet busy = new HttpGet( "http://localhost/api/stats/version-info" );
+        busy.setConfig( config );
+        client.execute( busy ).close();
+
+        Thread.sleep( ConnectionEvictor.VALIDATE_AFTER_INACTIVITY_MILLIS + 100 );
+
+        final HttpGet quiet = new HttpGet( "http://localhost/api/stats/version-info" );
+        quiet.setConfig( config );
+        client.execute( quiet ).close();
+
+        assertThat( delegate.configs.get( 0 ).isStaleConnectionCheckEnabled(), equalTo( false ) );
+        assertThat( delegate.configs.get( 1 ).isStaleConnectionCheckEnabled(), equalTo( true ) );
+        assertThat( delegate.configs.get( 1 ).getSocketTimeout(), equalTo( 5000 ) );
+        assertThat( quiet.getConfig(), sameInstance( config ) );
+    }
+
+    private static final class RecordingClient
+            extends CloseableHttpClient
+    {
+        private final List<RequestConfig> configs = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                                   final HttpContext context )
+        {
+            configs.add( ( (HttpRequestBase) request ).getConfig() );
+            return new Response();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        @Deprecated
+        public HttpParams getParams()
+        {
+            return null;
+        }
+
+        @Override
+        @Deprecated
+        public ClientConnectionManager getConnectionManager()
+        {
+            return null;
+        }
+    }
+
+    private static final class Response
+            extends BasicHttpResponse
+            implements CloseableHttpResponse
+    {
+        private Response()
+        {
+            super( HttpVersion.HTTP_1_1, 200, "OK" );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
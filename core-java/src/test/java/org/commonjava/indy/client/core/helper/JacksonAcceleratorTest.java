@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JacksonAcceleratorTest
+{
+    @Test
+    public void skipsModulesNotOnClasspath()
+    {
+        final Optional<Module> module =
+                JacksonAccelerator.load( Arrays.asList( "org.example.MissingModule", SimpleModule.class.getName() ),
+                                         getClass().getClassLoader() );
+
+        assertThat( module.isPresent(), equalTo( true ) );
+        assertThat( module.get(), instanceOf( SimpleModule.class ) );
+    }
+
+    @Test
+    public void emptyWhenNoneAvailable()
+    {
+        assertThat( JacksonAccelerator.load( Collections.singletonList( "org.example.MissingModule" ),
+                                             getClass().getClassLoader() ).isPresent(), equalTo( false ) );
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JsonCodecCacheTest
+{
+    @Test
+    public void equalTypeReferencesShareOneReader()
+            throws Exception
+    {
+        final JsonCodecCache cache = new JsonCodecCache( new ObjectMapper() );
+
+        final ObjectReader first = cache.reader( new TypeReference<List<Map<String, Integer>>>(){}.getType() );
+        final ObjectReader second = cache.reader( new TypeReference<List<Map<String, Integer>>>(){}.getType() );
+
+        assertThat( second, sameInstance( first ) );
+        final List<Map<String, Integer>> value = first.readValue( "[{\"a\":1}]" );
+        assertThat( value.get( 0 ).get( "a" ), equalTo( 1 ) );
+        assertThat( cache.writer( String.class ), sameInstance( cache.writer( String.class ) ) );
+    }
+
+    @Test
+    public void registeringModuleResetsCache()
+    {
+        final ObjectMapper mapper = new ObjectMapper();
+        final JsonCodecCache cache = new JsonCodecCache( mapper );
+        cache.warm( Collections.singleton( Map.class ) );
+        final ObjectReader before = cache.reader( Map.class );
+
+        mapper.registerModule( new SimpleModule( "test-module" ) );
+
+        assertThat( cache.reader( Map.class ), not( sameInstance( before ) ) );
+    }
+
+    @Test
+    public void reconfiguringMapperResetsCache()
+            throws Exception
+    {
+        final ObjectMapper mapper = new ObjectMapper();
+        final JsonCodecCache cache = new JsonCodecCache( mapper );
+        final ObjectReader before = cache.reader( Map.class );
+        final ObjectWriter writerBefore = cache.writer( Map.class );
+
+        mapper.configure( DeserializationFeature.FAIL_ON_TRAILING_TOKENS, true );
+        mapper.configure( SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true );
+
+        assertThat( cache.reader( Map.class ), not( sameInstance( before ) ) );
+        assertThat( cache.writer( Map.class ), not( sameInstance( writerBefore ) ) );
+        final Map<String, Integer> unsorted = new LinkedHashMap<>();
+        unsorted.put( "b", 2 );
+        unsorted.put( "a", 1 );
+        assertThat( cache.writer( Map.class ).writeValueAsString( unsorted ), equalTo( "{\"a\":1,\"b\":2}" ) );
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JsonEntityTest
+{
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void smallBodyIsBufferedWithLength()
+            throws Exception
+    {
+        final JsonEntity entity =
+                JsonEntity.of( mapper.writer(), Collections.singletonMap( "name", "caf\u00e9" ), 1024 );
+
+        assertThat( entity.isBuffered(), equalTo( true ) );
+        assertThat( entity.getContentLength(), equalTo( 16L ) );
+        assertThat( written( entity ), equalTo( "{\"name\":\"caf\u00e9\"}" ) );
+    }
+
+    @Test
+    public void largeBodyIsReserializedOnEachWrite()
+            throws Exception
+    {
+        final List<Map<String, String>> value = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            value.add( Collections.singletonMap( "path", "org/foo/bar/" + i + "/bar-" + i + ".pom" ) );
+        }
+
+        final JsonEntity entity = JsonEntity.of( mapper.writer(), value, 1024 );
+
+        assertThat( entity.isBuffered(), equalTo( false ) );
+        assertThat( entity.getContentLength(), equalTo( -1L ) );
+        assertThat( entity.isRepeatable(), equalTo( true ) );
+
+        final String expected = mapper.writeValueAsString( value );
+        assertThat( written( entity ), equalTo( expected ) );
+        assertThat( written( entity ), equalTo( expected ) );
+        assertThat( IOUtils.toString( entity.getContent(), "UTF-8" ), equalTo( expected ) );
+    }
+
+    private String written( final JsonEntity entity )
+            throws Exception
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo( out );
+        return out.toString( "UTF-8" );
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JsonItemIteratorTest
+{
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final AtomicInteger abandoned = new AtomicInteger();
+
+    private final AtomicInteger released = new AtomicInteger();
+
+    @Test
+    public void readsItemsAfterSkippingOtherFields()
+            throws IOException
+    {
+        JsonItemIterator<Map> items = iterate(
+                "{\"meta\":{\"items\":[9]},\"count\":2,\"items\":[{\"name\":\"central\"},null,{\"name\":\"local\"}]}" );
+
+        List<Object> names = new ArrayList<>();
+        items.forEachRemaining( item -> names.add( item.get( "name" ) ) );
+
+        assertThat( names, equalTo( Arrays.asList( "central", "local" ) ) );
+        assertThat( released.get(), equalTo( 1 ) );
+        assertThat( abandoned.get(), equalTo( 0 ) );
+
+        items.close();
+        assertThat( released.get(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void earlyCloseAbandonsTheBody()
+            throws IOException
+    {
+        JsonItemIterator<Map> items = iterate( "{\"items\":[{\"name\":\"central\"},{\"name\":\"local\"}]}" );
+        assertThat( items.next().get( "name" ), equalTo( "central" ) );
+
+        items.close();
+        assertThat( abandoned.get(), equalTo( 1 ) );
+        assertThat( released.get(), equalTo( 1 ) );
+        assertThat( items.hasNext(), equalTo( false ) );
+    }
+
+    @Test
+    public void missingArrayIsEmpty()
+            throws IOException
+    {
+        assertThat( iterate( "{\"count\":0}" ).hasNext(), equalTo( false ) );
+        assertThat( released.get(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void longRunOfNullsIsSkipped()
+            throws IOException
+    {
+        String nulls = String.join( ",", Collections.nCopies( 100000, "null" ) );
+        JsonItemIterator<Map> items = iterate( "{\"items\":[" + nulls + ",{\"name\":\"local\"}," + nulls + "]}" );
+
+        assertThat( items.next().get( "name" ), equalTo( "local" ) );
+        assertThat( items.hasNext(), equalTo( false ) );
+        assertThat( released.get(), equalTo( 1 ) );
+    }
+
+    private JsonItemIterator<Map> iterate( String json )
+            throws IOException
+    {
+        return new JsonItemIterator<>( mapper.getFactory().createParser( json ), mapper.readerFor( Map.class ),
+                                       "items", abandoned::incrementAndGet, released::incrementAndGet );
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.helper;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ReleasingHttpResponseTest
+{
+    @Test
+    public void releasesOnceWhenBodyIsReadToTheEnd()
+            throws Exception
+    {
+        final AtomicInteger released = new AtomicInteger();
+        final CloseableHttpResponse response =
+                ReleasingHttpResponse.wrap( response( "body" ), released::incrementAndGet );
+
+        final InputStream content = response.getEntity().getContent();
+        assertThat( IOUtils.toString( content, "UTF-8" ), equalTo( "body" ) );
+        assertThat( released.get(), equalTo( 1 ) );
+
+        content.close();
+        response.close();
+        assertThat( released.get(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void releasesWhenClosedEarly()
+            throws Exception
+    {
+        final AtomicInteger released = new AtomicInteger();
+        final CloseableHttpResponse response =
+                ReleasingHttpResponse.wrap( response( "body" ), released::incrementAndGet );
+
+        response.getEntity().getContent().read();
+        assertThat( released.get(), equalTo( 0 ) );
+
+        response.close();
+        assertThat( released.get(), equalTo( 1 ) );
+    }
+
+    private CloseableHttpResponse response( final String body )
+    {
+        final TestResponse response = new TestResponse();
+        response.setEntity( new InputStreamEntity( new ByteArrayInputStream( body.getBytes() ) ) );
+        return response;
+    }
+
+    private static final class TestResponse
+            extends BasicHttpResponse
+            implements CloseableHttpResponse
+    {
+        private TestResponse()
+        {
+            super( HttpVersion.HTTP_1_1, 200, "OK" );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
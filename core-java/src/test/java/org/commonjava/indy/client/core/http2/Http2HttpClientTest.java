@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.http2;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.commonjava.indy.client.core.auth.IndyClientAuthenticator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class Http2HttpClientTest
+{
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private Http2HttpClient client;
+
+    @Before
+    public void start()
+            throws IOException
+    {
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        server.createContext( "/api/moved", exchange -> {
+            exchange.getResponseHeaders().set( HttpHeaders.LOCATION, "/api/target" );
+            exchange.sendResponseHeaders( 302, -1 );
+            exchange.close();
+        } );
+        server.createContext( "/api/target", exchange -> {
+            authorizations.addAll( exchange.getRequestHeaders().getOrDefault( HttpHeaders.AUTHORIZATION,
+                                                                              Collections.emptyList() ) );
+            byte[] body = "target".getBytes( StandardCharsets.UTF_8 );
+            exchange.sendResponseHeaders( 200, body.length );
+            try ( OutputStream out = exchange.getResponseBody() )
+            {
+                out.write( body );
+            }
+        } );
+        server.start();
+
+        final HttpClient jdkClient = HttpClient.newBuilder().followRedirects( HttpClient.Redirect.NEVER ).build();
+        client = new Http2HttpClient( jdkClient, Duration.ofSeconds( 5 ), Collections.emptyList(),
+                                      new BearerAuthenticator() );
+    }
+
+    @After
+    public void stop()
+    {
+        server.stop( 0 );
+    }
+
+    @Test
+    public void repeatedRequestGetsOneAuthorizationHeader()
+            throws Exception
+    {
+        final HttpGet get = new HttpGet( baseUrl() + "/api/target" );
+        for ( int i = 0; i < 2; i++ )
+        {
+            try ( CloseableHttpResponse response = client.execute( get ) )
+            {
+                assertThat( response.getStatusLine().getStatusCode(), equalTo( 200 ) );
+            }
+        }
+
+        assertThat( authorizations, equalTo( List.of( "Bearer token", "Bearer token" ) ) );
+        assertThat( get.containsHeader( HttpHeaders.AUTHORIZATION ), equalTo( false ) );
+    }
+
+    @Test
+    public void followsRedirectsForGetOnly()
+            throws Exception
+    {
+        try ( CloseableHttpResponse response = client.execute( new HttpGet( baseUrl() + "/api/moved" ) ) )
+        {
+            assertThat( response.getStatusLine().getStatusCode(), equalTo( 200 ) );
+            assertThat( IOUtils.toString( response.getEntity().getContent(), StandardCharsets.UTF_8 ),
+                        equalTo( "target" ) );
+        }
+
+        final HttpPost post = new HttpPost( baseUrl() + "/api/moved" );
+        post.setEntity( new StringEntity( "{}" ) );
+        try ( CloseableHttpResponse response = client.execute( post ) )
+        {
+            assertThat( response.getStatusLine().getStatusCode(), equalTo( 302 ) );
+        }
+    }
+
+    private String baseUrl()
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static final class BearerAuthenticator
+            extends IndyClientAuthenticator
+    {
+        @Override
+        public void decorateRequest( final HttpRequest request )
+        {
+            request.addHeader( HttpHeaders.AUTHORIZATION, "Bearer token" );
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.limit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class AimdConcurrencyLimitTest
+{
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+    private void runBusy( final AimdConcurrencyLimit limit, final long rttNanos, final boolean failed )
+            throws Exception
+    {
+        int slots = limit.getLimit();
+        for ( int i = 0; i < slots; i++ )
+        {
+            limit.acquire( 0 );
+        }
+        for ( int i = 0; i < slots; i++ )
+        {
+            limit.release( rttNanos, failed );
+        }
+    }
+
+    @Test
+    public void slowStartDoublesThenBacksOffOnFailure()
+            throws Exception
+    {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit( 2, 100, 0 );
+        runBusy( limit, 10 * MS, false );
+        assertThat( limit.getLimit(), equalTo( 3 ) );
+        runBusy( limit, 10 * MS, false );
+        assertThat( limit.getLimit(), equalTo( 5 ) );
+
+        limit.acquire( 0 );
+        limit.release( 10 * MS, true );
+        assertThat( limit.getLimit(), equalTo( 3 ) );
+    }
+
+    @Test
+    public void backsOffWhenLatencyRisesAndStaysPutWhenIdle()
+            throws Exception
+    {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit( 4, 100, 0 );
+        runBusy( limit, 10 * MS, false );
+        assertThat( limit.getLimit(), equalTo( 6 ) );
+
+        limit.acquire( 0 );
+        limit.release( 10 * MS, false );
+        assertThat( limit.getLimit(), equalTo( 6 ) );
+
+        limit.acquire( 0 );
+        limit.release( 50 * MS, false );
+        assertThat( limit.getLimit(), equalTo( 4 ) );
+    }
+
+    @Test
+    public void rejectsWhenQueueIsFull()
+            throws Exception
+    {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit( 1, 1, 0 );
+        limit.acquire( 0 );
+        try
+        {
+            limit.acquire( TimeUnit.SECONDS.toNanos( 10 ) );
+            fail( "Call over the limit was let through" );
+        }
+        catch ( ConcurrencyLimitExceededException e )
+        {
+            assertThat( limit.getRejections(), equalTo( 1L ) );
+        }
+
+        limit.cancel();
+        limit.acquire( 0 );
+        assertThat( limit.getInFlight(), equalTo( 1 ) );
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.retry;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RetryBudgetTest
+{
+    @Test
+    public void retriesStopWhenBudgetIsSpent()
+    {
+        RetryBudget budget = new RetryBudget( 0.5, 0 );
+
+        int retries = 0;
+        while ( budget.tryWithdraw() )
+        {
+            retries++;
+        }
+
+        assertThat( retries, equalTo( 50 ) );
+        assertThat( budget.tryWithdraw(), equalTo( false ) );
+    }
+
+    @Test
+    public void requestsEarnRetriesBack()
+    {
+        RetryBudget budget = new RetryBudget( 0.5, 0 );
+        while ( budget.tryWithdraw() )
+        {
+            // drain
+        }
+
+        budget.deposit();
+        assertThat( budget.tryWithdraw(), equalTo( false ) );
+
+        budget.deposit();
+        assertThat( budget.tryWithdraw(), equalTo( true ) );
+        assertThat( budget.tryWithdraw(), equalTo( false ) );
+    }
+}
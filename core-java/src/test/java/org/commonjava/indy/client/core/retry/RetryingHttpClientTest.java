@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.retry;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RetryingHttpClientTest
+{
+    private static final String URL = "http://localhost/api/content/maven/remote/central/org/foo/1/foo-1.pom";
+
+    private final RetryPolicy policy = new RetryPolicy();
+
+    private ScriptedClient delegate;
+
+    private RetryingHttpClient client;
+
+    @Before
+    public void setUp()
+    {
+        policy.setMaxRetries( 2 );
+        policy.setBaseDelayMillis( 1 );
+        policy.setMaxDelayMillis( 50 );
+        delegate = new ScriptedClient();
+        client = new RetryingHttpClient( delegate, policy,
+                                         new RetryBudget( policy.getBudgetRatio(), policy.getMinRetriesPerSecond() ) );
+    }
+
+    @Test
+    public void retriesGetUntilItSucceedsAndClosesTheDiscardedResponses()
+            throws Exception
+    {
+        final Response first = delegate.respond( 503 );
+        final Response second = delegate.respond( 502 );
+        final Response third = delegate.respond( 200 );
+
+        final CloseableHttpResponse response = client.execute( new HttpGet( URL ) );
+
+        assertThat( response, sameInstance( third ) );
+        assertThat( delegate.calls, equalTo( 3 ) );
+        assertThat( first.closed, equalTo( true ) );
+        assertThat( second.closed, equalTo( true ) );
+        assertThat( third.closed, equalTo( false ) );
+    }
+
+    @Test
+    public void lastResponseGoesToTheCallerWhenRetriesRunOut()
+            throws Exception
+    {
+        delegate.respond( 503 );
+        delegate.respond( 503 );
+        final Response last = delegate.respond( 503 );
+
+        assertThat( client.execute( new HttpGet( URL ) ), sameInstance( last ) );
+        assertThat( delegate.calls, equalTo( 3 ) );
+    }
+
+    @Test
+    public void postIsNotRetried()
+            throws Exception
+    {
+        delegate.respond( 503 );
+        delegate.respond( 200 );
+
+        assertThat( client.execute( new HttpPost( URL ) ).getStatusLine().getStatusCode(), equalTo( 503 ) );
+        assertThat( delegate.calls, equalTo( 1 ) );
+    }
+
+    @Test
+    public void noRetryAttributeSendsOnce()
+            throws Exception
+    {
+        delegate.respond( 503 );
+        delegate.respond( 200 );
+
+        final HttpClientContext context = HttpClientContext.create();
+        context.setAttribute( RetryingHttpClient.NO_RETRY, Boolean.TRUE );
+        assertThat( client.execute( new HttpGet( URL ), context ).getStatusLine().getStatusCode(), equalTo( 503 ) );
+        assertThat( delegate.calls, equalTo( 1 ) );
+    }
+
+    @Test
+    public void retryAfterBeyondMaxDelayIsNotWaitedFor()
+            throws Exception
+    {
+        delegate.respond( 503 ).setHeader( "Retry-After", "120" );
+        delegate.respond( 200 );
+
+        assertThat( client.execute( new HttpGet( URL ) ).getStatusLine().getStatusCode(), equalTo( 503 ) );
+        assertThat( delegate.calls, equalTo( 1 ) );
+    }
+
+    @Test
+    public void ioFailureIsRetriedAndTheLastOneRethrown()
+            throws Exception
+    {
+        final IOException last = new IOException( "connection reset" );
+        delegate.fail( new IOException( "connection reset" ) );
+        delegate.fail( new IOException( "connection reset" ) );
+        delegate.fail( last );
+
+        try
+        {
+            client.execute( new HttpGet( URL ) );
+            fail( "Expected the I/O failure" );
+        }
+        catch ( final IOException e )
+        {
+            assertThat( e, sameInstance( last ) );
+        }
+        assertThat( delegate.calls, equalTo( 3 ) );
+    }
+
+    @Test
+    public void timeoutIsNotRetried()
+            throws Exception
+    {
+        delegate.fail( new SocketTimeoutException( "Read timed out" ) );
+        delegate.respond( 200 );
+
+        try
+        {
+            client.execute( new HttpGet( URL ) );
+            fail( "Expected the timeout" );
+        }
+        catch ( final SocketTimeoutException e )
+        {
+            assertThat( delegate.calls, equalTo( 1 ) );
+        }
+    }
+
+    @Test
+    public void exhaustedBudgetStopsRetrying()
+            throws Exception
+    {
+        client = new RetryingHttpClient( delegate, policy, new RetryBudget( 0, 0 ) );
+        delegate.respond( 503 );
+        delegate.respond( 200 );
+
+        assertThat( client.execute( new HttpGet( URL ) ).getStatusLine().getStatusCode(), equalTo( 503 ) );
+        assertThat( delegate.calls, equalTo( 1 ) );
+    }
+
+    /**
+     * Plays back the queued outcomes, one per call.
+     */
+    private static final class ScriptedClient
+            extends CloseableHttpClient
+    {
+        private final Deque<Object> outcomes = new ArrayDeque<>();
+
+        private int calls;
+
+        private Response respond( final int status )
+        {
+            final Response response = new Response( status );
+            outcomes.add( response );
+            return response;
+        }
+
+        private void fail( final IOException e )
+        {
+            outcomes.add( e );
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                                   final HttpContext context )
+                throws IOException
+        {
+            calls++;
+            final Object outcome = outcomes.remove();
+            if ( outcome instanceof IOException )
+            {
+                throw (IOException) outcome;
+            }
+            return (Response) outcome;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        @Deprecated
+        public HttpParams getParams()
+        {
+            return null;
+        }
+
+        @Override
+        @Deprecated
+        public ClientConnectionManager getConnectionManager()
+        {
+            return null;
+        }
+    }
+
+    private static final class Response
+            extends BasicHttpResponse
+            implements CloseableHttpResponse
+    {
+        private boolean closed;
+
+        private Response( final int status )
+        {
+            super( HttpVersion.HTTP_1_1, status, "" );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
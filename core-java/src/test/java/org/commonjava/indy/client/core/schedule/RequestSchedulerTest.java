@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.schedule;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RequestSchedulerTest
+{
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos( 10 );
+
+    @Test
+    public void higherLaneGoesFirst()
+            throws Exception
+    {
+        RequestScheduler scheduler = new RequestScheduler( () -> 1, TimeUnit.MINUTES.toMillis( 1 ) );
+        List<RequestPriority> served = runQueued( scheduler );
+
+        assertThat( served, equalTo( asList( RequestPriority.HIGH, RequestPriority.LOW ) ) );
+    }
+
+    @Test
+    public void starvedCallGoesFirst()
+            throws Exception
+    {
+        RequestScheduler scheduler = new RequestScheduler( () -> 1, 0 );
+        List<RequestPriority> served = runQueued( scheduler );
+
+        assertThat( served, equalTo( asList( RequestPriority.LOW, RequestPriority.HIGH ) ) );
+    }
+
+    @Test
+    public void policyPrefersContentAndLongestPrefix()
+    {
+        SchedulingPolicy policy = new SchedulingPolicy().setPriority( "/admin/stores", RequestPriority.NORMAL )
+                                                        .setPriority( "admin/stores/query", RequestPriority.HIGH );
+
+        assertThat( policy.priorityOf( "content/maven/hosted/local/org/foo.pom", "client.content" ),
+                    equalTo( RequestPriority.HIGH ) );
+        assertThat( policy.priorityOf( "folo/admin/build-1/report", "client.folo.admin" ),
+                    equalTo( RequestPriority.LOW ) );
+        assertThat( policy.priorityOf( "admin/stores/maven/remote", "client.repo.mgmt" ),
+                    equalTo( RequestPriority.NORMAL ) );
+        assertThat( policy.priorityOf( "admin/stores/query/all", "client.repo.mgmt" ),
+                    equalTo( RequestPriority.HIGH ) );
+    }
+
+    /**
+     * Queues a LOW then a HIGH call behind a held slot, and returns the order they were served in.
+     */
+    private List<RequestPriority> runQueued( final RequestScheduler scheduler )
+            throws Exception
+    {
+        scheduler.acquire( RequestPriority.NORMAL, TIMEOUT );
+
+        List<RequestPriority> served = new CopyOnWriteArrayList<>();
+        Thread low = queue( scheduler, RequestPriority.LOW, served );
+        Thread high = queue( scheduler, RequestPriority.HIGH, served );
+
+        scheduler.release();
+        low.join( 10000 );
+        high.join( 10000 );
+        return served;
+    }
+
+    private Thread queue( final RequestScheduler scheduler, final RequestPriority priority,
+                          final List<RequestPriority> served )
+            throws InterruptedException
+    {
+        Thread t = new Thread( () -> {
+            try
+            {
+                scheduler.acquire( priority, TIMEOUT );
+                served.add( priority );
+                scheduler.release();
+            }
+            catch ( Exception e )
+            {
+                throw new IllegalStateException( e );
+            }
+        } );
+        t.start();
+        while ( scheduler.getWaiting( priority ) < 1 )
+        {
+            Thread.sleep( 5 );
+        }
+        return t;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.tls;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Lookup;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TlsSessionHttpClientTest
+{
+    @Test
+    public void newConnectionsUseTimingSocketFactory()
+            throws Exception
+    {
+        final TlsSessionHttpClient client =
+                new TlsSessionHttpClient( new NoResponseClient(), new TlsSessionStats(), null );
+        final HttpClientContext context = HttpClientContext.create();
+
+        client.execute( new HttpGet( "https://localhost/api/stats/version-info" ), context );
+
+        @SuppressWarnings( "unchecked" )
+        final Lookup<ConnectionSocketFactory> registry = (Lookup<ConnectionSocketFactory>) context.getAttribute(
+                TlsSessionHttpClient.SOCKET_FACTORY_REGISTRY );
+        assertThat( registry.lookup( "https" ), instanceOf( HandshakeTimingSocketFactory.class ) );
+        assertThat( registry.lookup( "http" ), instanceOf( PlainConnectionSocketFactory.class ) );
+    }
+
+    @Test
+    public void callersRegistryIsKept()
+            throws Exception
+    {
+        final TlsSessionHttpClient client =
+                new TlsSessionHttpClient( new NoResponseClient(), new TlsSessionStats(), null );
+        final Lookup<ConnectionSocketFactory> own = RegistryBuilder.<ConnectionSocketFactory>create().build();
+        final HttpClientContext context = HttpClientContext.create();
+        context.setAttribute( TlsSessionHttpClient.SOCKET_FACTORY_REGISTRY, own );
+
+        client.execute( new HttpGet( "https://localhost/api/stats/version-info" ), context );
+
+        assertThat( context.getAttribute( TlsSessionHttpClient.SOCKET_FACTORY_REGISTRY ), sameInstance( own ) );
+    }
+
+    private static final class NoResponseClient
+            extends CloseableHttpClient
+    {
+        @Override
+        protected CloseableHttpResponse doExecute( final HttpHost target, final HttpRequest request,
+                                                   final HttpContext context )
+        {
+            return null;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        @Deprecated
+        public HttpParams getParams()
+        {
+            return null;
+        }
+
+        @Override
+        @Deprecated
+        public ClientConnectionManager getConnectionManager()
+        {
+            return null;
+        }
+    }
+}
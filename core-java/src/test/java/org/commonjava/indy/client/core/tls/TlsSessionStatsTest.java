@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.tls;
+
+import org.junit.Test;
+
+import javax.net.ssl.SSLSession;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TlsSessionStatsTest
+{
+    @Test
+    public void sessionOlderThanConnectionWasResumed()
+    {
+        TlsSessionStats stats = new TlsSessionStats();
+        long now = System.currentTimeMillis();
+
+        assertThat( stats.handshakeCompleted( sessionCreatedAt( now ), now, -1 ), equalTo( false ) );
+        assertThat( stats.handshakeCompleted( sessionCreatedAt( now - 5000 ), now, -1 ), equalTo( true ) );
+        assertThat( stats.handshakeCompleted( sessionCreatedAt( now - 5000 ), now, -1 ), equalTo( true ) );
+
+        assertThat( stats.getFullHandshakes(), equalTo( 1L ) );
+        assertThat( stats.getResumedHandshakes(), equalTo( 2L ) );
+        assertThat( stats.getMeanHandshakeMillis(), equalTo( 0.0 ) );
+    }
+
+    @Test
+    public void averagesOnlyTimedHandshakes()
+    {
+        TlsSessionStats stats = new TlsSessionStats();
+        long now = System.currentTimeMillis();
+
+        stats.handshakeCompleted( sessionCreatedAt( now ), now, TimeUnit.MILLISECONDS.toNanos( 30 ) );
+        stats.handshakeCompleted( sessionCreatedAt( now - 5000 ), now, TimeUnit.MILLISECONDS.toNanos( 10 ) );
+        stats.handshakeCompleted( sessionCreatedAt( now ), now, -1 );
+
+        assertThat( stats.getMeanHandshakeMillis(), equalTo( 20.0 ) );
+    }
+
+    private static SSLSession sessionCreatedAt( long millis )
+    {
+        return (SSLSession) Proxy.newProxyInstance(
+                SSLSession.class.getClassLoader(), new Class<?>[] { SSLSession.class },
+                ( proxy, method, args ) -> "getCreationTime".equals( method.getName() ) ? millis : null );
+    }
+}
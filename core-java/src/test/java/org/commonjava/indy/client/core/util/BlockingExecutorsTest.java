@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc. (https://github.com/Commonjava/indy-client)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.indy.client.core.util;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BlockingExecutorsTest
+{
+    private final ExecutorService executor = BlockingExecutors.newVirtualThreadExecutor();
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        ThreadContext.clearContext();
+    }
+
+    @Test
+    public void threadContextFollowsTask()
+            throws Exception
+    {
+        ThreadContext.getContext( true ).put( "trace-id", "abc" );
+
+        Object seen = executor.submit(
+                BlockingExecutors.withCallerContext( () -> ThreadContext.getContext( false ).get( "trace-id" ) ) )
+                              .get( 10, TimeUnit.SECONDS );
+
+        assertThat( seen, equalTo( "abc" ) );
+    }
+
+    @Test
+    public void threadContextClearedAfterTask()
+            throws Exception
+    {
+        ThreadContext.getContext( true ).put( "trace-id", "abc" );
+        executor.submit( BlockingExecutors.withCallerContext( () -> null ) ).get( 10, TimeUnit.SECONDS );
+
+        Object leftover = executor.submit( () -> ThreadContext.getContext( false ) ).get( 10, TimeUnit.SECONDS );
+
+        assertThat( leftover, nullValue() );
+    }
+
+    @Test
+    public void mdcDoesNotLeakBetweenTasksOnAPooledThread()
+            throws Exception
+    {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try
+        {
+            MDC.put( "request-id", "first" );
+            pool.submit( BlockingExecutors.withCallerContext( () -> null ) ).get( 10, TimeUnit.SECONDS );
+
+            MDC.clear();
+            Object seen = pool.submit( BlockingExecutors.withCallerContext( () -> MDC.get( "request-id" ) ) )
+                              .get( 10, TimeUnit.SECONDS );
+            assertThat( seen, nullValue() );
+
+            pool.submit( () -> MDC.put( "worker", "own" ) ).get( 10, TimeUnit.SECONDS );
+            MDC.put( "request-id", "second" );
+            seen = pool.submit( BlockingExecutors.withCallerContext( () -> MDC.get( "request-id" ) ) )
+                       .get( 10, TimeUnit.SECONDS );
+            assertThat( seen, equalTo( "second" ) );
+
+            Object restored = pool.submit( () -> MDC.get( "worker" ) + "/" + MDC.get( "request-id" ) )
+                                  .get( 10, TimeUnit.SECONDS );
+            assertThat( restored, equalTo( "own/null" ) );
+        }
+        finally
+        {
+            pool.shutdownNow();
+            MDC.clear();
+        }
+    }
+}